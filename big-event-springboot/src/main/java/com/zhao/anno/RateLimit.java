@@ -0,0 +1,60 @@
+package com.zhao.anno;
+
+import java.lang.annotation.*;
+
+/**
+ * 接口限流注解
+ * 加在Controller的方法（或类）上，由RateLimitInterceptor在进入Controller之前检查，
+ * 超过限制直接返回429，不会执行任何数据库操作
+ */
+@Documented
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RateLimit {
+
+    /**
+     * 限流的名称，同名的接口共用一个配额，默认为 类名.方法名
+     */
+    String name() default "";
+
+    /**
+     * 按什么维度限流
+     */
+    Dimension dimension() default Dimension.IP;
+
+    /**
+     * 限流算法
+     */
+    Algorithm algorithm() default Algorithm.SLIDING_WINDOW;
+
+    /**
+     * 时间窗口内允许的请求数；令牌桶算法中为桶的容量
+     */
+    int permits();
+
+    /**
+     * 时间窗口（秒）；令牌桶算法中为把空桶装满需要的时间
+     */
+    int seconds() default 60;
+
+    /**
+     * 超过限制时的提示信息
+     */
+    String message() default "请求过于频繁，请稍后再试";
+
+    enum Dimension {
+        // 按客户端IP
+        IP,
+        // 按登录用户，未登录时按IP
+        USER,
+        // 所有请求共用一个配额
+        GLOBAL
+    }
+
+    enum Algorithm {
+        // 滑动窗口：任意连续的时间窗口内请求数不超过permits
+        SLIDING_WINDOW,
+        // 令牌桶：允许短时间内突发permits个请求，之后按固定速率恢复
+        TOKEN_BUCKET
+    }
+}
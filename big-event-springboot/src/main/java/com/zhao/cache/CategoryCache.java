@@ -0,0 +1,165 @@
+package com.zhao.cache;
+
+import com.zhao.mapper.CategoryMapper;
+import com.zhao.pojo.CategoryVO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分类列表缓存
+ * 分类本身很少变化，缓存在 category:all 中；每个分类的文章数单独放在Hash category:article-count 中，
+ * 新增、删除文章或修改文章分类时原地加减，不用每次请求都对整张文章表做GROUP BY。
+ * 用户自己创建的分类ID放在Set category:user:{uid} 中。
+ * 所有key都有过期时间，计数即使因为异常出现偏差，过期后也会按数据库重新统计
+ */
+@Component
+@Slf4j
+public class CategoryCache {
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private CategoryMapper categoryMapper;
+
+    private static final String CATEGORY_LIST_KEY = "category:all";
+    private static final String ARTICLE_COUNT_KEY = "category:article-count";
+    private static final String USER_CATEGORY_PREFIX = "category:user:";
+    // 占位成员，保证没有创建分类的用户也有一个已加载的Set
+    private static final String PLACEHOLDER = "0";
+    private static final long EXPIRE_MINUTES = 60;
+
+    // 计数Hash存在时才加减，不存在时交给下次读取重新统计
+    private static final DefaultRedisScript<Long> HINCR_IF_EXISTS_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[1]) == 1 then return redis.call('hincrby', KEYS[1], ARGV[1], ARGV[2]) end return nil",
+            Long.class);
+
+    /**
+     * 获取所有分类及文章数
+     * @return 分类列表，每次返回新的对象，调用方可以直接修改
+     */
+    @SuppressWarnings("unchecked")
+    public List<CategoryVO> getCategories() {
+        try {
+            List<CategoryVO> categories = (List<CategoryVO>) redisTemplate.opsForValue().get(CATEGORY_LIST_KEY);
+            Map<Object, Object> counts = stringRedisTemplate.opsForHash().entries(ARTICLE_COUNT_KEY);
+            if (categories != null && !counts.isEmpty()) {
+                for (CategoryVO category : categories) {
+                    Object count = counts.get(String.valueOf(category.getId()));
+                    category.setArticleCount(count == null ? 0 : Integer.parseInt((String) count));
+                }
+                return categories;
+            }
+        } catch (Exception e) {
+            log.warn("读取分类缓存失败: {}", e.getMessage());
+        }
+        return load();
+    }
+
+    /**
+     * 获取用户创建的分类ID
+     * @param userId 用户ID
+     * @return 分类ID集合
+     */
+    public Set<Integer> getUserCategoryIds(Integer userId) {
+        String key = USER_CATEGORY_PREFIX + userId;
+        try {
+            Set<String> members = stringRedisTemplate.opsForSet().members(key);
+            if (members != null && !members.isEmpty()) {
+                Set<Integer> ids = new HashSet<>();
+                for (String member : members) {
+                    if (!PLACEHOLDER.equals(member)) {
+                        ids.add(Integer.valueOf(member));
+                    }
+                }
+                return ids;
+            }
+        } catch (Exception e) {
+            log.warn("读取用户分类缓存失败: {}", e.getMessage());
+        }
+
+        List<Integer> ids = categoryMapper.findUserCategoryIds(userId);
+        try {
+            String[] members = new String[ids.size() + 1];
+            members[0] = PLACEHOLDER;
+            for (int i = 0; i < ids.size(); i++) {
+                members[i + 1] = String.valueOf(ids.get(i));
+            }
+            stringRedisTemplate.opsForSet().add(key, members);
+            stringRedisTemplate.expire(key, EXPIRE_MINUTES, TimeUnit.MINUTES);
+        } catch (Exception e) {
+            log.warn("写入用户分类缓存失败: {}", e.getMessage());
+        }
+        return new HashSet<>(ids);
+    }
+
+    /**
+     * 分类下的文章数变化
+     * @param categoryId 分类ID，为null时忽略
+     * @param delta 变化量
+     */
+    public void incrementArticleCount(Integer categoryId, int delta) {
+        if (categoryId == null) {
+            return;
+        }
+        try {
+            stringRedisTemplate.execute(HINCR_IF_EXISTS_SCRIPT, List.of(ARTICLE_COUNT_KEY),
+                    String.valueOf(categoryId), String.valueOf(delta));
+        } catch (Exception e) {
+            // 加减失败时删除计数，下次读取重新统计
+            log.warn("更新分类文章数缓存失败: {}", e.getMessage());
+            evictQuietly(List.of(ARTICLE_COUNT_KEY));
+        }
+    }
+
+    /**
+     * 分类新增、修改、删除后调用，清除分类列表和该用户的分类ID缓存
+     * @param userId 分类创建者ID
+     */
+    public void evict(Integer userId) {
+        evictQuietly(List.of(CATEGORY_LIST_KEY, ARTICLE_COUNT_KEY, USER_CATEGORY_PREFIX + userId));
+    }
+
+    /**
+     * 从数据库统计分类及文章数，并写入缓存
+     */
+    private List<CategoryVO> load() {
+        List<CategoryVO> categories = categoryMapper.findAllWithArticleCount();
+        try {
+            Map<String, String> counts = new HashMap<>();
+            for (CategoryVO category : categories) {
+                counts.put(String.valueOf(category.getId()), String.valueOf(category.getArticleCount()));
+            }
+            // 没有分类时也写入一个占位字段，避免每次都去统计
+            counts.put(PLACEHOLDER, "0");
+            redisTemplate.opsForValue().set(CATEGORY_LIST_KEY, categories, EXPIRE_MINUTES, TimeUnit.MINUTES);
+            stringRedisTemplate.opsForHash().putAll(ARTICLE_COUNT_KEY, counts);
+            stringRedisTemplate.expire(ARTICLE_COUNT_KEY, EXPIRE_MINUTES, TimeUnit.MINUTES);
+        } catch (Exception e) {
+            log.warn("写入分类缓存失败: {}", e.getMessage());
+        }
+        return categories;
+    }
+
+    private void evictQuietly(List<String> keys) {
+        try {
+            redisTemplate.delete(keys);
+        } catch (Exception e) {
+            log.error("删除分类缓存失败", e);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.zhao.cache;
+
+import com.zhao.mapper.UserFollowMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 关注关系邻接表缓存
+ * 每个用户关注的人保存在Redis Set follow:following:{uid} 中，批量判断"是否关注"时一个脚本即可，不用每个用户查一次库。
+ * Set在第一次使用时从数据库加载，关注/取消关注的事务提交后原地增删，过期后重新加载。
+ * 每次增删还会把版本号 follow:following:ver:{uid} 加1，加载时版本号变了说明读库之后关注关系又变了，放弃写入，
+ * 避免把读库时的旧数据写进缓存。
+ * 粉丝可能非常多，不缓存整个粉丝集合，"是否是我的粉丝"只按要判断的用户ID查库
+ */
+@Component
+@Slf4j
+public class FollowGraphCache {
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private UserFollowMapper userFollowMapper;
+
+    private static final String FOLLOWING_PREFIX = "follow:following:";
+    private static final String VERSION_PREFIX = "follow:following:ver:";
+    // 占位成员，保证没有关注任何人的用户也有一个已加载的Set（用户ID从1开始，判断时会排除）
+    private static final String PLACEHOLDER = "0";
+    private static final long EXPIRE_HOURS = 24;
+
+    // Set未加载时返回nil，已加载时返回每个成员是否存在
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> SMISMEMBER_IF_EXISTS_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[1]) == 0 then return nil end " +
+            "local r = {} " +
+            "for i = 1, #ARGV do r[i] = redis.call('sismember', KEYS[1], ARGV[i]) end " +
+            "return r",
+            List.class);
+    // Set不存在且版本号没有变化时才写入，写入和设置过期时间一起完成
+    private static final DefaultRedisScript<Long> LOAD_IF_UNCHANGED_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[1]) == 1 then return 0 end " +
+            "if (redis.call('get', KEYS[2]) or '0') ~= ARGV[1] then return 0 end " +
+            "for i = 3, #ARGV do redis.call('sadd', KEYS[1], ARGV[i]) end " +
+            "redis.call('expire', KEYS[1], ARGV[2]) " +
+            "return 1",
+            Long.class);
+    // 版本号加1；Set已加载时才增删成员，未加载时交给下次读取从数据库加载
+    private static final DefaultRedisScript<Long> UPDATE_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('incr', KEYS[2]) " +
+            "redis.call('expire', KEYS[2], ARGV[3]) " +
+            "if redis.call('exists', KEYS[1]) == 1 then return redis.call(ARGV[1], KEYS[1], ARGV[2]) end " +
+            "return 0",
+            Long.class);
+
+    /**
+     * 批量判断userId是否关注了targetIds中的用户
+     * @param userId 当前用户ID
+     * @param targetIds 待判断的用户ID
+     * @return 用户ID -> 是否已关注，顺序与targetIds一致
+     */
+    public Map<Integer, Boolean> isFollowing(Integer userId, Collection<Integer> targetIds) {
+        Map<Integer, Boolean> result = new LinkedHashMap<>();
+        if (targetIds == null || targetIds.isEmpty()) {
+            return result;
+        }
+        List<String> members = targetIds.stream().map(String::valueOf).toList();
+        try {
+            List<?> hits = stringRedisTemplate.execute(SMISMEMBER_IF_EXISTS_SCRIPT,
+                    List.of(FOLLOWING_PREFIX + userId), members.toArray());
+            if (hits != null && hits.size() == members.size()) {
+                int i = 0;
+                for (Integer id : targetIds) {
+                    Object hit = hits.get(i++);
+                    result.put(id, !PLACEHOLDER.equals(String.valueOf(id)) && hit instanceof Number n && n.longValue() == 1);
+                }
+                return result;
+            }
+        } catch (Exception e) {
+            log.warn("读取关注关系缓存失败: {}", e.getMessage());
+        }
+
+        // Set未加载或Redis不可用：按数据库判断，顺便加载
+        Set<Integer> ids = new HashSet<>(loadFollowingIds(userId));
+        for (Integer id : targetIds) {
+            result.put(id, ids.contains(id));
+        }
+        return result;
+    }
+
+    /**
+     * 批量判断targetIds中的用户是否关注了userId
+     * 只查询要判断的这几个用户，不加载全部粉丝
+     * @param userId 当前用户ID
+     * @param targetIds 待判断的用户ID
+     * @return 用户ID -> 是否是我的粉丝，顺序与targetIds一致
+     */
+    public Map<Integer, Boolean> isFollowedBy(Integer userId, Collection<Integer> targetIds) {
+        Map<Integer, Boolean> result = new LinkedHashMap<>();
+        if (targetIds == null || targetIds.isEmpty()) {
+            return result;
+        }
+        Set<Integer> followers = new HashSet<>(userFollowMapper.findFollowerIdsIn(userId, targetIds));
+        for (Integer id : targetIds) {
+            result.put(id, followers.contains(id));
+        }
+        return result;
+    }
+
+    /**
+     * 判断followerId是否关注了followedId
+     */
+    public boolean isFollowing(Integer followerId, Integer followedId) {
+        return isFollowing(followerId, List.of(followedId)).get(followedId);
+    }
+
+    /**
+     * 获取用户关注的所有用户ID
+     * @param userId 用户ID
+     * @return 被关注者ID集合
+     */
+    public Set<Integer> getFollowingIds(Integer userId) {
+        try {
+            // 已加载的Set至少包含占位成员，为空说明未加载
+            Set<String> members = stringRedisTemplate.opsForSet().members(FOLLOWING_PREFIX + userId);
+            if (members != null && !members.isEmpty()) {
+                Set<Integer> ids = new HashSet<>();
+                for (String member : members) {
+                    if (!PLACEHOLDER.equals(member)) {
+                        ids.add(Integer.valueOf(member));
+                    }
+                }
+                return ids;
+            }
+        } catch (Exception e) {
+            log.warn("读取关注关系缓存失败: {}", e.getMessage());
+        }
+        return new HashSet<>(loadFollowingIds(userId));
+    }
+
+    /**
+     * 关注后同步缓存，在事务中调用时事务提交后才同步
+     */
+    public void onFollow(Integer followerId, Integer followedId) {
+        afterCommit(() -> update("sadd", followerId, followedId));
+    }
+
+    /**
+     * 取消关注后同步缓存，在事务中调用时事务提交后才同步
+     */
+    public void onUnfollow(Integer followerId, Integer followedId) {
+        afterCommit(() -> update("srem", followerId, followedId));
+    }
+
+    private void update(String command, Integer followerId, Integer followedId) {
+        try {
+            stringRedisTemplate.execute(UPDATE_SCRIPT, List.of(FOLLOWING_PREFIX + followerId, VERSION_PREFIX + followerId),
+                    command, String.valueOf(followedId), String.valueOf(TimeUnit.HOURS.toSeconds(EXPIRE_HOURS)));
+        } catch (Exception e) {
+            // 同步失败时删除Set，下次读取重新加载
+            log.warn("同步关注关系缓存失败: {}", e.getMessage());
+            try {
+                stringRedisTemplate.delete(FOLLOWING_PREFIX + followerId);
+            } catch (Exception ex) {
+                log.error("删除关注关系缓存失败", ex);
+            }
+        }
+    }
+
+    /**
+     * 从数据库读取用户关注的人并写入缓存
+     * 先记下版本号再读库，写入时版本号变了就放弃，由下次读取重新加载
+     */
+    private List<Integer> loadFollowingIds(Integer userId) {
+        String version = null;
+        try {
+            version = stringRedisTemplate.opsForValue().get(VERSION_PREFIX + userId);
+        } catch (Exception e) {
+            log.warn("读取关注关系版本失败: {}", e.getMessage());
+        }
+        List<Integer> ids = userFollowMapper.findFollowingIds(userId);
+        try {
+            List<String> args = new ArrayList<>(ids.size() + 3);
+            args.add(version == null ? "0" : version);
+            args.add(String.valueOf(TimeUnit.HOURS.toSeconds(EXPIRE_HOURS)));
+            args.add(PLACEHOLDER);
+            ids.forEach(id -> args.add(String.valueOf(id)));
+            stringRedisTemplate.execute(LOAD_IF_UNCHANGED_SCRIPT, List.of(FOLLOWING_PREFIX + userId, VERSION_PREFIX + userId),
+                    args.toArray());
+        } catch (Exception e) {
+            log.warn("写入关注关系缓存失败: {}", e.getMessage());
+        }
+        return ids;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
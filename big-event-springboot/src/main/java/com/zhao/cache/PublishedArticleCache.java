@@ -0,0 +1,222 @@
+package com.zhao.cache;
+
+import com.zhao.config.VirtualThreadConfig;
+import com.zhao.mapper.ArticleMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已发布文章ID集合缓存
+ * 发表评论前要确认文章已发布，原来每次都读取整篇文章（包括正文），
+ * 现在先查Redis Set article:published，命中即可；不在集合中时只查询文章状态确认，所以集合漏了某篇文章也不会误拒评论。
+ * 读取时不往集合里补文章，否则会和并发的撤回互相覆盖，把已撤回的文章补回去；集合只由发布、撤回、删除原地增删，过期后重新加载。
+ * 每次增删还会把版本号 article:published:ver 加1，加载期间版本号变了就放弃这次加载。
+ * 集合不存在时本次按文章状态判断，同时由抢到加载锁的节点在后台线程按ID分页加载，发表评论的请求不等待加载；
+ * 已发布文章超过 MAX_LOAD_SIZE 篇时不缓存，记下标记，标记过期前不再尝试加载
+ */
+@Component
+@Slf4j
+public class PublishedArticleCache {
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private ArticleMapper articleMapper;
+
+    @Autowired
+    private Environment environment;
+
+    private static final String PUBLISHED_KEY = "article:published";
+    private static final String VERSION_KEY = "article:published:ver";
+    private static final String LOADING_PREFIX = "article:published:loading:";
+    // 加载锁，同一时间只有一个节点加载
+    private static final String LOAD_LOCK_KEY = "article:published:load-lock";
+    // 已发布文章太多、不缓存的标记
+    private static final String TOO_MANY_KEY = "article:published:too-many";
+    private static final String PUBLISHED_STATE = "已发布";
+    // 占位成员，保证没有已发布文章时也有一个已加载的Set（文章ID从1开始，不会冲突）
+    private static final String PLACEHOLDER = "0";
+    private static final long EXPIRE_HOURS = 1;
+    // 加载时每次读取的ID数和最多缓存的文章数
+    private static final int LOAD_PAGE_SIZE = 1000;
+    private static final int MAX_LOAD_SIZE = 200_000;
+    // 加载中途退出时临时集合的过期时间
+    private static final long LOADING_EXPIRE_MINUTES = 5;
+
+    // Set已加载时返回是否是成员；未加载时返回-1表示抢到了加载锁、需要加载，-2表示不需要本次加载
+    //（其他节点正在加载，或者已发布文章太多不缓存）
+    private static final DefaultRedisScript<Long> SISMEMBER_OR_LOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[1]) == 1 then return redis.call('sismember', KEYS[1], ARGV[1]) end " +
+            "if redis.call('exists', KEYS[2]) == 1 then return -2 end " +
+            "if redis.call('set', KEYS[3], ARGV[2], 'NX', 'EX', ARGV[3]) then return -1 end " +
+            "return -2",
+            Long.class);
+    // 版本号加1；Set已加载时才增删成员并延长过期时间，未加载时交给下次加载
+    private static final DefaultRedisScript<Long> UPDATE_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('incr', KEYS[2]) " +
+            "redis.call('expire', KEYS[2], ARGV[3]) " +
+            "if redis.call('exists', KEYS[1]) == 1 then " +
+            "  local n = redis.call(ARGV[1], KEYS[1], ARGV[2]) " +
+            "  redis.call('expire', KEYS[1], ARGV[3]) " +
+            "  return n " +
+            "end " +
+            "return 0",
+            Long.class);
+    // 只释放自己持有的加载锁
+    private static final DefaultRedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) end return 0",
+            Long.class);
+    // Set仍未加载且版本号没有变化时，把加载好的临时集合改名为正式集合，否则丢弃临时集合
+    private static final DefaultRedisScript<Long> COMMIT_LOAD_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[1]) == 0 and (redis.call('get', KEYS[2]) or '0') == ARGV[1] then " +
+            "  redis.call('rename', KEYS[3], KEYS[1]) " +
+            "  redis.call('expire', KEYS[1], ARGV[2]) " +
+            "  return 1 " +
+            "end " +
+            "redis.call('del', KEYS[3]) " +
+            "return 0",
+            Long.class);
+
+    // 后台加载线程，同一时间最多一个加载任务在执行、一个在等待
+    private ThreadPoolExecutor loader;
+
+    @PostConstruct
+    public void init() {
+        loader = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1),
+                VirtualThreadConfig.threadFactory(environment, "published-article-load"), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        // 没加载完的临时集合和加载锁会自己过期
+        loader.shutdownNow();
+        loader.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 查询文章状态
+     * @param articleId 文章ID
+     * @return 文章状态，文章不存在时返回null
+     */
+    public String getState(Integer articleId) {
+        try {
+            String lock = UUID.randomUUID().toString();
+            Long member = stringRedisTemplate.execute(SISMEMBER_OR_LOCK_SCRIPT, List.of(PUBLISHED_KEY, TOO_MANY_KEY, LOAD_LOCK_KEY),
+                    String.valueOf(articleId), lock, String.valueOf(TimeUnit.MINUTES.toSeconds(LOADING_EXPIRE_MINUTES)));
+            if (member != null && member == 1) {
+                return PUBLISHED_STATE;
+            }
+            if (member != null && member == -1) {
+                loadInBackground(lock);
+            }
+        } catch (Exception e) {
+            log.warn("读取已发布文章缓存失败: {}", e.getMessage());
+        }
+        return articleMapper.findStateById(articleId);
+    }
+
+    /**
+     * 文章发布后调用
+     */
+    public void published(Integer articleId) {
+        update("sadd", articleId);
+    }
+
+    /**
+     * 文章撤回为草稿或被删除后调用
+     */
+    public void unpublished(Integer articleId) {
+        update("srem", articleId);
+    }
+
+    private void update(String command, Integer articleId) {
+        try {
+            stringRedisTemplate.execute(UPDATE_SCRIPT, List.of(PUBLISHED_KEY, VERSION_KEY),
+                    command, String.valueOf(articleId), String.valueOf(TimeUnit.HOURS.toSeconds(EXPIRE_HOURS)));
+        } catch (Exception e) {
+            // 更新失败时删除集合，下次读取重新加载
+            log.warn("更新已发布文章缓存失败: {}", e.getMessage());
+            evictQuietly();
+        }
+    }
+
+    private void loadInBackground(String lock) {
+        try {
+            loader.execute(() -> {
+                try {
+                    load();
+                } catch (Exception e) {
+                    log.warn("加载已发布文章缓存失败: {}", e.getMessage());
+                } finally {
+                    unlockQuietly(lock);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            unlockQuietly(lock);
+        }
+    }
+
+    /**
+     * 从数据库按ID分页加载已发布文章的ID
+     * 先写入临时集合，加载完成后版本号没有变化才替换正式集合
+     */
+    private void load() {
+        String version = stringRedisTemplate.opsForValue().get(VERSION_KEY);
+        String loadingKey = LOADING_PREFIX + UUID.randomUUID();
+        stringRedisTemplate.opsForSet().add(loadingKey, PLACEHOLDER);
+        stringRedisTemplate.expire(loadingKey, LOADING_EXPIRE_MINUTES, TimeUnit.MINUTES);
+
+        int loaded = 0;
+        Integer afterId = 0;
+        while (true) {
+            List<Integer> ids = articleMapper.findPublishedIdsAfter(afterId, LOAD_PAGE_SIZE);
+            if (ids.isEmpty()) {
+                break;
+            }
+            loaded += ids.size();
+            if (loaded > MAX_LOAD_SIZE) {
+                log.warn("已发布文章超过{}篇，不再缓存，按文章状态判断", MAX_LOAD_SIZE);
+                stringRedisTemplate.delete(loadingKey);
+                stringRedisTemplate.opsForValue().set(TOO_MANY_KEY, "1", EXPIRE_HOURS, TimeUnit.HOURS);
+                return;
+            }
+            stringRedisTemplate.opsForSet().add(loadingKey, ids.stream().map(String::valueOf).toArray(String[]::new));
+            if (ids.size() < LOAD_PAGE_SIZE) {
+                break;
+            }
+            afterId = ids.get(ids.size() - 1);
+        }
+        stringRedisTemplate.execute(COMMIT_LOAD_SCRIPT, List.of(PUBLISHED_KEY, VERSION_KEY, loadingKey),
+                version == null ? "0" : version, String.valueOf(TimeUnit.HOURS.toSeconds(EXPIRE_HOURS)));
+    }
+
+    private void unlockQuietly(String lock) {
+        try {
+            stringRedisTemplate.execute(UNLOCK_SCRIPT, List.of(LOAD_LOCK_KEY), lock);
+        } catch (Exception e) {
+            log.warn("释放已发布文章缓存的加载锁失败: {}", e.getMessage());
+        }
+    }
+
+    private void evictQuietly() {
+        try {
+            stringRedisTemplate.delete(PUBLISHED_KEY);
+        } catch (Exception e) {
+            log.error("删除已发布文章缓存失败", e);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.zhao.cache;
+
+import com.zhao.mapper.UserMapper;
+import com.zhao.pojo.UserProfile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 用户资料缓存
+ * 登录拦截器、发表评论、作者申请、封禁用户等只需要昵称、头像、角色、状态的地方不用每次读取整行用户记录。
+ * 分两级：本机内存中保存较短时间（默认30秒），Redis user:profile:{uid} 中保存30分钟，都没有时从数据库加载。
+ * 资料修改后由CacheEventListener在事务提交后调用evict，本机和Redis同时删除；
+ * 其他节点收到广播的事件后调用evictLocal，广播丢失时本机缓存最多在过期后更新。
+ * 各级命中次数可以通过 /admin/metrics 查看
+ */
+@Component
+@Slf4j
+public class UserProfileCache {
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    // 本机缓存的有效时间，封禁用户后其他节点最多在这段时间后拦截
+    @Value("${user.profile-cache.local-ttl-seconds:30}")
+    private long localTtlSeconds;
+
+    // 本机缓存的最大条数
+    @Value("${user.profile-cache.local-max-size:10000}")
+    private int localMaxSize;
+
+    private static final String PROFILE_PREFIX = "user:profile:";
+    private static final long EXPIRE_MINUTES = 30;
+
+    private final ConcurrentHashMap<Integer, LocalEntry> local = new ConcurrentHashMap<>();
+
+    private final LongAdder localHits = new LongAdder();
+    private final LongAdder redisHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private record LocalEntry(UserProfile profile, long expireAt) {
+    }
+
+    /**
+     * 获取用户资料
+     * @param userId 用户ID
+     * @return 用户资料，用户不存在时返回null
+     */
+    public UserProfile get(Integer userId) {
+        if (userId == null) {
+            return null;
+        }
+        LocalEntry entry = local.get(userId);
+        if (entry != null && entry.expireAt() > System.currentTimeMillis()) {
+            localHits.increment();
+            return entry.profile();
+        }
+
+        String key = PROFILE_PREFIX + userId;
+        try {
+            Object cached = redisTemplate.opsForValue().get(key);
+            if (cached instanceof UserProfile profile) {
+                redisHits.increment();
+                putLocal(userId, profile);
+                return profile;
+            }
+        } catch (Exception e) {
+            log.warn("读取用户资料缓存失败: {}", e.getMessage());
+        }
+
+        misses.increment();
+        UserProfile profile = userMapper.findProfileById(userId);
+        if (profile != null) {
+            putLocal(userId, profile);
+            try {
+                redisTemplate.opsForValue().set(key, profile, EXPIRE_MINUTES, TimeUnit.MINUTES);
+            } catch (Exception e) {
+                log.warn("写入用户资料缓存失败: {}", e.getMessage());
+            }
+        }
+        return profile;
+    }
+
+    /**
+     * 用户资料修改后调用，清除缓存
+     * @param userId 用户ID
+     */
+    public void evict(Integer userId) {
+        if (userId == null) {
+            return;
+        }
+        local.remove(userId);
+        try {
+            redisTemplate.delete(PROFILE_PREFIX + userId);
+        } catch (Exception e) {
+            log.error("删除用户资料缓存失败", e);
+        }
+    }
+
+    /**
+     * 只清除本机缓存，其他节点修改了用户资料时调用
+     * @param userId 用户ID
+     */
+    public void evictLocal(Integer userId) {
+        if (userId != null) {
+            local.remove(userId);
+        }
+    }
+
+    /**
+     * 命中率统计
+     */
+    public Map<String, Object> metrics() {
+        long localCount = localHits.sum();
+        long redisCount = redisHits.sum();
+        long missCount = misses.sum();
+        long total = localCount + redisCount + missCount;
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("size", local.size());
+        metrics.put("localHits", localCount);
+        metrics.put("redisHits", redisCount);
+        metrics.put("misses", missCount);
+        metrics.put("hitRate", total == 0 ? 0.0 : (double) (localCount + redisCount) / total);
+        return metrics;
+    }
+
+    private void putLocal(Integer userId, UserProfile profile) {
+        if (local.size() >= localMaxSize) {
+            // 超过上限时先清理过期的，仍然超过就全部清空，由后续请求重新加载
+            long now = System.currentTimeMillis();
+            local.values().removeIf(e -> e.expireAt() <= now);
+            if (local.size() >= localMaxSize) {
+                local.clear();
+            }
+        }
+        local.put(userId, new LocalEntry(profile, System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(localTtlSeconds)));
+    }
+}
@@ -0,0 +1,39 @@
+package com.zhao.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 数据源配置
+ * 点赞、收藏、关注用 INSERT ... ON DUPLICATE KEY UPDATE 一条语句完成，并按受影响的行数增减计数。
+ * MySQL驱动默认返回匹配的行数，记录已经是目标状态时也返回1，和新插入一行分不开，
+ * 这里让驱动返回实际修改的行数（useAffectedRows=true）
+ */
+@Configuration
+@Slf4j
+public class DataSourceConfig {
+
+    /**
+     * 连接池在第一次获取连接时才启动，这里修改连接参数不需要重建连接池
+     */
+    @Bean
+    public static BeanPostProcessor affectedRowsDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource) {
+                    String url = dataSource.getJdbcUrl();
+                    if (url != null && url.contains("useAffectedRows=false")) {
+                        log.warn("数据库连接参数useAffectedRows=false，点赞、收藏计数在并发重复请求时可能不准确");
+                    } else {
+                        dataSource.addDataSourceProperty("useAffectedRows", "true");
+                    }
+                }
+                return bean;
+            }
+        };
+    }
+}
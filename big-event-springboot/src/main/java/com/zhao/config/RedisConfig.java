@@ -1,10 +1,16 @@
 package com.zhao.config;
 
 
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.zhao.event.RedisEventBridge;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
@@ -42,13 +48,30 @@ public class RedisConfig {
         // 设置value的序列化方式
         // 使用GenericJackson2JsonRedisSerializer意味着value会以JSON格式存储
         // 这样做的好处是：我们可以在Redis中直接看到可读的JSON数据，而且能存储复杂的Java对象
-        template.setValueSerializer(new GenericJackson2JsonRedisSerializer());
+        // 默认的序列化器不支持LocalDateTime，缓存实体类之前需要注册JavaTimeModule
+        GenericJackson2JsonRedisSerializer jsonSerializer = new GenericJackson2JsonRedisSerializer()
+                .configure(mapper -> mapper.registerModule(new JavaTimeModule())
+                        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+        template.setValueSerializer(jsonSerializer);
         // 设置hash数据结构的value的序列化方式，同样使用JSON序列化
-        template.setHashValueSerializer(new GenericJackson2JsonRedisSerializer());
+        template.setHashValueSerializer(jsonSerializer);
 
         // 完成所有设置后，初始化模板
         template.afterPropertiesSet();
         // 返回配置好的RedisTemplate，Spring会把它加入到容器中供其他地方使用
         return template;
     }
-}
\ No newline at end of file
+
+    /**
+     * 订阅领域事件频道，收到其他节点广播的事件后交给RedisEventBridge处理
+     */
+    @Bean
+    @ConditionalOnProperty(name = "event.bridge.enabled", havingValue = "true", matchIfMissing = true)
+    public RedisMessageListenerContainer eventBusListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                   RedisEventBridge redisEventBridge) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(redisEventBridge, new ChannelTopic(RedisEventBridge.CHANNEL));
+        return container;
+    }
+}
@@ -0,0 +1,208 @@
+package com.zhao.config;
+
+import com.zhao.context.UserContextHolder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 线程池配置类
+ * 耗时的工作（比如上传文件到OSS、生成缩略图、计算密码哈希、处理事件）放到后台线程池执行，
+ * 线程数和队列长度都有上限，避免突发流量把线程或内存耗尽。
+ * 虚拟线程模式下（见VirtualThreadConfig），等待IO的线程池改为每个任务一个虚拟线程
+ */
+@Configuration
+@EnableAsync
+public class ThreadPoolConfig {
+
+    @Autowired
+    private Environment environment;
+
+    /**
+     * 文件上传线程池
+     * 上传到存储的过程在这里执行，不占用Tomcat的请求线程
+     */
+    @Bean("uploadExecutor")
+    public AsyncTaskExecutor uploadExecutor(@Value("${upload.executor.core-size:4}") int coreSize,
+                                                 @Value("${upload.executor.max-size:8}") int maxSize,
+                                                 @Value("${upload.executor.queue-capacity:200}") int queueCapacity) {
+        return buildIoExecutor("upload-", coreSize, maxSize, queueCapacity);
+    }
+
+    /**
+     * OSS分片上传线程池
+     * 与上传线程池分开，避免上传线程等待分片时把分片任务也堵在同一个队列里
+     */
+    @Bean("ossPartExecutor")
+    public AsyncTaskExecutor ossPartExecutor(@Value("${oss.part-executor.core-size:8}") int coreSize,
+                                                  @Value("${oss.part-executor.max-size:16}") int maxSize,
+                                                  @Value("${oss.part-executor.queue-capacity:500}") int queueCapacity) {
+        return buildIoExecutor("oss-part-", coreSize, maxSize, queueCapacity);
+    }
+
+    /**
+     * 文章详情聚合查询线程池
+     * 详情页的几个查询在这里并发执行；队列满时直接拒绝，被拒绝的部分按缺失返回，
+     * 不在请求线程里执行，否则各部分的超时时间就限制不了请求的耗时
+     */
+    @Bean("detailExecutor")
+    public AsyncTaskExecutor detailExecutor(@Value("${article.detail.executor.core-size:8}") int coreSize,
+                                            @Value("${article.detail.executor.max-size:16}") int maxSize,
+                                            @Value("${article.detail.executor.queue-capacity:200}") int queueCapacity) {
+        return buildIoExecutor("detail-", coreSize, maxSize, queueCapacity, true);
+    }
+
+    /**
+     * 事件处理线程池
+     * 事务提交后的事件广播等附带工作在这里执行，不占用发起请求的线程
+     */
+    @Bean("eventExecutor")
+    public AsyncTaskExecutor eventExecutor(@Value("${event.executor.core-size:2}") int coreSize,
+                                           @Value("${event.executor.max-size:4}") int maxSize,
+                                           @Value("${event.executor.queue-capacity:1000}") int queueCapacity) {
+        return buildIoExecutor("event-", coreSize, maxSize, queueCapacity);
+    }
+
+    /**
+     * 登录线程池
+     * 密码校验通过后的数据库、Redis操作和签发令牌在这里执行，不占用计算哈希的passwordExecutor；
+     * 容纳不下时直接拒绝，由登录接口返回"系统繁忙"，不回到密码哈希线程里执行
+     */
+    @Bean("loginExecutor")
+    public AsyncTaskExecutor loginExecutor(@Value("${login.executor.core-size:4}") int coreSize,
+                                           @Value("${login.executor.max-size:16}") int maxSize,
+                                           @Value("${login.executor.queue-capacity:200}") int queueCapacity) {
+        return buildIoExecutor("login-", coreSize, maxSize, queueCapacity, true);
+    }
+
+    /**
+     * 图片处理线程池
+     * 生成缩略图比较耗CPU和内存，线程数固定且较少；队列满时直接拒绝，列表继续使用原图
+     */
+    @Bean("imageExecutor")
+    public ThreadPoolTaskExecutor imageExecutor(@Value("${image.executor.size:2}") int size,
+                                                @Value("${image.executor.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = buildExecutor("image-", size, size, queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+
+    /**
+     * 密码哈希线程池
+     * BCrypt是故意设计得很慢的CPU密集计算，固定用一部分CPU核心执行，登录高峰时其他接口仍有CPU可用；
+     * 队列满时直接拒绝，由接口返回"系统繁忙"，不在请求线程里计算
+     */
+    @Bean("passwordExecutor")
+    public ThreadPoolTaskExecutor passwordExecutor(@Value("${password.executor.size:0}") int size,
+                                                   @Value("${password.executor.queue-capacity:200}") int queueCapacity) {
+        if (size <= 0) {
+            // 默认使用一半的CPU核心
+            size = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        }
+        ThreadPoolTaskExecutor executor = buildExecutor("password-", size, size, queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+
+    /**
+     * 创建等待IO的线程池
+     * 虚拟线程模式下每个任务一个虚拟线程，同时执行的任务数不超过原线程池能容纳的任务数（最大线程数+队列长度），
+     * 超过时提交任务的线程等待，与平台线程池队列满时由调用线程执行一样起到限流作用
+     */
+    private AsyncTaskExecutor buildIoExecutor(String threadNamePrefix, int coreSize, int maxSize, int queueCapacity) {
+        return buildIoExecutor(threadNamePrefix, coreSize, maxSize, queueCapacity, false);
+    }
+
+    /**
+     * 创建等待IO的线程池
+     * @param rejectWhenFull 容纳不下时是否直接拒绝（抛出TaskRejectedException），而不是由提交任务的线程执行或等待
+     */
+    private AsyncTaskExecutor buildIoExecutor(String threadNamePrefix, int coreSize, int maxSize, int queueCapacity,
+                                              boolean rejectWhenFull) {
+        if (!VirtualThreadConfig.isEnabled(environment)) {
+            ThreadPoolTaskExecutor executor = buildExecutor(threadNamePrefix, coreSize, maxSize, queueCapacity);
+            if (rejectWhenFull) {
+                executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+            }
+            return executor;
+        }
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
+        executor.setTaskDecorator(UserContextHolder.taskDecorator());
+        // 关闭应用时等待已提交的任务执行完
+        executor.setTaskTerminationTimeout(30_000);
+        if (rejectWhenFull) {
+            // SimpleAsyncTaskExecutor达到并发上限时只会让提交任务的线程等待，拒绝由外层的信号量实现
+            return new RejectingTaskExecutor(executor, maxSize + queueCapacity);
+        }
+        executor.setConcurrencyLimit(maxSize + queueCapacity);
+        return executor;
+    }
+
+    /**
+     * 创建有界线程池，队列满时由调用线程自己执行
+     */
+    private static ThreadPoolTaskExecutor buildExecutor(String threadNamePrefix, int coreSize, int maxSize, int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        // 任务带着提交时的当前用户执行
+        executor.setTaskDecorator(UserContextHolder.taskDecorator());
+        // 关闭应用时等待已提交的任务执行完
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /**
+     * 同时执行的任务数达到上限时直接拒绝的执行器
+     * 提交时取一个许可，取不到就抛出TaskRejectedException；任务执行完（或者没能提交）时归还许可
+     */
+    private static class RejectingTaskExecutor implements AsyncTaskExecutor, AutoCloseable {
+
+        private final SimpleAsyncTaskExecutor delegate;
+        private final Semaphore permits;
+
+        RejectingTaskExecutor(SimpleAsyncTaskExecutor delegate, int limit) {
+            this.delegate = delegate;
+            this.permits = new Semaphore(limit);
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            if (!permits.tryAcquire()) {
+                throw new TaskRejectedException("执行器" + delegate.getThreadNamePrefix() + "已满，拒绝任务" + task);
+            }
+            try {
+                delegate.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        permits.release();
+                    }
+                });
+            } catch (RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+}
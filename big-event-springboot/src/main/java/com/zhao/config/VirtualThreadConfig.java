@@ -0,0 +1,92 @@
+package com.zhao.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 虚拟线程模式配置
+ * 设置 spring.threads.virtual.enabled=true 并运行在JDK 21及以上时开启：
+ * - Tomcat的请求处理由Spring Boot切换到虚拟线程
+ * - ThreadPoolConfig中等待IO的线程池（文件上传、OSS分片、文章详情、事件处理、登录）改为每个任务一个虚拟线程，
+ *   CPU密集的线程池（缩略图、密码哈希）仍使用固定数量的平台线程
+ * - 短信、邮件发送队列的后台线程改为虚拟线程，线程数不变，避免超过服务商的并发限制
+ * - 请求并发不再受Tomcat线程数限制，数据库连接池成为真正的并发上限，
+ *   未显式配置时调整连接池大小并缩短获取连接的超时时间，数据库变慢时请求快速失败而不是无限堆积
+ * 在JDK 17上开启时只打印警告，仍使用平台线程
+ */
+@Configuration
+@Slf4j
+public class VirtualThreadConfig {
+
+    private final Environment environment;
+
+    public VirtualThreadConfig(Environment environment) {
+        this.environment = environment;
+    }
+
+    @PostConstruct
+    public void checkRuntime() {
+        if (environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false) && !isEnabled(environment)) {
+            log.warn("已配置 spring.threads.virtual.enabled=true，但当前JDK版本为{}，虚拟线程需要JDK 21及以上，继续使用平台线程",
+                    Runtime.version().feature());
+        }
+    }
+
+    /**
+     * 是否使用虚拟线程，配置开启并且JDK支持时才返回true
+     */
+    public static boolean isEnabled(Environment environment) {
+        return Threading.VIRTUAL.isActive(environment);
+    }
+
+    /**
+     * 后台线程的线程工厂，虚拟线程模式下创建虚拟线程，否则创建守护线程
+     * @param environment 运行环境
+     * @param threadName 线程名前缀，和ThreadPoolConfig中的线程池一样在后面加上序号，如 sms-dispatch-1
+     */
+    public static ThreadFactory threadFactory(Environment environment, String threadName) {
+        if (isEnabled(environment)) {
+            return new VirtualThreadTaskExecutor(threadName + "-").getVirtualThreadFactory();
+        }
+        AtomicInteger sequence = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, threadName + "-" + sequence.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /**
+     * 虚拟线程模式下调整Hikari连接池
+     * 连接池在第一次获取连接时才启动，这里修改配置不需要重建连接池
+     */
+    @Bean
+    public static BeanPostProcessor virtualThreadDataSourcePostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource && isEnabled(environment)) {
+                    if (!environment.containsProperty("spring.datasource.hikari.maximum-pool-size")) {
+                        dataSource.setMaximumPoolSize(environment.getProperty("virtual-threads.db.max-pool-size", Integer.class, 20));
+                    }
+                    if (!environment.containsProperty("spring.datasource.hikari.connection-timeout")) {
+                        dataSource.setConnectionTimeout(environment.getProperty("virtual-threads.db.connection-timeout", Long.class, 3000L));
+                    }
+                    log.info("虚拟线程模式，数据库连接池大小: {}，获取连接超时: {}ms",
+                            dataSource.getMaximumPoolSize(), dataSource.getConnectionTimeout());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -1,7 +1,10 @@
 package com.zhao.config;
 
 import com.zhao.interceptors.LoginInterceptors;
+import com.zhao.interceptors.RateLimitInterceptor;
+import com.zhao.storage.LocalFileStorage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -13,8 +16,17 @@ public class WebConfig implements WebMvcConfigurer {
     @Autowired
     private LoginInterceptors loginInterceptors;
 
+    @Autowired
+    private RateLimitInterceptor rateLimitInterceptor;
+
+    //本地存储的文件访问路径，与LocalFileStorage返回的URL一致
+    @Value("${storage.local.url-prefix:/files/}")
+    private String localFileUrlPrefix;
+
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
+        //限流拦截器先注册先执行，拦截所有路径，只检查带@RateLimit注解的接口
+        registry.addInterceptor(rateLimitInterceptor);
         //配置不应当拦截的路径
         registry.addInterceptor(loginInterceptors).excludePathPatterns(
                 "/user/login",
@@ -30,10 +42,13 @@ public class WebConfig implements WebMvcConfigurer {
                 "/api/sms/verify",
                 "/article/home",
                 "/article/detail-page",
+                "/article/detail-aggregate",
+                "/article/page",
                 "/search",
                 "/article/*/comments",
                 "/category/list",
-                "/user/send-forget-code"
+                "/user/send-forget-code",
+                LocalFileStorage.pathPattern(localFileUrlPrefix)
                 ); // 添加获取文章评论列表接口到不拦截路径
     }
 }
@@ -0,0 +1,68 @@
+package com.zhao.context;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 当前登录用户
+ * 登录拦截器从JWT令牌中解析出来，创建后不可修改，可以安全地传给其他线程
+ */
+public final class CurrentUser {
+
+    private final Integer id;
+    private final String username;
+    private final Integer role;
+    // 兼容ThreadLocalUtil.get()返回的Map，创建时生成一次
+    private final Map<String, Object> claims;
+
+    public CurrentUser(Integer id, String username, Integer role) {
+        this.id = id;
+        this.username = username;
+        this.role = role;
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", id);
+        map.put("username", username);
+        map.put("role", role);
+        this.claims = Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * 从JWT令牌的载荷创建
+     * @param claims 载荷，包含id、username、role
+     */
+    public static CurrentUser fromClaims(Map<String, Object> claims) {
+        return new CurrentUser((Integer) claims.get("id"), (String) claims.get("username"), (Integer) claims.get("role"));
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public Integer getRole() {
+        return role;
+    }
+
+    /**
+     * 是否是管理员（role=0）
+     */
+    public boolean isAdmin() {
+        return role != null && role == 0;
+    }
+
+    /**
+     * 与JWT载荷相同结构的只读Map
+     */
+    public Map<String, Object> toClaims() {
+        return claims;
+    }
+
+    @Override
+    public String toString() {
+        return "CurrentUser{id=" + id + ", username=" + username + ", role=" + role + "}";
+    }
+}
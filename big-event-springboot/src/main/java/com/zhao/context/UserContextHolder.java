@@ -0,0 +1,211 @@
+package com.zhao.context;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskDecorator;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * 当前用户上下文
+ * 请求线程由登录拦截器通过 set/clear 设置；交给线程池、CompletableFuture执行的任务用 wrap 包装后
+ * 带着提交时的用户执行，ThreadPoolConfig中的线程池都已配置了 taskDecorator，提交的任务会自动包装。
+ * JDK支持ScopedValue（JDK 25及以上）时，runWith/callWith 和包装后的任务通过ScopedValue绑定用户，
+ * 作用域结束自动失效，不会遗留在线程上
+ */
+@Slf4j
+public final class UserContextHolder {
+
+    private static final ThreadLocal<CurrentUser> THREAD_LOCAL = new ThreadLocal<>();
+    private static final ScopedValueSupport SCOPED = ScopedValueSupport.create();
+
+    private UserContextHolder() {
+    }
+
+    /**
+     * 当前用户，未登录时返回null
+     */
+    public static CurrentUser get() {
+        if (SCOPED != null) {
+            CurrentUser user = SCOPED.get();
+            if (user != null) {
+                return user;
+            }
+        }
+        return THREAD_LOCAL.get();
+    }
+
+    /**
+     * 当前用户ID，未登录时返回null
+     */
+    public static Integer currentUserId() {
+        CurrentUser user = get();
+        return user == null ? null : user.getId();
+    }
+
+    /**
+     * 设置当前线程的用户，只在请求开始时由登录拦截器调用，必须与clear成对使用
+     */
+    public static void set(CurrentUser user) {
+        THREAD_LOCAL.set(user);
+    }
+
+    /**
+     * 清除当前线程的用户
+     */
+    public static void clear() {
+        THREAD_LOCAL.remove();
+    }
+
+    /**
+     * 以指定用户执行任务，执行完恢复原来的用户
+     */
+    public static <T> T callWith(CurrentUser user, Callable<T> task) throws Exception {
+        if (SCOPED != null) {
+            return SCOPED.call(user, task);
+        }
+        CurrentUser previous = THREAD_LOCAL.get();
+        THREAD_LOCAL.set(user);
+        try {
+            return task.call();
+        } finally {
+            if (previous == null) {
+                THREAD_LOCAL.remove();
+            } else {
+                THREAD_LOCAL.set(previous);
+            }
+        }
+    }
+
+    /**
+     * 以指定用户执行任务，执行完恢复原来的用户
+     */
+    public static void runWith(CurrentUser user, Runnable task) {
+        try {
+            callWith(user, () -> {
+                task.run();
+                return null;
+            });
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Exception e) {
+            // Runnable不会抛出受检异常
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 包装任务，执行时使用提交任务时的用户
+     */
+    public static Runnable wrap(Runnable task) {
+        CurrentUser user = get();
+        if (user == null) {
+            return task;
+        }
+        return () -> runWith(user, task);
+    }
+
+    /**
+     * 包装任务，执行时使用提交任务时的用户，用于 CompletableFuture.supplyAsync
+     */
+    public static <T> Supplier<T> wrap(Supplier<T> task) {
+        CurrentUser user = get();
+        if (user == null) {
+            return task;
+        }
+        return () -> {
+            try {
+                return callWith(user, task::get);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    /**
+     * 线程池的任务装饰器，提交的任务自动带上当前用户
+     */
+    public static TaskDecorator taskDecorator() {
+        return UserContextHolder::wrap;
+    }
+
+    /**
+     * 通过反射使用ScopedValue，项目按JDK 17编译，运行在JDK 25及以上时才启用
+     */
+    private static final class ScopedValueSupport {
+        private final Object key;
+        private final Method isBound;
+        private final Method getValue;
+        private final Method where;
+        private final Method run;
+
+        private ScopedValueSupport(Object key, Method isBound, Method getValue, Method where, Method run) {
+            this.key = key;
+            this.isBound = isBound;
+            this.getValue = getValue;
+            this.where = where;
+            this.run = run;
+        }
+
+        static ScopedValueSupport create() {
+            // JDK 21到24中ScopedValue是预览特性，不使用
+            if (Runtime.version().feature() < 25) {
+                return null;
+            }
+            try {
+                Class<?> scopedValue = Class.forName("java.lang.ScopedValue");
+                Class<?> carrier = Class.forName("java.lang.ScopedValue$Carrier");
+                Object key = scopedValue.getMethod("newInstance").invoke(null);
+                return new ScopedValueSupport(key,
+                        scopedValue.getMethod("isBound"),
+                        scopedValue.getMethod("get"),
+                        scopedValue.getMethod("where", scopedValue, Object.class),
+                        carrier.getMethod("run", Runnable.class));
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                log.info("ScopedValue不可用，用户上下文使用ThreadLocal: {}", e.toString());
+                return null;
+            }
+        }
+
+        CurrentUser get() {
+            try {
+                return (Boolean) isBound.invoke(key) ? (CurrentUser) getValue.invoke(key) : null;
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        <T> T call(CurrentUser user, Callable<T> task) throws Exception {
+            // 用 Carrier.run(Runnable) 执行，避免适配ScopedValue自己的函数式接口
+            Object[] result = new Object[1];
+            Exception[] failure = new Exception[1];
+            Runnable op = () -> {
+                try {
+                    result[0] = task.call();
+                } catch (Exception e) {
+                    failure[0] = e;
+                }
+            };
+            try {
+                run.invoke(where.invoke(null, key, user), op);
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw (Error) e.getCause();
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+            @SuppressWarnings("unchecked")
+            T value = (T) result[0];
+            return value;
+        }
+    }
+}
@@ -1,7 +1,13 @@
 package com.zhao.controller;
 
+import com.zhao.cache.UserProfileCache;
+import com.zhao.outbox.OutboxRelay;
+import com.zhao.pojo.CursorPage;
 import com.zhao.pojo.User;
+import com.zhao.pojo.UserProfile;
 import com.zhao.pojo.Result;
+import com.zhao.pojo.dto.AuthorApplyDTO;
+import com.zhao.security.PasswordHasher;
 import com.zhao.service.AdminOperationLogService;
 import com.zhao.service.AuthorApplyService;
 import com.zhao.service.StatisticsService;
@@ -12,6 +18,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -34,6 +41,15 @@ public class AdminController {
     @Autowired
     private StatisticsService statisticsService;
     
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    private UserProfileCache userProfileCache;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+    
     /**
      * 审核作者申请
      * @param applyId 申请ID
@@ -211,6 +227,79 @@ public class AdminController {
 
 
 
+    /**
+     * 游标方式获取用户列表（管理员功能）
+     * 用户很多时往后翻页不再变慢，总数默认不统计
+     * @param cursor 上一页返回的nextCursor，第一页不传
+     * @param pageSize 每页大小
+     * @param role 用户角色（可选）
+     * @param username 用户名搜索（可选）
+     * @param status 用户状态（可选）
+     * @param withTotal 是否需要返回总条数
+     * @return 用户列表和下一页游标
+     */
+    @GetMapping("/users/cursor")
+    public Result getUserListByCursor(@RequestParam(required = false) String cursor,
+                                     @RequestParam(defaultValue = "10") Integer pageSize,
+                                     @RequestParam(required = false) Integer role,
+                                     @RequestParam(required = false) String username,
+                                     @RequestParam(required = false) Integer status,
+                                     @RequestParam(defaultValue = "false") boolean withTotal) {
+        try {
+            // 1. 验证管理员权限
+            Map<String, Object> userMap = ThreadLocalUtil.get();
+            Integer currentRole = (Integer) userMap.get("role");
+            if (currentRole != 0) {
+                return Result.error("没有权限执行此操作");
+            }
+            
+            // 2. 获取当前管理员ID，用于排除自己
+            Integer currentAdminId = (Integer) userMap.get("id");
+            
+            // 3. 调用服务层获取用户列表
+            CursorPage<User> result = userService.getUserListByCursor(cursor, pageSize, role, username, status,
+                    currentAdminId, withTotal);
+            
+            return Result.success(result);
+        } catch (RuntimeException e) {
+            // 异常处理
+            e.printStackTrace();
+            return Result.error(e.getMessage());
+        }
+    }
+    
+    /**
+     * 游标方式获取作者申请列表（管理员功能）
+     * @param cursor 上一页返回的nextCursor，第一页不传
+     * @param pageSize 每页大小
+     * @param status 申请状态（0=待审核/1=通过/2=拒绝，不传表示查询所有）
+     * @param withTotal 是否需要返回总条数
+     * @return 作者申请列表和下一页游标
+     */
+    @GetMapping("/author-applies/cursor")
+    public Result getAuthorAppliesByCursor(@RequestParam(required = false) String cursor,
+                                          @RequestParam(defaultValue = "10") Integer pageSize,
+                                          @RequestParam(required = false) Integer status,
+                                          @RequestParam(defaultValue = "false") boolean withTotal) {
+        try {
+            // 1. 验证管理员权限
+            Map<String, Object> userMap = ThreadLocalUtil.get();
+            Integer role = (Integer) userMap.get("role");
+            if (role != 0) {
+                return Result.error("没有权限执行此操作");
+            }
+            
+            // 2. 调用服务层获取作者申请列表
+            CursorPage<AuthorApplyDTO> result = authorApplyService.getAuthorApplyListByCursor(cursor, pageSize, status, withTotal);
+            
+            return Result.success(result);
+        } catch (RuntimeException e) {
+            // 异常处理
+            e.printStackTrace();
+            return Result.error(e.getMessage());
+        }
+    }
+
     /**
      * 获取数据统计（管理员功能）
      * @return 统计数据
@@ -236,6 +325,33 @@ public class AdminController {
         }
     }
     
+    /**
+     * 获取运行指标（管理员功能）
+     * 目前包括密码哈希的排队时间、哈希和校验耗时的直方图，用户资料缓存的命中率，以及事件发件箱中待投递和投递失败的事件数
+     * @return 运行指标
+     */
+    @GetMapping("/metrics")
+    public Result<Map<String, Object>> getMetrics() {
+        try {
+            // 1. 验证管理员权限
+            Map<String, Object> userMap = ThreadLocalUtil.get();
+            Integer role = (Integer) userMap.get("role");
+            if (role != 0) {
+                return Result.error("没有权限访问运行指标");
+            }
+            
+            // 2. 汇总各项指标
+            Map<String, Object> metrics = new LinkedHashMap<>();
+            metrics.put("password", passwordHasher.metrics());
+            metrics.put("userProfileCache", userProfileCache.metrics());
+            metrics.put("outbox", outboxRelay.metrics());
+            return Result.success(metrics);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return Result.error("获取运行指标失败");
+        }
+    }
+    
     /**
      * 封禁用户
      * @param userId 要封禁的用户ID
@@ -259,7 +375,7 @@ public class AdminController {
             }
             
             // 3. 检查用户是否存在
-            User user = userService.findById(userId);
+            UserProfile user = userProfileCache.get(userId);
             if (user == null) {
                 return Result.error("用户不存在");
             }
@@ -310,7 +426,7 @@ public class AdminController {
             Integer currentAdminId = (Integer) userMap.get("id");
             
             // 2. 检查用户是否存在
-            User user = userService.findById(userId);
+            UserProfile user = userProfileCache.get(userId);
             if (user == null) {
                 return Result.error("用户不存在");
             }
@@ -1,5 +1,6 @@
 package com.zhao.controller;
 
+import com.zhao.anno.RateLimit;
 import com.zhao.pojo.ArticleComment;
 import com.zhao.pojo.ArticleCommentVO;
 import com.zhao.pojo.Result;
@@ -27,6 +28,7 @@ public class ArticleCommentController {
      * @param articleComment 评论内容
      * @return 评论结果
      */
+    @RateLimit(dimension = RateLimit.Dimension.USER, algorithm = RateLimit.Algorithm.TOKEN_BUCKET, permits = 10)
     @PostMapping("/{id}/comment")
     public Result<ArticleCommentVO> publishComment(@PathVariable Integer id, @RequestBody ArticleComment articleComment) {
         try {
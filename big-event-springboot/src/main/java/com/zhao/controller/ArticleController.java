@@ -1,20 +1,31 @@
 package com.zhao.controller;
 
+import com.zhao.anno.RateLimit;
 import com.zhao.pojo.Article;
+import com.zhao.pojo.ArticleDetailAggregateVO;
 import com.zhao.pojo.ArticleDetailVO;
 import com.zhao.pojo.ArticleHomeVO;
+import com.zhao.pojo.CursorPage;
 import com.zhao.pojo.PageBean;
 import com.zhao.pojo.Result;
 import com.zhao.service.ArticleLikeService;
 import com.zhao.service.ArticleCollectService;
+import com.zhao.service.ArticleDetailService;
 import com.zhao.service.ArticleService;
+import com.zhao.service.TimelineService;
 import com.zhao.utils.ThreadLocalUtil;
+import com.zhao.utils.UserContextUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/article")
@@ -29,6 +40,12 @@ public class ArticleController {
     
     @Autowired
     private ArticleCollectService articleCollectService;
+    
+    @Autowired
+    private TimelineService timelineService;
+    
+    @Autowired
+    private ArticleDetailService articleDetailService;
 
     /**
      * 添加文章
@@ -71,6 +88,48 @@ public class ArticleController {
         return Result.success(pb);
     }
 
+    /**
+     * 游标方式获取文章列表（支持分类筛选和状态筛选）
+     * 与上面的分页接口条件相同，但不使用LIMIT offset，翻到很深的页也不会变慢
+     * @param cursor 上一页返回的nextCursor，第一页不传
+     * @param pageSize 每页条数
+     * @param categoryId 分类ID（可选）
+     * @param state 文章状态（可选）
+     * @param withTotal 是否需要返回总条数，默认不统计
+     * @return 文章列表和下一页游标
+     */
+    @GetMapping("/cursor")
+    public Result<CursorPage<Article>> listByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") Integer pageSize,
+            @RequestParam(required = false) Integer categoryId,
+            @RequestParam(required = false) String state,
+            @RequestParam(defaultValue = "false") boolean withTotal
+    ) {
+        CursorPage<Article> page = articleService.getUserArticlesByCursor(cursor, pageSize, categoryId, state, withTotal);
+        return Result.success(page);
+    }
+
+    /**
+     * 获取关注时间线：当前用户关注的作者发布的文章，按发布时间倒序
+     * @param cursor 上一页返回的nextCursor，第一页不传
+     * @param pageSize 每页条数，默认10
+     * @return 文章列表和下一页游标
+     */
+    @GetMapping("/timeline")
+    public Result<CursorPage<ArticleHomeVO>> timeline(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") Integer pageSize) {
+        try {
+            Map<String, Object> userMap = ThreadLocalUtil.get();
+            Integer userId = (Integer) userMap.get("id");
+            return Result.success(timelineService.getTimeline(userId, cursor, pageSize));
+        } catch (Exception e) {
+            log.error("获取关注时间线失败: ", e);
+            return Result.error("获取时间线失败，请稍后重试");
+        }
+    }
+
     /**
      * 获取文章详情
      * @param id 文章ID
@@ -99,6 +158,67 @@ public class ArticleController {
         }
     }
     
+    /**
+     * 获取文章详情页的全部数据（支持未登录访问）
+     * 文章、作者、点赞收藏状态和第一页评论并发查询，一个请求拿到详情页需要的所有数据；
+     * 除文章外的部分超时或出错时为null，并列在missing中
+     * @param id 文章ID
+     * @param commentPageSize 第一页评论的条数
+     * @return 详情页聚合数据
+     */
+    @GetMapping("/detail-aggregate")
+    public CompletableFuture<Result<ArticleDetailAggregateVO>> detailAggregate(@RequestParam Integer id,
+                                                                               @RequestParam(defaultValue = "10") Integer commentPageSize) {
+        // 当前用户要在请求线程中获取（需要读取请求头）
+        Integer userId = UserContextUtil.getCurrentUserId();
+        return toResult(articleDetailService.getDetailAggregate(id, userId, commentPageSize));
+    }
+
+    /**
+     * 获取文章页的数据（支持未登录访问）
+     * 前端用一个请求拿到文章页需要的文章、评论、分类列表和关注状态等，各部分在服务端并发查询；
+     * 通过sections选择需要的部分，不传时返回全部
+     * @param id 文章ID
+     * @param sections 需要的部分，逗号分隔：author、liked、collected、comments、categories、following
+     * @param commentPageSize 第一页评论的条数
+     * @return 文章页数据，没要的部分为null
+     */
+    @GetMapping("/page")
+    public CompletableFuture<Result<ArticleDetailAggregateVO>> page(@RequestParam Integer id,
+                                                                    @RequestParam(required = false) List<String> sections,
+                                                                    @RequestParam(defaultValue = "10") Integer commentPageSize) {
+        Set<String> wanted = new HashSet<>(ArticleDetailService.SECTIONS);
+        if (sections != null && !sections.isEmpty()) {
+            wanted.clear();
+            for (String section : sections) {
+                String name = section.trim();
+                if (name.isEmpty()) {
+                    continue;
+                }
+                if (!ArticleDetailService.SECTIONS.contains(name)) {
+                    return CompletableFuture.completedFuture(Result.error("不支持的部分: " + name));
+                }
+                wanted.add(name);
+            }
+        }
+        // 当前用户要在请求线程中获取（需要读取请求头）
+        Integer userId = UserContextUtil.getCurrentUserId();
+        return toResult(articleDetailService.getArticlePage(id, userId, commentPageSize, wanted));
+    }
+
+    private CompletableFuture<Result<ArticleDetailAggregateVO>> toResult(CompletableFuture<ArticleDetailAggregateVO> future) {
+        return future
+                .thenApply(Result::success)
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if ("文章不存在".equals(cause.getMessage())) {
+                        return Result.error("文章不存在");
+                    }
+                    log.error("获取文章详情失败: ", cause);
+                    return Result.error("获取文章详情失败，请稍后重试");
+                });
+    }
+    
     /**
      * 更新文章
      * @param article 文章信息
@@ -154,6 +274,7 @@ public class ArticleController {
      * @param id 文章ID
      * @return 操作结果
      */
+    @RateLimit(dimension = RateLimit.Dimension.USER, algorithm = RateLimit.Algorithm.TOKEN_BUCKET, permits = 30)
     @PostMapping("/like/{id}")
     public Result<Map<String, Object>> toggleLike(@PathVariable Integer id) {
         try {
@@ -176,6 +297,7 @@ public class ArticleController {
      * @param id 文章ID
      * @return 操作结果
      */
+    @RateLimit(dimension = RateLimit.Dimension.USER, algorithm = RateLimit.Algorithm.TOKEN_BUCKET, permits = 30)
     @PostMapping("/collect/{id}")
     public Result<Map<String, Object>> toggleCollect(@PathVariable Integer id) {
         try {
@@ -1,5 +1,6 @@
 package com.zhao.controller;
 
+import com.zhao.anno.RateLimit;
 import com.zhao.pojo.Result;
 import com.zhao.service.CommentLikeService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,6 +23,7 @@ public class CommentLikeController {
      * @param commentId 评论ID
      * @return 响应结果
      */
+    @RateLimit(dimension = RateLimit.Dimension.USER, algorithm = RateLimit.Algorithm.TOKEN_BUCKET, permits = 30)
     @PostMapping("/{id}/like")
     public Result likeComment(@PathVariable("id") Integer commentId) {
         Map<String, Object> result = commentLikeService.likeComment(commentId);
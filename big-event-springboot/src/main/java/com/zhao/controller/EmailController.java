@@ -1,6 +1,7 @@
 package com.zhao.controller;
 
 
+import com.zhao.anno.RateLimit;
 import com.zhao.service.impl.EmailVerifyService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
@@ -18,6 +19,7 @@ public class EmailController {
     /**
      * 发送验证码
      */
+    @RateLimit(permits = 5)
     @PostMapping("/send-code")
     public ApiResponse sendCode(@RequestParam String email,
                                 @RequestParam String type) {
@@ -39,6 +41,7 @@ public class EmailController {
     /**
      * 验证验证码
      */
+    @RateLimit(permits = 20)
     @PostMapping("/verify")
     public ApiResponse verify(@RequestParam String email,
                               @RequestParam String code,
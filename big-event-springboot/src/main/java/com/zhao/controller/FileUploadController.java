@@ -1,33 +1,75 @@
 package com.zhao.controller;
 
 
+import com.zhao.exception.FileValidationException;
 import com.zhao.pojo.Result;
-import com.zhao.utils.AliOssUtil;
+import com.zhao.service.FileUploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
 
-import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
+@Slf4j
 public class FileUploadController {
 
+    @Autowired
+    private FileUploadService fileUploadService;
+
+    /**
+     * 上传文件
+     * 返回CompletableFuture，上传到存储的过程中Tomcat请求线程会被释放
+     * @param file 上传的文件
+     * @return 文件访问URL
+     */
     @PostMapping("/upload")
-    public Result<String> upload(MultipartFile file) throws Exception {
-        //把文件的内容存储到本地磁盘上
-        String originalFilename = file.getOriginalFilename();
-        //保证文件的名字是唯一的，从而防止文件覆盖
-        // 安全地处理文件扩展名，确保即使没有扩展名也不会出错
-        String ext = "";
-        if (originalFilename != null && originalFilename.lastIndexOf('.') > 0) {
-            ext = originalFilename.substring(originalFilename.lastIndexOf('.'));
-        }
-        String fileName = UUID.randomUUID().toString() + ext;
-//        file.transferTo(new File("C:\\Code\\file\\" + fileName));
-        String url = AliOssUtil.uploadFile(fileName,file.getInputStream());
-        return Result.success(url);
+    public CompletableFuture<Result<String>> upload(MultipartFile file) {
+        return fileUploadService.uploadAsync(file)
+                .thenApply(Result::success)
+                .exceptionally(e -> {
+                    log.error("文件上传失败: ", e);
+                    return Result.error("文件上传失败");
+                });
     }
 
+    /**
+     * 流式上传图片
+     * 请求体就是文件内容（不是multipart表单），Content-Type填图片类型，
+     * 服务端边读边校验大小和文件头并直接写到存储，不会把整个文件缓冲到内存
+     * @param request 请求
+     * @return 文件访问URL
+     */
+    @PostMapping("/upload/stream")
+    public Result<String> uploadStream(HttpServletRequest request) {
+        try {
+            String url = fileUploadService.uploadStream(request.getInputStream(),
+                    request.getContentLengthLong(), request.getContentType());
+            return Result.success(url);
+        } catch (Exception e) {
+            // 校验不通过的提示返回给用户，存储的异常信息（包含请求ID、地址等）只记日志
+            FileValidationException invalid = findValidationException(e);
+            if (invalid != null) {
+                return Result.error(invalid.getMessage());
+            }
+            log.error("流式上传文件失败: ", e);
+            return Result.error("文件上传失败");
+        }
+    }
 
+    /**
+     * 存储SDK读取请求体时可能把校验异常包装起来，沿着cause查找
+     */
+    private static FileValidationException findValidationException(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof FileValidationException invalid) {
+                return invalid;
+            }
+        }
+        return null;
+    }
 }
@@ -0,0 +1,43 @@
+package com.zhao.controller;
+
+import com.zhao.anno.RateLimit;
+import com.zhao.context.UserContextHolder;
+import com.zhao.pojo.InteractionAction;
+import com.zhao.pojo.InteractionResult;
+import com.zhao.pojo.Result;
+import com.zhao.service.InteractionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/interaction")
+@Slf4j
+public class InteractionController {
+
+    @Autowired
+    private InteractionService interactionService;
+
+    /**
+     * 批量点赞、收藏、评论点赞、关注
+     * 每个操作给出期望的最终状态，整批在一个事务中执行
+     * @param actions 操作列表
+     * @return 每个目标的最终状态和计数
+     */
+    @RateLimit(dimension = RateLimit.Dimension.USER, algorithm = RateLimit.Algorithm.TOKEN_BUCKET, permits = 10)
+    @PostMapping("/batch")
+    public Result<List<InteractionResult>> batch(@RequestBody List<InteractionAction> actions) {
+        try {
+            Integer userId = UserContextHolder.currentUserId();
+            return Result.success(interactionService.applyBatch(userId, actions));
+        } catch (Exception e) {
+            log.error("批量互动操作失败: ", e);
+            return Result.error(e.getMessage());
+        }
+    }
+}
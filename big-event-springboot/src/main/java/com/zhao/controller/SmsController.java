@@ -1,5 +1,6 @@
 package com.zhao.controller;
 
+import com.zhao.anno.RateLimit;
 import com.zhao.service.SmsService;
 import com.zhao.pojo.Result;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,6 +23,7 @@ public class SmsController {
      * @param type 验证码类型：register-注册, login-登录, reset-重置密码
      * @return 操作结果
      */
+    @RateLimit(permits = 5)
     @PostMapping("/send-code")
     public Result sendCode(@RequestParam String targets, @RequestParam String type) {
         // 验证类型参数
@@ -51,6 +53,7 @@ public class SmsController {
      * @param type 验证码类型
      * @return 验证结果
      */
+    @RateLimit(permits = 20)
     @PostMapping("/verify")
     public Result verifyCode(@RequestParam String targets, @RequestParam String code, @RequestParam String type) {
         // 清理和验证参数
@@ -1,8 +1,12 @@
 package com.zhao.controller;
 
+import com.zhao.anno.RateLimit;
+import com.zhao.security.PasswordHasher;
 import com.zhao.pojo.Article;
 import com.zhao.pojo.ArticleCollectionVO;
 import com.zhao.pojo.AuthorApply;
+import com.zhao.pojo.CursorPage;
+import com.zhao.pojo.FollowUserVO;
 import com.zhao.pojo.PageBean;
 import com.zhao.pojo.Result;
 import com.zhao.pojo.User;
@@ -13,13 +17,15 @@ import com.zhao.service.UserFollowService;
 import com.zhao.service.UserService;
 import com.zhao.service.impl.EmailVerifyService;
 import com.zhao.utils.JwtUtil;
-import com.zhao.utils.PasswordUtil;
 import com.zhao.utils.ThreadLocalUtil;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.Pattern;
+import lombok.extern.slf4j.Slf4j;
 import org.hibernate.validator.constraints.URL;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
 import org.springframework.util.StringUtils;
@@ -29,11 +35,14 @@ import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/user")
 @Validated
+@Slf4j
 public class UserController {
 
     @Autowired
@@ -50,10 +59,16 @@ public class UserController {
     private ArticleService articleService;
     @Autowired
     private EmailVerifyService emailVerifyService;
+    @Autowired
+    private PasswordHasher passwordHasher;
+    @Autowired
+    @Qualifier("loginExecutor")
+    private TaskExecutor loginExecutor;
 
     /**
      * 忘记密码 - 根据邮箱获取用户信息（用于验证邮箱是否存在）
      */
+    @RateLimit(permits = 20)
     @PostMapping("/find-by-email")
     public Result<User> findUserByEmail(@RequestParam String email) {
         // 验证邮箱格式
@@ -80,6 +95,7 @@ public class UserController {
     /**
      * 忘记密码 - 发送验证码
      */
+    @RateLimit(permits = 5)
     @PostMapping("/send-forget-code")
     public Result sendForgetCode(@RequestParam Integer userId, @RequestParam String email) {
         // 验证邮箱格式
@@ -105,6 +121,7 @@ public class UserController {
     /**
      * 忘记密码 - 重置密码
      */
+    @RateLimit(permits = 10)
     @PostMapping("/reset-pwd")
     public Result resetPassword(@RequestBody Map<String, String> params) {
         try {
@@ -173,6 +190,7 @@ public class UserController {
     /**
      * 注册接口
      */
+    @RateLimit(permits = 5, seconds = 600)
     @PostMapping("/register")
     //校验参数是否符合要求
     public Result register(@Pattern(regexp = "^\\S{5,17}$") String username, 
@@ -199,24 +217,35 @@ public class UserController {
     /**
      * 登录接口
      */
+    @RateLimit(permits = 10)
     @PostMapping("/login")
-    public Result<String> login(@Pattern(regexp = "^\\S{5,17}$") String username, @Pattern(regexp = "^\\S{5,17}$") String password) {
+    public CompletableFuture<Result<String>> login(@Pattern(regexp = "^\\S{5,17}$") String username, @Pattern(regexp = "^\\S{5,17}$") String password) {
 
         //根据用户名查询用户
         User loginUser = userService.findByUserName(username);
 
         //判断该用户是否存在
         if (loginUser == null) {
-            return Result.error("用户名或密码错误！");
+            return CompletableFuture.completedFuture(Result.error("用户名或密码错误！"));
         }
         
         // 检查用户状态，如果被禁用则不允许登录
         if (loginUser.getStatus() != null && loginUser.getStatus() == 1) {
-            return Result.error("账号已被禁用，请联系管理员！");
+            return CompletableFuture.completedFuture(Result.error("账号已被禁用，请联系管理员！"));
         }
         
-        //loginUser对象中的密码是密文
-        if (PasswordUtil.verifyPassword(password, loginUser.getPassword())) {
+        //loginUser对象中的密码是密文，在密码哈希线程池中校验，请求线程不等待；
+        //校验之后的数据库、Redis操作回到登录线程池执行，密码哈希线程只做计算
+        String hashedPassword = loginUser.getPassword();
+        return passwordHasher.verifyAsync(password, hashedPassword).thenApplyAsync(matched -> {
+            //判断密码是否正确
+            if (!matched) {
+                return Result.<String>error("用户名或密码错误！");
+            }
+            // 哈希强度配置调整过，按新的强度重新哈希
+            if (passwordHasher.needsRehash(hashedPassword)) {
+                userService.rehashPassword(loginUser.getId(), password, hashedPassword);
+            }
             // 登录成功后更新用户的最后登录时间（update_time字段）
             userService.updateLastLoginTime(loginUser.getId());
             
@@ -230,9 +259,11 @@ public class UserController {
             ValueOperations<String,String> operations = stringRedisTemplate.opsForValue();
             operations.set(token,token,12, TimeUnit.HOURS);
             return Result.success(token);
-        }
-        //判断密码是否正确
-        return Result.error("用户名或密码错误！");
+        }, loginExecutor).exceptionally(e -> {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            log.error("登录失败: {}", cause.getMessage());
+            return Result.error("系统繁忙，请稍后再试");
+        });
     }
 
     /**
@@ -286,7 +317,7 @@ public class UserController {
         Map<String,Object> map = ThreadLocalUtil.get();
         String username = (String) map.get("username");
         User loginUser = userService.findByUserName(username);
-        if(!PasswordUtil.verifyPassword(oldPwd, loginUser.getPassword())) {
+        if(!passwordHasher.verify(oldPwd, loginUser.getPassword())) {
             return Result.error("原密码不正确!");
         }
 
@@ -342,6 +373,7 @@ public class UserController {
      * @param followedId 被关注用户的ID
      * @return 操作结果
      */
+    @RateLimit(dimension = RateLimit.Dimension.USER, algorithm = RateLimit.Algorithm.TOKEN_BUCKET, permits = 30)
     @PostMapping("/{id}/follow")
     public Result<Map<String, Boolean>> toggleFollow(@PathVariable("id") Integer followedId) {
         try {
@@ -405,6 +437,91 @@ public class UserController {
         }
     }
     
+    /**
+     * 游标方式获取用户关注列表
+     * @param cursor 上一页返回的nextCursor，第一页不传
+     * @param pageSize 每页大小，默认20
+     * @return 关注列表、下一页游标和关注总数
+     */
+    @GetMapping("/following/cursor")
+    public Result<CursorPage<FollowUserVO>> getFollowingPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") Integer pageSize) {
+        try {
+            // 从ThreadLocal中获取当前登录用户的ID
+            Map<String, Object> userMap = ThreadLocalUtil.get();
+            Integer userId = (Integer) userMap.get("id");
+            
+            return Result.success(userFollowService.getFollowingPage(userId, cursor, pageSize));
+        } catch (Exception e) {
+            // 异常处理
+            e.printStackTrace();
+            return Result.error("获取关注列表失败");
+        }
+    }
+    
+    /**
+     * 游标方式获取用户粉丝列表
+     * @param cursor 上一页返回的nextCursor，第一页不传
+     * @param pageSize 每页大小，默认20
+     * @return 粉丝列表、下一页游标和粉丝总数
+     */
+    @GetMapping("/followers/cursor")
+    public Result<CursorPage<FollowUserVO>> getFollowersPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") Integer pageSize) {
+        try {
+            // 从ThreadLocal中获取当前登录用户的ID
+            Map<String, Object> userMap = ThreadLocalUtil.get();
+            Integer userId = (Integer) userMap.get("id");
+            
+            return Result.success(userFollowService.getFollowersPage(userId, cursor, pageSize));
+        } catch (Exception e) {
+            // 异常处理
+            e.printStackTrace();
+            return Result.error("获取粉丝列表失败");
+        }
+    }
+    
+    /**
+     * 获取当前用户的关注数和粉丝数
+     * @return followingCount和followersCount
+     */
+    @GetMapping("/follow-counts")
+    public Result<Map<String, Long>> getFollowCounts() {
+        try {
+            // 从ThreadLocal中获取当前登录用户的ID
+            Map<String, Object> userMap = ThreadLocalUtil.get();
+            Integer userId = (Integer) userMap.get("id");
+            
+            return Result.success(userFollowService.getFollowCounts(userId));
+        } catch (Exception e) {
+            // 异常处理
+            e.printStackTrace();
+            return Result.error("获取关注数失败");
+        }
+    }
+    
+    /**
+     * 批量查询当前用户与一批用户的关注关系，用于在列表中展示"已关注"、"互相关注"
+     * @param ids 用户ID列表，逗号分隔
+     * @return 用户ID -> 关注状态
+     */
+    @GetMapping("/follow-states")
+    public Result<Map<Integer, Map<String, Boolean>>> getFollowStates(@RequestParam List<Integer> ids) {
+        try {
+            // 从ThreadLocal中获取当前登录用户的ID
+            Map<String, Object> userMap = ThreadLocalUtil.get();
+            Integer userId = (Integer) userMap.get("id");
+            
+            return Result.success(userFollowService.getFollowStates(userId, ids));
+        } catch (Exception e) {
+            // 异常处理
+            e.printStackTrace();
+            return Result.error("获取关注状态失败");
+        }
+    }
+    
     /**
      * 提交作者申请
      * @param apply 申请信息
@@ -523,5 +640,42 @@ public class UserController {
             return Result.error("获取文章列表失败");
         }
     }
-}
 
+    /**
+     * 游标方式获取我的文章列表
+     * 需要作者权限，适合文章很多的作者往后翻页
+     * @param cursor 上一页返回的nextCursor，第一页不传
+     * @param pageSize 每页大小，默认10
+     * @param state 文章状态（可选）
+     * @param withTotal 是否需要返回总条数，默认不统计
+     * @return 文章列表和下一页游标
+     */
+    @GetMapping("/articles/cursor")
+    public Result<CursorPage<Article>> getUserArticlesByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") Integer pageSize,
+            @RequestParam(required = false) String state,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        try {
+            // 验证作者权限
+            Map<String, Object> userMap = ThreadLocalUtil.get();
+            Integer role = (Integer) userMap.get("role");
+            if (role != 1) {
+                return Result.error("需要作者权限");
+            }
+
+            // 状态参数校验：如果提供了状态参数，则必须是有效状态
+            if (state != null && !state.isEmpty() && !"草稿".equals(state) && !"已发布".equals(state)) {
+                return Result.error("状态参数错误，可选值：草稿, 已发布");
+            }
+
+            CursorPage<Article> result = articleService.getUserArticlesByCursor(cursor, pageSize, null,
+                    StringUtils.hasLength(state) ? state : null, withTotal);
+            return Result.success(result);
+        } catch (Exception e) {
+            // 异常处理
+            e.printStackTrace();
+            return Result.error("获取文章列表失败");
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.zhao.counter;
+
+import com.zhao.config.VirtualThreadConfig;
+import com.zhao.mapper.InteractionMapper;
+import com.zhao.pojo.InteractionType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 评论点赞数的内存累加器
+ * 热门评论被大量用户同时点赞时，每次点赞都去更新 article_comment 的同一行，所有请求都排队等这一行的行锁。
+ * 这里把点赞数的变化先累加在每个评论各自的LongAdder中（多线程同时累加互不阻塞），
+ * 后台线程定时把累加的变化量用一条UPDATE批量写入数据库。
+ * 读取点赞数时用数据库中的值加上还没写入的变化量；应用异常退出时最多丢失一个写入周期的变化量，
+ * 点赞记录本身不受影响，可以按记录重新统计（见schema-update.sql）
+ */
+@Component
+@Slf4j
+public class CommentLikeCounter {
+
+    @Autowired
+    private InteractionMapper interactionMapper;
+
+    @Autowired
+    private Environment environment;
+
+    // 写入数据库的间隔
+    @Value("${comment.like-counter.flush-interval:1000}")
+    private long flushIntervalMillis;
+
+    // 一条UPDATE最多修改的评论数
+    private static final int FLUSH_BATCH_SIZE = 500;
+    // 超过这个时间没有变化的评论从内存中移除
+    private static final long IDLE_MILLIS = 10 * 60 * 1000L;
+    // 移除后还要继续写入一段时间，收集移除时正在累加的线程的变化量
+    private static final long GRACE_MILLIS = 60 * 1000L;
+
+    // 每个评论还没写入数据库的变化量
+    private final ConcurrentHashMap<Integer, Counter> counters = new ConcurrentHashMap<>();
+    // 正在写入数据库的变化量，写入完成前读取时也要算上
+    private final ConcurrentHashMap<Integer, Long> flushing = new ConcurrentHashMap<>();
+    // 已移除、还在宽限期内的累加器
+    private final ConcurrentHashMap<Integer, Counter> retired = new ConcurrentHashMap<>();
+
+    private ScheduledThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        executor = new ScheduledThreadPoolExecutor(1, VirtualThreadConfig.threadFactory(environment, "comment-like-flush"));
+        executor.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        // 关闭前把剩余的变化量写入
+        flushQuietly();
+    }
+
+    /**
+     * 累加评论点赞数的变化量
+     * 在事务中调用时，事务提交后才累加，事务回滚则不累加
+     * @param commentId 评论ID
+     * @param delta 变化量
+     */
+    public void add(Integer commentId, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accumulate(commentId, delta);
+                }
+            });
+        } else {
+            accumulate(commentId, delta);
+        }
+    }
+
+    /**
+     * 获取还没写入数据库的变化量
+     * @param commentId 评论ID
+     * @return 变化量，读取点赞数时加到数据库的值上
+     */
+    public long pending(Integer commentId) {
+        Counter counter = counters.get(commentId);
+        long sum = counter == null ? 0 : counter.adder.sum();
+        Counter old = retired.get(commentId);
+        if (old != null) {
+            sum += old.adder.sum();
+        }
+        Long inFlight = flushing.get(commentId);
+        return inFlight == null ? sum : sum + inFlight;
+    }
+
+    /**
+     * 把累加的变化量写入数据库
+     * @return 写入的评论数
+     */
+    public synchronized int flush() {
+        // 1. 取出每个评论累加的变化量；sumThenReset逐个清零，取出时正在累加的变化量留到下一轮，不会丢失
+        long now = System.currentTimeMillis();
+        Map<Integer, Long> deltas = new LinkedHashMap<>();
+        counters.forEach((id, counter) -> {
+            long delta = counter.adder.sumThenReset();
+            if (delta != 0) {
+                counter.idleSince = 0;
+                deltas.put(id, delta);
+            } else if (counter.idleSince == 0) {
+                counter.idleSince = now;
+            } else if (now - counter.idleSince >= IDLE_MILLIS) {
+                // 长时间没人点赞的评论移除；标记后新的累加会创建新的累加器，
+                // 标记前已经拿到这个累加器的线程累加的变化量在宽限期内继续写入
+                counter.retired = true;
+                counter.idleSince = now;
+                counters.remove(id, counter);
+                retired.put(id, counter);
+            }
+        });
+        retired.forEach((id, counter) -> {
+            long delta = counter.adder.sumThenReset();
+            if (delta != 0) {
+                deltas.merge(id, delta, Long::sum);
+            }
+            if (now - counter.idleSince >= GRACE_MILLIS) {
+                retired.remove(id, counter);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+
+        // 2. 分批写入，写入失败时本批和之后的变化量放回累加器，下一轮重试
+        flushing.putAll(deltas);
+        List<Integer> ids = new ArrayList<>(deltas.keySet());
+        int written = 0;
+        try {
+            for (; written < ids.size(); written += FLUSH_BATCH_SIZE) {
+                List<Integer> chunk = ids.subList(written, Math.min(written + FLUSH_BATCH_SIZE, ids.size()));
+                Map<Integer, Integer> batch = new HashMap<>();
+                for (Integer id : chunk) {
+                    batch.put(id, deltas.get(id).intValue());
+                }
+                interactionMapper.batchUpdateCounts(InteractionType.COMMENT_LIKE, batch);
+                chunk.forEach(flushing::remove);
+            }
+        } catch (RuntimeException e) {
+            for (Integer id : ids.subList(written, ids.size())) {
+                accumulate(id, deltas.get(id));
+            }
+            throw e;
+        } finally {
+            flushing.clear();
+        }
+        return deltas.size();
+    }
+
+    private void flushQuietly() {
+        try {
+            int flushed = flush();
+            if (flushed > 0) {
+                log.debug("写入评论点赞数: {}条", flushed);
+            }
+        } catch (Exception e) {
+            log.warn("写入评论点赞数失败，下次重试: {}", e.getMessage());
+        }
+    }
+
+    private void accumulate(Integer commentId, long delta) {
+        Counter counter = counters.computeIfAbsent(commentId, id -> new Counter());
+        while (counter.retired) {
+            // 刚被移除的累加器，换成新的
+            counters.remove(commentId, counter);
+            counter = counters.computeIfAbsent(commentId, id -> new Counter());
+        }
+        counter.adder.add(delta);
+    }
+
+    private static class Counter {
+        private final LongAdder adder = new LongAdder();
+        private volatile boolean retired;
+        // 开始没有变化（或被移除）的时间，只由写入线程读写
+        private long idleSince;
+    }
+}
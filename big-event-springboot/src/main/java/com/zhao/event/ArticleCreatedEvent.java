@@ -0,0 +1,17 @@
+package com.zhao.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 文章新增事件，草稿和直接发布的文章都会发布
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArticleCreatedEvent implements OutboxEvent {
+    private Integer articleId;//文章ID
+    private Integer categoryId;//分类ID
+    private Integer authorId;//作者ID
+}
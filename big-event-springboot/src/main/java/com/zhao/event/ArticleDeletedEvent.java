@@ -0,0 +1,17 @@
+package com.zhao.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 文章删除事件，已发布的文章还会发布ArticleUnpublishedEvent
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArticleDeletedEvent implements OutboxEvent {
+    private Integer articleId;//文章ID
+    private Integer categoryId;//分类ID
+    private Integer authorId;//作者ID
+}
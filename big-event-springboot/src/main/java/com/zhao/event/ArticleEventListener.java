@@ -0,0 +1,30 @@
+package com.zhao.event;
+
+import com.zhao.cache.PublishedArticleCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 文章事件监听器
+ * 已发布文章ID集合在提交后立即更新，保证发表评论时看到的发布状态不落后；
+ * 集合更新失败时读取会回退到数据库，不需要可靠投递。
+ * 分类文章数、关注时间线经事件发件箱更新（见com.zhao.outbox）
+ */
+@Component
+public class ArticleEventListener {
+
+    @Autowired
+    private PublishedArticleCache publishedArticleCache;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPublished(ArticlePublishedEvent event) {
+        publishedArticleCache.published(event.getArticleId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUnpublished(ArticleUnpublishedEvent event) {
+        publishedArticleCache.unpublished(event.getArticleId());
+    }
+}
@@ -0,0 +1,19 @@
+package com.zhao.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 文章发布事件，直接发布新文章或草稿改为已发布时发布
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArticlePublishedEvent implements OutboxEvent {
+    private Integer articleId;//文章ID
+    private Integer authorId;//作者ID
+    private LocalDateTime createTime;//文章创建时间，时间线按它排序
+}
@@ -0,0 +1,16 @@
+package com.zhao.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 文章撤回事件，已发布的文章改为草稿或被删除时发布
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArticleUnpublishedEvent implements OutboxEvent {
+    private Integer articleId;//文章ID
+    private Integer authorId;//作者ID
+}
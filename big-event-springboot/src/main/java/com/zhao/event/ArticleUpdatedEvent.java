@@ -0,0 +1,18 @@
+package com.zhao.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 文章修改事件
+ * 发布状态的变化另外发布ArticlePublishedEvent、ArticleUnpublishedEvent
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArticleUpdatedEvent implements OutboxEvent {
+    private Integer articleId;//文章ID
+    private Integer oldCategoryId;//修改前的分类ID
+    private Integer categoryId;//修改后的分类ID
+}
@@ -0,0 +1,9 @@
+package com.zhao.event;
+
+/**
+ * 需要广播到其他节点的领域事件
+ * 只有会让各节点本机缓存失效的事件才实现本接口，由RedisEventBridge在事务提交后广播；
+ * 其他事件的处理都在共享的数据库和Redis上完成，广播出去没有节点需要
+ */
+public interface BroadcastEvent extends DomainEvent {
+}
@@ -0,0 +1,57 @@
+package com.zhao.event;
+
+import com.zhao.cache.CategoryCache;
+import com.zhao.cache.UserProfileCache;
+import com.zhao.pojo.InteractionType;
+import com.zhao.service.UserFollowService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+
+/**
+ * 缓存失效监听器
+ * 用户资料、分类修改的事务提交后清除对应缓存，删除很快，在发布事件的线程中执行，
+ * 请求返回时缓存已经清除；其他节点发布的事件只需要清除本机缓存。
+ * 关注关系变化的事务提交后更新关注相关缓存，回滚的关注不会改动缓存
+ */
+@Component
+public class CacheEventListener {
+
+    @Autowired
+    private UserProfileCache userProfileCache;
+
+    @Autowired
+    private CategoryCache categoryCache;
+
+    @Autowired
+    private UserFollowService userFollowService;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserProfileChanged(UserProfileChangedEvent event) {
+        userProfileCache.evict(event.getUserId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        categoryCache.evict(event.getUserId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onFollowToggled(LikeToggledEvent event) {
+        if (event.getType() == InteractionType.FOLLOW) {
+            userFollowService.onFollowsChanged(event.getUserId(), Map.of(event.getTargetId(), event.getActive()));
+        }
+    }
+
+    @EventListener
+    public void onRemoteEvent(RemoteDomainEvent remote) {
+        // 封禁后其他节点的登录拦截器不用等本机缓存过期
+        if (remote.getEvent() instanceof UserProfileChangedEvent event) {
+            userProfileCache.evictLocal(event.getUserId());
+        }
+    }
+}
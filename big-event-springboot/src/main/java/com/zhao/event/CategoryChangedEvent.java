@@ -0,0 +1,15 @@
+package com.zhao.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 分类新增、修改、删除事件
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryChangedEvent implements DomainEvent {
+    private Integer userId;//分类创建者ID
+}
@@ -0,0 +1,19 @@
+package com.zhao.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 评论发表事件
+ * 与评论一起写入事件发件箱，文章评论数由CommentCountConsumer在投递时更新，不占用发表评论的请求
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommentAddedEvent implements OutboxEvent {
+    private Integer commentId;//评论ID
+    private Integer articleId;//文章ID
+    private Integer parentId;//父评论ID，一级评论为0
+    private Integer userId;//评论者ID
+}
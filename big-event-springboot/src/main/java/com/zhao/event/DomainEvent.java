@@ -0,0 +1,10 @@
+package com.zhao.event;
+
+/**
+ * 领域事件
+ * 业务代码修改数据后通过ApplicationEventPublisher发布，监听器用@TransactionalEventListener在事务提交后处理，
+ * 事务回滚时不会处理；不在事务中发布时立即处理。
+ * 实现BroadcastEvent的事件还会经RedisEventBridge广播到其他节点，用于清除各节点的本机缓存
+ */
+public interface DomainEvent {
+}
@@ -0,0 +1,20 @@
+package com.zhao.event;
+
+import com.zhao.pojo.InteractionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 点赞、收藏、关注状态变化事件，状态没有变化的重复操作不发布。
+ * 只有本进程的监听器在事务提交后处理，不写入事件发件箱，点赞这类高频写入不用多一次INSERT
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LikeToggledEvent implements DomainEvent {
+    private InteractionType type;//互动类型
+    private Integer userId;//操作用户ID
+    private Integer targetId;//文章、评论或被关注用户的ID
+    private Boolean active;//变化后的状态
+}
@@ -0,0 +1,9 @@
+package com.zhao.event;
+
+/**
+ * 需要可靠投递的领域事件
+ * 发布时由OutboxWriter在同一个事务中写入事件发件箱，事务提交后由OutboxRelay投递给各OutboxConsumer，
+ * 进程在提交后、处理前退出也不会丢失。投递至少一次，消费者需要能处理重复的事件
+ */
+public interface OutboxEvent extends DomainEvent {
+}
@@ -0,0 +1,83 @@
+package com.zhao.event;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * 领域事件的Redis广播
+ * 本节点的BroadcastEvent在事务提交后发布到频道 event:bus，消息中带上本节点ID；
+ * 收到其他节点的消息后在本节点发布RemoteDomainEvent，自己发出的消息忽略。
+ * pub/sub不保证送达，只用于清除本机缓存这类丢了也会因过期而恢复的场景。
+ * 单节点部署可以设置 event.bridge.enabled=false 关闭
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "event.bridge.enabled", havingValue = "true", matchIfMissing = true)
+public class RedisEventBridge implements MessageListener {
+
+    public static final String CHANNEL = "event:bus";
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // 本节点ID，每次启动重新生成
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // 只接受本包中的事件类型，避免按消息中的类名加载任意类
+    private static final String EVENT_PACKAGE = DomainEvent.class.getPackageName() + ".";
+
+    @Async("eventExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void broadcast(BroadcastEvent event) {
+        try {
+            ObjectNode message = objectMapper.createObjectNode();
+            message.put("origin", nodeId);
+            message.put("type", event.getClass().getSimpleName());
+            message.set("payload", objectMapper.valueToTree(event));
+            stringRedisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(message));
+        } catch (Exception e) {
+            log.warn("广播事件{}失败: {}", event.getClass().getSimpleName(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            JsonNode node = objectMapper.readTree(new String(message.getBody(), StandardCharsets.UTF_8));
+            String origin = node.path("origin").asText();
+            if (nodeId.equals(origin)) {
+                return;
+            }
+            Class<?> type = Class.forName(EVENT_PACKAGE + node.path("type").asText());
+            if (!BroadcastEvent.class.isAssignableFrom(type)) {
+                log.warn("忽略未知的事件类型: {}", type.getName());
+                return;
+            }
+            BroadcastEvent event = (BroadcastEvent) objectMapper.treeToValue(node.get("payload"), type);
+            eventPublisher.publishEvent(new RemoteDomainEvent(origin, event));
+        } catch (Exception e) {
+            log.warn("处理广播事件失败: {}", e.getMessage());
+        }
+    }
+}
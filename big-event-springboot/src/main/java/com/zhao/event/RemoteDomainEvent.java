@@ -0,0 +1,16 @@
+package com.zhao.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 其他节点发布的领域事件
+ * 由RedisEventBridge收到后在本节点发布，只用于更新本节点内存中的状态（比如本机缓存），
+ * 数据库、Redis中的状态已经由发布事件的节点更新过了
+ */
+@Data
+@AllArgsConstructor
+public class RemoteDomainEvent {
+    private String origin;//发布事件的节点ID
+    private BroadcastEvent event;
+}
@@ -0,0 +1,15 @@
+package com.zhao.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 用户资料修改事件，昵称、头像、角色等变化时发布
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserProfileChangedEvent implements BroadcastEvent {
+    private Integer userId;//用户ID
+}
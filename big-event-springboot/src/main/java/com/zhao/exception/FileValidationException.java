@@ -0,0 +1,12 @@
+package com.zhao.exception;
+
+/**
+ * 上传文件校验不通过（大小超限、类型不支持等）
+ * 异常信息是给用户看的提示，可以直接返回给前端；其他上传异常只返回"文件上传失败"
+ */
+public class FileValidationException extends RuntimeException {
+
+    public FileValidationException(String message) {
+        super(message);
+    }
+}
@@ -1,27 +1,28 @@
 package com.zhao.interceptors;
 
-import com.zhao.pojo.User;
-import com.zhao.service.UserService;
+import com.zhao.cache.UserProfileCache;
+import com.zhao.context.CurrentUser;
+import com.zhao.context.UserContextHolder;
+import com.zhao.pojo.UserProfile;
 import com.zhao.utils.JwtUtil;
-import com.zhao.utils.ThreadLocalUtil;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
 import org.springframework.stereotype.Component;
-import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
 
 import java.util.Map;
 
 //拦截器
 @Component
-public class LoginInterceptors implements HandlerInterceptor {
+public class LoginInterceptors implements AsyncHandlerInterceptor {
     @Autowired
     private StringRedisTemplate stringRedisTemplate;
     
     @Autowired
-    private UserService userService;
+    private UserProfileCache userProfileCache;
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
         //令牌验证
@@ -60,9 +61,9 @@ public class LoginInterceptors implements HandlerInterceptor {
             }
             Map<String, Object> claims = JwtUtil.parseToken(token);
             
-            // 获取用户ID并检查用户状态
+            // 获取用户ID并检查用户状态，每个请求都要检查，从用户资料缓存读取
             Integer userId = (Integer) claims.get("id");
-            User user = userService.findById(userId);
+            UserProfile user = userProfileCache.get(userId);
             if (user != null && user.getStatus() == 1) {
                 // 用户被封禁
                 response.setStatus(403);
@@ -71,8 +72,8 @@ public class LoginInterceptors implements HandlerInterceptor {
                 return false;
             }
             
-            //把业务数据存放发到ThreadLocal
-            ThreadLocalUtil.set(claims);
+            //把当前用户存放到用户上下文
+            UserContextHolder.set(CurrentUser.fromClaims(claims));
             //验证通过,放行!!
             return true;
         } catch (Exception e) {
@@ -87,7 +88,14 @@ public class LoginInterceptors implements HandlerInterceptor {
 
     @Override
     public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) throws Exception {
-        //清空ThreadLocal中的数据
-        ThreadLocalUtil.remove();
+        //清空用户上下文
+        UserContextHolder.clear();
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        //返回CompletableFuture的接口不会在当前线程调用afterCompletion，必须在这里清空，
+        //否则用户信息会留在Tomcat线程上，被这个线程处理的下一个不需要登录的请求读到
+        UserContextHolder.clear();
     }
 }
@@ -0,0 +1,107 @@
+package com.zhao.interceptors;
+
+import com.zhao.anno.RateLimit;
+import com.zhao.ratelimit.RateLimiter;
+import com.zhao.utils.JwtUtil;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.Map;
+
+//限流拦截器，在登录拦截器之前执行，被限流的请求不会查询数据库
+@Component
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @Value("${rate-limit.enabled:true}")
+    private boolean enabled;
+
+    // 部署在反向代理后面时打开，从X-Forwarded-For中取客户端IP
+    @Value("${rate-limit.trust-forwarded-header:false}")
+    private boolean trustForwardedHeader;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!enabled || !(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        // 返回CompletableFuture的接口完成后会再分派一次，这时不能重复计数
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        RateLimit rateLimit = handlerMethod.getMethodAnnotation(RateLimit.class);
+        if (rateLimit == null) {
+            rateLimit = handlerMethod.getBeanType().getAnnotation(RateLimit.class);
+        }
+        if (rateLimit == null) {
+            return true;
+        }
+
+        String name = rateLimit.name().isEmpty()
+                ? handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName()
+                : rateLimit.name();
+        String key = name + ":" + resolveSubject(request, rateLimit.dimension());
+        if (rateLimiter.tryAcquire(key, rateLimit.algorithm(), rateLimit.permits(), rateLimit.seconds())) {
+            return true;
+        }
+
+        response.setStatus(429);
+        response.setHeader("Retry-After", String.valueOf(rateLimit.seconds()));
+        response.setContentType("application/json; charset=UTF-8");
+        response.getWriter().write("{\"code\": 1, \"message\": \"" + rateLimit.message() + "\", \"data\": null}");
+        return false;
+    }
+
+    /**
+     * 根据限流维度确定限流对象
+     */
+    private String resolveSubject(HttpServletRequest request, RateLimit.Dimension dimension) {
+        if (dimension == RateLimit.Dimension.GLOBAL) {
+            return "all";
+        }
+        if (dimension == RateLimit.Dimension.USER) {
+            Integer userId = parseUserId(request.getHeader("Authorization"));
+            if (userId != null) {
+                return "user:" + userId;
+            }
+        }
+        return "ip:" + clientIp(request);
+    }
+
+    /**
+     * 只校验令牌签名取出用户ID，不查Redis和数据库；令牌是否有效由登录拦截器负责
+     */
+    private Integer parseUserId(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        if (token.startsWith("Bearer ") || token.startsWith("bearer ")) {
+            token = token.substring(7).trim();
+        }
+        try {
+            Map<String, Object> claims = JwtUtil.parseToken(token);
+            return (Integer) claims.get("id");
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private String clientIp(HttpServletRequest request) {
+        if (trustForwardedHeader) {
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (forwarded != null && !forwarded.isBlank()) {
+                int comma = forwarded.indexOf(',');
+                return (comma > 0 ? forwarded.substring(0, comma) : forwarded).trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,316 @@
+package com.zhao.mail;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zhao.config.VirtualThreadConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 邮件异步发送队列
+ * 待发送的邮件以JSON保存在Redis列表 mail:queue 中，应用重启不会丢失；后台单线程按批取出发送：
+ * - 取出时用脚本把一批邮件原子地移到本节点的处理中列表 mail:processing:{节点ID}，发送完成（或转入重试）后才删除，
+ *   节点在发送途中退出时邮件仍在处理中列表里。每个节点定时在 mail:nodes 中记录心跳，
+ *   心跳超时的节点的处理中列表由其他节点（或重启后的本节点）移回发送队列，所以投递是至少一次的
+ * - 一批邮件通过 JavaMailSender.send(SimpleMailMessage...) 一次发送，共用同一个SMTP连接，
+ *   不用每封邮件都重新握手、登录
+ * - 发送失败的邮件放进有序集合 mail:retry，分数为下次发送时间，按指数退避重试
+ * - 重试次数用完的邮件放进 mail:dead，保留最近的记录用于排查
+ */
+@Component
+@Slf4j
+public class MailDispatcher {
+
+    @Autowired
+    private JavaMailSender mailSender;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${spring.mail.username:}")
+    private String fromEmail;
+
+    // 每批发送的邮件数，即一个SMTP连接上连续发送的邮件数
+    @Value("${mail.dispatch.batch-size:20}")
+    private int batchSize;
+
+    // 队列中最多允许堆积的邮件数，超过后拒绝新的邮件
+    @Value("${mail.dispatch.queue-capacity:10000}")
+    private long queueCapacity;
+
+    @Value("${mail.dispatch.max-attempts:5}")
+    private int maxAttempts;
+
+    // 第一次重试前的等待时间，之后每次翻倍
+    @Value("${mail.dispatch.initial-backoff:2000}")
+    private long initialBackoffMillis;
+
+    // 后台检查队列的间隔
+    @Value("${mail.dispatch.poll-interval:500}")
+    private long pollIntervalMillis;
+
+    private static final String QUEUE_KEY = "mail:queue";
+    private static final String PROCESSING_PREFIX = "mail:processing:";
+    private static final String NODES_KEY = "mail:nodes";
+    private static final String RETRY_KEY = "mail:retry";
+    private static final String DEAD_KEY = "mail:dead";
+    // 死信最多保留的条数
+    private static final int DEAD_LIMIT = 1000;
+    // 超过这个时间没有心跳的节点视为已退出，要比发送一批邮件的时间长
+    private static final long NODE_TIMEOUT_MILLIS = 60_000;
+
+    // 把到期的重试邮件移回发送队列，一次最多移动ARGV[2]条
+    private static final DefaultRedisScript<Long> MOVE_DUE_SCRIPT = new DefaultRedisScript<>(
+            "local due = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[2])) " +
+            "for _, m in ipairs(due) do " +
+            "  redis.call('ZREM', KEYS[1], m) " +
+            "  redis.call('RPUSH', KEYS[2], m) " +
+            "end " +
+            "return #due",
+            Long.class);
+    // 从发送队列头部取出最多ARGV[1]条，移到处理中列表
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> CLAIM_SCRIPT = new DefaultRedisScript<>(
+            "local claimed = {} " +
+            "for i = 1, tonumber(ARGV[1]) do " +
+            "  local m = redis.call('LPOP', KEYS[1]) " +
+            "  if not m then break end " +
+            "  redis.call('RPUSH', KEYS[2], m) " +
+            "  claimed[i] = m " +
+            "end " +
+            "return claimed",
+            List.class);
+    // 从处理中列表删除已处理的邮件
+    private static final DefaultRedisScript<Long> ACK_SCRIPT = new DefaultRedisScript<>(
+            "for i = 1, #ARGV do redis.call('LREM', KEYS[1], 1, ARGV[i]) end " +
+            "return #ARGV",
+            Long.class);
+    // 把节点的处理中列表按原顺序放回发送队列头部，并删除节点的心跳
+    private static final DefaultRedisScript<Long> RECOVER_SCRIPT = new DefaultRedisScript<>(
+            "local n = 0 " +
+            "while redis.call('RPOPLPUSH', KEYS[1], KEYS[2]) do n = n + 1 end " +
+            "redis.call('HDEL', KEYS[3], ARGV[1]) " +
+            "return n",
+            Long.class);
+
+    // 本节点ID，每次启动重新生成
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private ScheduledThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        // 只用一个线程发送，SMTP服务器通常限制同一账号的并发连接数
+        executor = new ScheduledThreadPoolExecutor(1, VirtualThreadConfig.threadFactory(environment, "mail-dispatch"));
+        executor.scheduleWithFixedDelay(this::drainQuietly, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        // 没处理完的邮件放回发送队列，由其他节点继续发送
+        try {
+            recover(nodeId);
+        } catch (Exception e) {
+            log.warn("归还处理中的邮件失败，等待其他节点接管: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 把邮件放入发送队列
+     * @param to 收件人
+     * @param subject 主题
+     * @param text 正文
+     * @return 是否成功放入队列，队列已满或Redis不可用时返回false
+     */
+    public boolean enqueue(String to, String subject, String text) {
+        try {
+            Long size = stringRedisTemplate.opsForList().size(QUEUE_KEY);
+            if (size != null && size >= queueCapacity) {
+                log.warn("邮件发送队列已满，拒绝发送: {}", to);
+                return false;
+            }
+            stringRedisTemplate.opsForList().rightPush(QUEUE_KEY, objectMapper.writeValueAsString(new MailTask(to, subject, text, 0)));
+        } catch (Exception e) {
+            log.error("邮件放入发送队列失败: {}", to, e);
+            return false;
+        }
+        // 不等下一次轮询，马上开始发送
+        try {
+            executor.execute(this::drainQuietly);
+        } catch (RejectedExecutionException e) {
+            // 应用正在关闭，邮件已经在队列中，由下一次轮询（其他节点或重启后）发送
+            log.info("邮件发送线程已停止，邮件留在队列中等待发送: {}", to);
+        }
+        return true;
+    }
+
+    private void drainQuietly() {
+        try {
+            drain();
+        } catch (Exception e) {
+            log.warn("处理邮件发送队列失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 把队列中的邮件按批发送完
+     */
+    private void drain() {
+        heartbeat();
+        recoverStaleNodes();
+        stringRedisTemplate.execute(MOVE_DUE_SCRIPT, List.of(RETRY_KEY, QUEUE_KEY),
+                String.valueOf(System.currentTimeMillis()), String.valueOf(batchSize * 10));
+        String processingKey = PROCESSING_PREFIX + nodeId;
+        while (true) {
+            List<?> claimed = stringRedisTemplate.execute(CLAIM_SCRIPT, List.of(QUEUE_KEY, processingKey),
+                    String.valueOf(batchSize));
+            if (claimed == null || claimed.isEmpty()) {
+                return;
+            }
+            // 原始JSON -> 邮件，删除处理中列表的元素时要用原始JSON
+            Map<MailTask, String> raw = new IdentityHashMap<>();
+            List<MailTask> batch = new ArrayList<>(claimed.size());
+            List<String> done = new ArrayList<>(claimed.size());
+            for (Object o : claimed) {
+                String json = (String) o;
+                try {
+                    MailTask task = objectMapper.readValue(json, MailTask.class);
+                    raw.put(task, json);
+                    batch.add(task);
+                } catch (JsonProcessingException e) {
+                    log.error("无法解析的邮件，已丢弃: {}", json);
+                    done.add(json);
+                }
+            }
+            // 先把失败的邮件放入重试队列再删除，中途退出时最多重复发送，不会丢失
+            for (MailTask task : sendBatch(batch)) {
+                scheduleRetry(task);
+                done.add(raw.remove(task));
+            }
+            done.addAll(raw.values());
+            stringRedisTemplate.execute(ACK_SCRIPT, List.of(processingKey), done.toArray());
+            heartbeat();
+        }
+    }
+
+    private void heartbeat() {
+        stringRedisTemplate.opsForHash().put(NODES_KEY, nodeId, String.valueOf(System.currentTimeMillis()));
+    }
+
+    /**
+     * 接管心跳超时的节点的处理中邮件
+     */
+    private void recoverStaleNodes() {
+        long deadline = System.currentTimeMillis() - NODE_TIMEOUT_MILLIS;
+        for (Map.Entry<Object, Object> node : stringRedisTemplate.opsForHash().entries(NODES_KEY).entrySet()) {
+            String id = (String) node.getKey();
+            if (!nodeId.equals(id) && Long.parseLong((String) node.getValue()) < deadline) {
+                Long moved = recover(id);
+                log.warn("邮件发送节点 {} 已超时，{}封处理中的邮件放回发送队列", id, moved);
+            }
+        }
+    }
+
+    private Long recover(String id) {
+        return stringRedisTemplate.execute(RECOVER_SCRIPT, List.of(PROCESSING_PREFIX + id, QUEUE_KEY, NODES_KEY), id);
+    }
+
+    /**
+     * 发送一批邮件
+     * @param batch 待发送的邮件
+     * @return 发送失败的邮件
+     */
+    private List<MailTask> sendBatch(List<MailTask> batch) {
+        if (batch.isEmpty()) {
+            return List.of();
+        }
+        // SimpleMailMessage重写了equals，同内容的邮件需要按对象区分
+        Map<SimpleMailMessage, MailTask> tasks = new IdentityHashMap<>();
+        SimpleMailMessage[] messages = new SimpleMailMessage[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            MailTask task = batch.get(i);
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setFrom(fromEmail);
+            message.setTo(task.getTo());
+            message.setSubject(task.getSubject());
+            message.setText(task.getText());
+            messages[i] = message;
+            tasks.put(message, task);
+        }
+        try {
+            mailSender.send(messages);
+            log.info("已发送{}封邮件", messages.length);
+            return List.of();
+        } catch (MailSendException e) {
+            // 部分邮件失败时，只重试失败的那些
+            if (!e.getFailedMessages().isEmpty()) {
+                List<MailTask> failed = new ArrayList<>();
+                for (Object message : e.getFailedMessages().keySet()) {
+                    MailTask task = tasks.get(message);
+                    if (task != null) {
+                        failed.add(task);
+                    }
+                }
+                log.warn("{}封邮件中有{}封发送失败: {}", messages.length, failed.size(), e.getMessage());
+                return failed;
+            }
+            log.warn("发送{}封邮件失败: {}", messages.length, e.getMessage());
+            return batch;
+        } catch (MailException e) {
+            // 连接或认证失败，整批重试
+            log.warn("发送{}封邮件失败: {}", messages.length, e.getMessage());
+            return batch;
+        }
+    }
+
+    private void scheduleRetry(MailTask task) {
+        int attempts = task.getAttempts() == null ? 1 : task.getAttempts() + 1;
+        task.setAttempts(attempts);
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(task);
+        } catch (JsonProcessingException e) {
+            log.error("邮件序列化失败，已丢弃: {}", task.getTo(), e);
+            return;
+        }
+        if (attempts >= maxAttempts) {
+            log.error("邮件发送到 {} 失败{}次，已放弃", task.getTo(), attempts);
+            stringRedisTemplate.opsForList().rightPush(DEAD_KEY, json);
+            stringRedisTemplate.opsForList().trim(DEAD_KEY, -DEAD_LIMIT, -1);
+            return;
+        }
+        // 指数退避，加上随机抖动避免大量重试同时发送
+        long backoff = initialBackoffMillis * (1L << (attempts - 1));
+        backoff += ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        stringRedisTemplate.opsForZSet().add(RETRY_KEY, json, System.currentTimeMillis() + backoff);
+    }
+}
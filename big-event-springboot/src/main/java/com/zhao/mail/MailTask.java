@@ -0,0 +1,18 @@
+package com.zhao.mail;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 待发送的邮件，以JSON形式保存在Redis队列中，应用重启后仍会继续发送
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MailTask {
+    private String to;//收件人
+    private String subject;//主题
+    private String text;//正文
+    private Integer attempts;//已尝试发送的次数
+}
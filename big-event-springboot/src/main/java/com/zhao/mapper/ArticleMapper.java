@@ -69,6 +69,27 @@ public interface ArticleMapper {
      * @param articleId 文章ID
      */
     void decrementCollectCount(@Param("articleId") Integer articleId);
+
+    /**
+     * 修改文章评论数
+     * @param articleId 文章ID
+     * @param delta 变化量
+     */
+    void updateCommentCount(@Param("articleId") Integer articleId, @Param("delta") int delta);
+
+    /**
+     * 查询文章状态
+     * @param id 文章ID
+     * @return 文章状态，文章不存在时返回null
+     */
+    String findStateById(@Param("id") Integer id);
+
+    /**
+     * 按ID顺序分页查询已发布文章的ID
+     * @param afterId 上一页最后一个ID，第一页传0
+     * @param limit 每页条数
+     */
+    List<Integer> findPublishedIdsAfter(@Param("afterId") Integer afterId, @Param("limit") int limit);
     
     // 获取文章总数
     Integer getTotalArticles();
@@ -91,11 +112,46 @@ public interface ArticleMapper {
                                  @Param("offset") Integer offset, @Param("pageSize") Integer pageSize);
     
     /**
-     * 统计用户文章总数（带状态筛选）
+     * 统计用户文章总数（带分类和状态筛选）
      * @param userId 用户ID
+     * @param categoryId 分类ID
      * @param state 文章状态
      * @return 文章总数
      */
-    Long countUserArticles(@Param("userId") Integer userId, @Param("state") String state);
+    Long countUserArticles(@Param("userId") Integer userId, @Param("categoryId") Integer categoryId,
+                           @Param("state") String state);
+
+    /**
+     * 游标方式获取用户文章列表（带分类和状态筛选）
+     * 按(create_time, id)倒序，从游标位置往后取，不使用LIMIT offset
+     * @param userId 用户ID
+     * @param categoryId 分类ID
+     * @param state 文章状态
+     * @param cursorTime 上一页最后一条记录的创建时间，第一页为null
+     * @param cursorId 上一页最后一条记录的ID，第一页为null
+     * @param limit 查询条数
+     * @return 文章列表
+     */
+    List<Article> getUserArticlesByCursor(@Param("userId") Integer userId, @Param("categoryId") Integer categoryId,
+                                          @Param("state") String state, @Param("cursorTime") LocalDateTime cursorTime,
+                                          @Param("cursorId") Integer cursorId, @Param("limit") Integer limit);
+
+    /**
+     * 按ID批量获取首页展示用的文章信息，用于关注时间线回填文章内容
+     * @param ids 文章ID列表
+     * @param state 文章状态，已删除或已撤回发布的文章不会返回
+     * @return 文章列表（顺序不保证与ids一致）
+     */
+    List<ArticleHomeVO> findHomeVOByIds(@Param("ids") List<Integer> ids, @Param("state") String state);
+
+    /**
+     * 获取一批作者最近发布的文章，只查ID、作者和创建时间，用于重建时间线
+     * @param authorIds 作者ID列表
+     * @param state 文章状态
+     * @param limit 查询条数
+     * @return 文章列表
+     */
+    List<Article> findRecentByAuthors(@Param("authorIds") List<Integer> authorIds, @Param("state") String state,
+                                      @Param("limit") Integer limit);
 
 }
@@ -4,6 +4,7 @@ import com.zhao.pojo.AuthorApply;
 import com.zhao.pojo.dto.AuthorApplyDTO;
 import org.apache.ibatis.annotations.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -49,6 +50,19 @@ public interface AuthorApplyMapper {
                                            @Param("start") Integer start, 
                                            @Param("pageSize") Integer pageSize);
     
+    /**
+     * 游标方式获取作者申请列表，按申请时间和ID倒序，从游标位置往后取
+     * @param status 申请状态，null表示查询所有状态
+     * @param cursorTime 上一页最后一条记录的申请时间，第一页为null
+     * @param cursorId 上一页最后一条记录的ID，第一页为null
+     * @param limit 查询条数
+     * @return 作者申请列表
+     */
+    List<AuthorApplyDTO> getAuthorApplyListByCursor(@Param("status") Integer status,
+                                                   @Param("cursorTime") LocalDateTime cursorTime,
+                                                   @Param("cursorId") Integer cursorId,
+                                                   @Param("limit") Integer limit);
+    
     /**
      * 获取作者申请总数，支持状态过滤
      * @param status 申请状态，0=待审核/1=通过/2=拒绝，null表示查询所有状态
@@ -0,0 +1,97 @@
+package com.zhao.mapper;
+
+import com.zhao.pojo.InteractionResult;
+import com.zhao.pojo.InteractionType;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 点赞、收藏、关注记录的批量读写
+ * 表名和列名来自InteractionType，一次处理同一类型的多个目标
+ */
+@Mapper
+public interface InteractionMapper {
+
+    /**
+     * 查询用户对这些目标有记录（包括已取消的）的目标ID
+     */
+    List<Integer> findExistingTargetIds(@Param("type") InteractionType type, @Param("userId") Integer userId,
+                                        @Param("targetIds") Collection<Integer> targetIds);
+
+    /**
+     * 查询用户当前处于点赞/收藏/关注状态的目标ID
+     */
+    List<Integer> findActiveTargetIds(@Param("type") InteractionType type, @Param("userId") Integer userId,
+                                      @Param("targetIds") Collection<Integer> targetIds);
+
+    /**
+     * 点赞/收藏/关注一个目标：没有记录时插入，已取消的记录恢复
+     * 依赖唯一索引和连接参数useAffectedRows=true
+     * @return 1：插入了新记录；2：恢复了已取消的记录；0：本来就是有效状态
+     */
+    int activate(@Param("type") InteractionType type, @Param("userId") Integer userId,
+                 @Param("targetId") Integer targetId, @Param("time") LocalDateTime time);
+
+    /**
+     * 取消点赞/收藏/关注一个目标
+     * @return 1：取消成功；0：本来就不是有效状态
+     */
+    int deactivate(@Param("type") InteractionType type, @Param("userId") Integer userId,
+                   @Param("targetId") Integer targetId);
+
+    /**
+     * 修改一个目标的计数
+     */
+    int updateCount(@Param("type") InteractionType type, @Param("targetId") Integer targetId,
+                    @Param("delta") Integer delta);
+
+    /**
+     * 查询一个目标的最新计数
+     */
+    Integer findCount(@Param("type") InteractionType type, @Param("targetId") Integer targetId);
+
+    /**
+     * 多行插入新的记录，记录已存在时恢复为有效状态
+     * @return 受影响的行数：新插入的每行计1，恢复的每行计2，本来就有效的计0
+     */
+    int batchInsert(@Param("type") InteractionType type, @Param("userId") Integer userId,
+                    @Param("targetIds") Collection<Integer> targetIds, @Param("time") LocalDateTime time);
+
+    /**
+     * 批量修改记录的删除状态
+     * @return 状态实际发生变化的行数
+     */
+    int batchUpdateDeleted(@Param("type") InteractionType type, @Param("userId") Integer userId,
+                           @Param("targetIds") Collection<Integer> targetIds, @Param("isDeleted") Integer isDeleted);
+
+    /**
+     * 一条UPDATE同时修改多个目标的计数
+     * @param deltas 目标ID -> 计数变化量
+     */
+    int batchUpdateCounts(@Param("type") InteractionType type, @Param("deltas") Map<Integer, Integer> deltas);
+
+    /**
+     * 查询目标的最新计数，结果只填充targetId和count
+     */
+    List<InteractionResult> findCounts(@Param("type") InteractionType type, @Param("targetIds") Collection<Integer> targetIds);
+
+    /**
+     * 过滤出存在且为指定状态的文章ID
+     */
+    List<Integer> findArticleIdsByState(@Param("ids") Collection<Integer> ids, @Param("state") String state);
+
+    /**
+     * 过滤出存在且未删除的评论ID
+     */
+    List<Integer> findActiveCommentIds(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * 过滤出存在的用户ID
+     */
+    List<Integer> findUserIds(@Param("ids") Collection<Integer> ids);
+}
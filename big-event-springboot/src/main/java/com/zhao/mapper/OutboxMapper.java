@@ -0,0 +1,66 @@
+package com.zhao.mapper;
+
+import com.zhao.pojo.OutboxMessage;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 事件发件箱的读写
+ */
+@Mapper
+public interface OutboxMapper {
+
+    /**
+     * 写入一条待投递的事件
+     */
+    void insert(@Param("eventType") String eventType, @Param("payload") String payload);
+
+    /**
+     * 按ID顺序领取一批到期、没有被其他节点领取（或租约已过期）的事件
+     * @param owner 领取的节点
+     * @param limit 最多领取条数
+     * @param leaseSeconds 租约时长，到期还没投递完的由其他节点重新领取
+     * @return 领取的条数
+     */
+    int claim(@Param("owner") String owner, @Param("limit") int limit, @Param("leaseSeconds") int leaseSeconds);
+
+    /**
+     * 查询本节点领取的事件
+     */
+    List<OutboxMessage> findClaimed(@Param("owner") String owner);
+
+    /**
+     * 标记为已投递
+     */
+    void markSent(@Param("id") Long id);
+
+    /**
+     * 投递失败，释放租约，等到下次重试时间再投递
+     * @param failed 是否已超过重试次数，超过后不再投递
+     */
+    void markRetry(@Param("id") Long id, @Param("attempts") int attempts, @Param("delaySeconds") long delaySeconds,
+                   @Param("failed") boolean failed, @Param("error") String error);
+
+    /**
+     * 记录消费者处理过的事件，依赖(consumer, event_id)主键
+     * @return 1：第一次处理；0：已经处理过
+     */
+    int markConsumed(@Param("consumer") String consumer, @Param("eventId") Long eventId);
+
+    /**
+     * 统计某个状态的事件数
+     */
+    long countByStatus(@Param("status") int status);
+
+    /**
+     * 删除投递完成超过指定天数的事件
+     */
+    int deleteSentBefore(@Param("days") int days);
+
+    /**
+     * 删除超过指定天数的消费记录，保留天数要比事件可能被重复投递的时间长
+     */
+    int deleteConsumedBefore(@Param("days") int days);
+}
@@ -1,9 +1,12 @@
 package com.zhao.mapper;
 
+import com.zhao.pojo.FollowUserVO;
 import com.zhao.pojo.UserFollow;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -51,4 +54,67 @@ public interface UserFollowMapper {
      * @return 粉丝列表
      */
     List<Map<String, Object>> findFollowersList(@Param("followedId") Integer followedId);
-}
\ No newline at end of file
+    
+    /**
+     * 游标方式获取用户关注列表，按关注时间和记录ID倒序
+     * @param followerId 关注者ID
+     * @param cursorTime 上一页最后一条记录的关注时间，第一页为null
+     * @param cursorId 上一页最后一条记录的ID，第一页为null
+     * @param limit 查询条数
+     * @return 关注的用户列表
+     */
+    List<FollowUserVO> findFollowingPage(@Param("followerId") Integer followerId,
+                                         @Param("cursorTime") LocalDateTime cursorTime,
+                                         @Param("cursorId") Integer cursorId,
+                                         @Param("limit") Integer limit);
+    
+    /**
+     * 游标方式获取用户粉丝列表，按关注时间和记录ID倒序
+     * @param followedId 被关注者ID
+     * @param cursorTime 上一页最后一条记录的关注时间，第一页为null
+     * @param cursorId 上一页最后一条记录的ID，第一页为null
+     * @param limit 查询条数
+     * @return 粉丝列表
+     */
+    List<FollowUserVO> findFollowersPage(@Param("followedId") Integer followedId,
+                                         @Param("cursorTime") LocalDateTime cursorTime,
+                                         @Param("cursorId") Integer cursorId,
+                                         @Param("limit") Integer limit);
+    
+    /**
+     * 统计用户关注数
+     * @param followerId 关注者ID
+     * @return 关注数
+     */
+    Long countFollowing(@Param("followerId") Integer followerId);
+    
+    /**
+     * 统计用户粉丝数
+     * @param followedId 被关注者ID
+     * @return 粉丝数
+     */
+    Long countFollowers(@Param("followedId") Integer followedId);
+    
+    /**
+     * 获取用户关注的所有用户ID，用于加载关注关系缓存
+     * @param followerId 关注者ID
+     * @return 被关注者ID列表
+     */
+    List<Integer> findFollowingIds(@Param("followerId") Integer followerId);
+    
+    /**
+     * 获取用户所有粉丝的用户ID，用于动态推送
+     * @param followedId 被关注者ID
+     * @return 关注者ID列表
+     */
+    List<Integer> findFollowerIds(@Param("followedId") Integer followedId);
+
+    /**
+     * 在给定的用户ID中找出关注了该用户的粉丝
+     * @param followedId 被关注者ID
+     * @param followerIds 待判断的用户ID
+     * @return 其中关注了该用户的用户ID
+     */
+    List<Integer> findFollowerIdsIn(@Param("followedId") Integer followedId,
+                                    @Param("followerIds") Collection<Integer> followerIds);
+}
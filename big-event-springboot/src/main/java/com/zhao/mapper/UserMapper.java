@@ -1,6 +1,7 @@
 package com.zhao.mapper;
 
 import com.zhao.pojo.User;
+import com.zhao.pojo.UserProfile;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
@@ -15,6 +16,9 @@ public interface UserMapper {
 
     //根据ID查询用户
     User findById(@Param("id") Integer id);
+
+    //根据ID查询用户资料，只包含可以公开展示的字段
+    UserProfile findProfileById(@Param("id") Integer id);
     
     //根据邮箱查询用户
     User findByEmail(String email);
@@ -25,6 +29,9 @@ public interface UserMapper {
     //根据ID更新密码
     void updatePasswordById(@Param("encryptPassword") String encryptPassword, @Param("userId") Integer userId);
 
+    //替换密码哈希，只有当前哈希仍为oldHash时才更新
+    int replacePasswordHash(@Param("userId") Integer userId, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
+
     //添加（邮箱方式）
     void add(String username, String encryptPassword, String email);
     
@@ -48,6 +55,12 @@ public interface UserMapper {
                           @Param("role") Integer role, @Param("username") String username, 
                           @Param("status") Integer status, @Param("excludeId") Integer excludeId);
     
+    // 游标方式获取用户列表（按create_time, id倒序，从游标位置往后取）
+    List<User> getUserListByCursor(@Param("cursorTime") LocalDateTime cursorTime, @Param("cursorId") Integer cursorId,
+                                   @Param("limit") Integer limit, @Param("role") Integer role,
+                                   @Param("username") String username, @Param("status") Integer status,
+                                   @Param("excludeId") Integer excludeId);
+    
     // 获取用户总数（支持角色、用户名、状态筛选）
     Integer getUserCount(@Param("role") Integer role, @Param("username") String username, 
                          @Param("status") Integer status, @Param("excludeId") Integer excludeId);
@@ -0,0 +1,48 @@
+package com.zhao.outbox;
+
+import com.zhao.cache.CategoryCache;
+import com.zhao.event.ArticleCreatedEvent;
+import com.zhao.event.ArticleDeletedEvent;
+import com.zhao.event.ArticleUpdatedEvent;
+import com.zhao.event.OutboxEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+
+/**
+ * 分类文章数缓存
+ * 计数在Redis中，处理记录在本消费者自己的事务中提交，其他消费者失败后重试时跳过，不会重复加减；
+ * 只有本消费者中途失败或提交失败时可能有偏差，偏差会在缓存过期后按数据库重新统计
+ */
+@Component
+public class CategoryCountConsumer implements OutboxConsumer {
+
+    @Autowired
+    private CategoryCache categoryCache;
+
+    @Override
+    public String name() {
+        return "category-count";
+    }
+
+    @Override
+    public boolean supports(OutboxEvent event) {
+        return event instanceof ArticleCreatedEvent || event instanceof ArticleUpdatedEvent
+                || event instanceof ArticleDeletedEvent;
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        if (event instanceof ArticleCreatedEvent created) {
+            categoryCache.incrementArticleCount(created.getCategoryId(), 1);
+        } else if (event instanceof ArticleUpdatedEvent updated) {
+            if (!Objects.equals(updated.getOldCategoryId(), updated.getCategoryId())) {
+                categoryCache.incrementArticleCount(updated.getOldCategoryId(), -1);
+                categoryCache.incrementArticleCount(updated.getCategoryId(), 1);
+            }
+        } else if (event instanceof ArticleDeletedEvent deleted) {
+            categoryCache.incrementArticleCount(deleted.getCategoryId(), -1);
+        }
+    }
+}
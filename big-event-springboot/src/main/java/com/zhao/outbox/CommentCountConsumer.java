@@ -0,0 +1,33 @@
+package com.zhao.outbox;
+
+import com.zhao.event.CommentAddedEvent;
+import com.zhao.event.OutboxEvent;
+import com.zhao.mapper.ArticleMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * 文章评论数
+ * 在投递事务中修改数据库，与处理记录一起提交，每条评论只加一次
+ */
+@Component
+public class CommentCountConsumer implements OutboxConsumer {
+
+    @Autowired
+    private ArticleMapper articleMapper;
+
+    @Override
+    public String name() {
+        return "comment-count";
+    }
+
+    @Override
+    public boolean supports(OutboxEvent event) {
+        return event instanceof CommentAddedEvent;
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        articleMapper.updateCommentCount(((CommentAddedEvent) event).getArticleId(), 1);
+    }
+}
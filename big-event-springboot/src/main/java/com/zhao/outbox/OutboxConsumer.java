@@ -0,0 +1,27 @@
+package com.zhao.outbox;
+
+import com.zhao.event.OutboxEvent;
+
+/**
+ * 事件发件箱的消费者
+ * OutboxRelay为每个消费者单独开一个数据库事务调用handle，消费者对数据库的修改与"已处理"标记一起提交，
+ * 重复投递或其他消费者失败后重试时会被跳过；对Redis等外部存储的修改在事务回滚后不会撤销，
+ * 只有本消费者的handle抛出异常（或事务提交失败）时，重试才可能再执行一次
+ */
+public interface OutboxConsumer {
+
+    /**
+     * 消费者名称，用于记录处理过的事件，修改后已处理的事件会被重新处理
+     */
+    String name();
+
+    /**
+     * 是否处理这个事件
+     */
+    boolean supports(OutboxEvent event);
+
+    /**
+     * 处理事件，抛出异常时整条事件稍后重试
+     */
+    void handle(OutboxEvent event);
+}
@@ -0,0 +1,182 @@
+package com.zhao.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zhao.config.VirtualThreadConfig;
+import com.zhao.event.OutboxEvent;
+import com.zhao.mapper.OutboxMapper;
+import com.zhao.pojo.OutboxMessage;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 事件发件箱的投递
+ * 后台线程定时领取一批待投递的事件（一条UPDATE写入本节点的租约，多个节点同时运行不会重复领取），
+ * 按ID顺序逐条交给支持它的消费者。每个消费者在自己的事务中处理：它的数据库修改和处理记录一起提交，
+ * 所有消费者都处理完后才标记为已投递；某个消费者失败时，已经处理完的消费者在重试时跳过，不会重复执行。
+ * 处理失败的事件释放租约，按指数退避重试，超过重试次数后不再投递，可以在 /admin/metrics 中看到数量。
+ * 节点在投递中途退出时，租约到期后由其他节点（或重启后的本节点）重新领取，所以投递是至少一次的
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    @Autowired
+    private OutboxMapper outboxMapper;
+
+    @Autowired
+    private List<OutboxConsumer> consumers;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private Environment environment;
+
+    // 领取的间隔
+    @Value("${outbox.relay.interval:500}")
+    private long intervalMillis;
+
+    // 每次最多领取的事件数
+    @Value("${outbox.relay.batch-size:100}")
+    private int batchSize;
+
+    // 超过这个次数的事件不再投递
+    private static final int MAX_ATTEMPTS = 10;
+    private static final long MAX_RETRY_DELAY_SECONDS = 300;
+    // 租约要比投递一批事件的时间长，否则其他节点会重复领取
+    private static final int LEASE_SECONDS = 60;
+    // 已投递的事件和消费记录保留的天数
+    private static final int RETENTION_DAYS = 7;
+    private static final long CLEANUP_INTERVAL_MINUTES = 60;
+    private static final String EVENT_PACKAGE = OutboxEvent.class.getPackageName() + ".";
+
+    // 本节点ID，每次启动重新生成
+    private final String owner = UUID.randomUUID().toString();
+
+    private TransactionTemplate transactionTemplate;
+    private ScheduledThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        executor = new ScheduledThreadPoolExecutor(1, VirtualThreadConfig.threadFactory(environment, "outbox-relay"));
+        executor.scheduleWithFixedDelay(this::relayQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(this::cleanupQuietly, CLEANUP_INTERVAL_MINUTES, CLEANUP_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        // 没投递完的事件租约到期后会被重新领取
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 领取并投递一批事件
+     * @return 投递成功的事件数
+     */
+    public int relay() {
+        if (outboxMapper.claim(owner, batchSize, LEASE_SECONDS) == 0) {
+            return 0;
+        }
+        int sent = 0;
+        for (OutboxMessage message : outboxMapper.findClaimed(owner)) {
+            if (deliver(message)) {
+                sent++;
+            }
+        }
+        return sent;
+    }
+
+    /**
+     * 各状态的事件数
+     */
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("pending", outboxMapper.countByStatus(0));
+        metrics.put("failed", outboxMapper.countByStatus(2));
+        return metrics;
+    }
+
+    private boolean deliver(OutboxMessage message) {
+        try {
+            OutboxEvent event = decode(message);
+            for (OutboxConsumer consumer : consumers) {
+                if (!consumer.supports(event)) {
+                    continue;
+                }
+                // 先写处理记录，已经处理过的跳过；处理失败时随本消费者的事务回滚，重试时再处理
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (outboxMapper.markConsumed(consumer.name(), message.getId()) > 0) {
+                        consumer.handle(event);
+                    }
+                });
+            }
+            outboxMapper.markSent(message.getId());
+            return true;
+        } catch (Exception e) {
+            int attempts = message.getAttempts() + 1;
+            boolean failed = attempts >= MAX_ATTEMPTS;
+            long delaySeconds = Math.min(1L << Math.min(attempts, 20), MAX_RETRY_DELAY_SECONDS);
+            String error = String.valueOf(e.getMessage());
+            if (failed) {
+                log.error("事件{}({})投递{}次仍失败，不再重试", message.getId(), message.getEventType(), attempts, e);
+            } else {
+                log.warn("事件{}({})投递失败，{}秒后重试: {}", message.getId(), message.getEventType(), delaySeconds, error);
+            }
+            outboxMapper.markRetry(message.getId(), attempts, delaySeconds, failed,
+                    error.length() > 500 ? error.substring(0, 500) : error);
+            return false;
+        }
+    }
+
+    private OutboxEvent decode(OutboxMessage message) throws Exception {
+        Class<?> type = Class.forName(EVENT_PACKAGE + message.getEventType());
+        if (!OutboxEvent.class.isAssignableFrom(type)) {
+            throw new IllegalStateException("未知的事件类型: " + message.getEventType());
+        }
+        return (OutboxEvent) objectMapper.readValue(message.getPayload(), type);
+    }
+
+    private void relayQuietly() {
+        try {
+            // 领满一批说明可能还有积压，接着领取
+            while (relay() >= batchSize) {
+                if (executor.isShutdown()) {
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            log.error("投递事件失败", e);
+        }
+    }
+
+    private void cleanupQuietly() {
+        try {
+            int events = outboxMapper.deleteSentBefore(RETENTION_DAYS);
+            int consumed = outboxMapper.deleteConsumedBefore(RETENTION_DAYS);
+            if (events > 0 || consumed > 0) {
+                log.info("清理已投递的事件{}条、消费记录{}条", events, consumed);
+            }
+        } catch (Exception e) {
+            log.warn("清理事件发件箱失败: {}", e.getMessage());
+        }
+    }
+}
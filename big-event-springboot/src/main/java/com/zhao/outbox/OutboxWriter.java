@@ -0,0 +1,29 @@
+package com.zhao.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zhao.event.OutboxEvent;
+import com.zhao.mapper.OutboxMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 事件发件箱的写入
+ * 在业务事务提交前把事件写入 event_outbox，写入失败时整个事务回滚，业务修改和事件要么都在要么都不在
+ */
+@Component
+public class OutboxWriter {
+
+    @Autowired
+    private OutboxMapper outboxMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void write(OutboxEvent event) throws JsonProcessingException {
+        outboxMapper.insert(event.getClass().getSimpleName(), objectMapper.writeValueAsString(event));
+    }
+}
@@ -0,0 +1,63 @@
+package com.zhao.outbox;
+
+import com.zhao.event.ArticlePublishedEvent;
+import com.zhao.event.ArticleUnpublishedEvent;
+import com.zhao.event.OutboxEvent;
+import com.zhao.mapper.ArticleMapper;
+import com.zhao.pojo.Article;
+import com.zhao.service.TimelineService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * 关注时间线
+ * 推送和移除都是按文章ID写有序集合，重复执行结果不变。
+ * 同一篇文章的发布、撤回事件可能因为重试而乱序投递，所以不按事件类型处理，
+ * 而是查出文章当前的状态：已发布就推送，未发布或已删除就移除，任何顺序处理完的结果都与文章最终状态一致
+ */
+@Component
+public class TimelineConsumer implements OutboxConsumer {
+
+    private static final String PUBLISHED_STATE = "已发布";
+
+    @Autowired
+    private TimelineService timelineService;
+
+    @Autowired
+    private ArticleMapper articleMapper;
+
+    @Override
+    public String name() {
+        return "timeline";
+    }
+
+    @Override
+    public boolean supports(OutboxEvent event) {
+        return event instanceof ArticlePublishedEvent || event instanceof ArticleUnpublishedEvent;
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        Integer articleId;
+        Integer authorId;
+        if (event instanceof ArticlePublishedEvent published) {
+            articleId = published.getArticleId();
+            authorId = published.getAuthorId();
+        } else {
+            ArticleUnpublishedEvent unpublished = (ArticleUnpublishedEvent) event;
+            articleId = unpublished.getArticleId();
+            authorId = unpublished.getAuthorId();
+        }
+
+        // 在当前线程执行，失败时异常交给OutboxRelay重试
+        Article current = articleMapper.findById(articleId);
+        if (current != null && PUBLISHED_STATE.equals(current.getState())) {
+            timelineService.fanOut(current);
+        } else {
+            Article article = new Article();
+            article.setId(articleId);
+            article.setCreateUser(authorId);
+            timelineService.retract(article);
+        }
+    }
+}
@@ -44,6 +44,12 @@ public class Article {
      */
     private Integer collectCount = 0;
 
+    /**
+     * 文章评论数 - 用于避免每次查询列表都统计 article_comment 表
+     * 默认值: 0
+     */
+    private Integer commentCount = 0;
+
     // === 验证分组接口 ===
 
     public interface Add extends Default {
@@ -0,0 +1,31 @@
+package com.zhao.pojo;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * 文章详情页聚合数据
+ * 除文章本身外，其余部分超时或出错时为null，并在missing中列出，前端可以单独再请求这些部分
+ */
+@Data
+public class ArticleDetailAggregateVO {
+    // 文章详情
+    private ArticleDetailVO article;
+    // 作者信息
+    private AuthorVO author;
+    // 当前用户是否点赞，未登录时为false
+    private Boolean liked;
+    // 当前用户是否收藏，未登录时为false
+    private Boolean collected;
+    // 第一页评论，结构同 /article/{id}/comments
+    private HashMap<String, Object> comments;
+    // 分类列表，结构同 /category/list
+    private List<CategoryVO> categories;
+    // 当前用户是否关注了作者，未登录或是自己的文章时为false
+    private Boolean following;
+    // 超时或出错而缺失的部分：author、liked、collected、comments、categories、following
+    private List<String> missing = new ArrayList<>();
+}
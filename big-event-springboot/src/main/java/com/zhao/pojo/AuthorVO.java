@@ -0,0 +1,14 @@
+package com.zhao.pojo;
+
+import lombok.Data;
+
+/**
+ * 文章作者的公开信息
+ */
+@Data
+public class AuthorVO {
+    private Integer id;
+    private String username;
+    private String nickname;
+    private String userPic;
+}
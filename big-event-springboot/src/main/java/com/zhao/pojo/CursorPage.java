@@ -0,0 +1,40 @@
+package com.zhao.pojo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 游标分页结果
+ * 与PageBean不同，游标分页不使用LIMIT offset，而是记住上一页最后一条记录的位置，
+ * 下一页直接从该位置往后查，页数再深也只扫描pageSize条记录
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> list;//当前页数据集合
+    private String nextCursor;//下一页游标，没有下一页时为null
+    private Boolean hasMore;//是否还有下一页
+    private Integer pageSize;//每页展示的条数
+    private Long total;//总条数，仅在请求时要求统计才返回，否则为null
+
+    /**
+     * 根据多查出的一条记录判断是否还有下一页，并生成下一页游标
+     * @param rows 按pageSize + 1条查询出的结果
+     * @param pageSize 每页大小
+     * @param cursorOf 根据最后一条记录生成游标的方法
+     * @param total 总条数（可为null）
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int pageSize, Function<T, String> cursorOf, Long total) {
+        boolean hasMore = rows.size() > pageSize;
+        // 拷贝成ArrayList，subList视图在放入Redis缓存时无法反序列化
+        List<T> list = hasMore ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+        String nextCursor = hasMore ? cursorOf.apply(list.get(list.size() - 1)) : null;
+        return new CursorPage<>(list, nextCursor, hasMore, pageSize, total);
+    }
+}
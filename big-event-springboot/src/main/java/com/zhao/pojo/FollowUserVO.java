@@ -0,0 +1,24 @@
+package com.zhao.pojo;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 关注/粉丝列表中的用户信息
+ */
+@Data
+public class FollowUserVO {
+    /**
+     * 关注记录ID，和关注时间一起作为游标
+     */
+    private Integer id;
+    private Integer userId;
+    private String username;
+    private String nickname;
+    private String userPic;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime followTime;
+}
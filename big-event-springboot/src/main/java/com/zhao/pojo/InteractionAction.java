@@ -0,0 +1,16 @@
+package com.zhao.pojo;
+
+import lombok.Data;
+
+/**
+ * 批量互动中的一个操作
+ */
+@Data
+public class InteractionAction {
+    // 互动类型
+    private InteractionType type;
+    // 文章ID、评论ID或被关注用户ID
+    private Integer targetId;
+    // 期望的最终状态：true为点赞/收藏/关注，false为取消；为null时在当前状态上切换
+    private Boolean active;
+}
@@ -0,0 +1,20 @@
+package com.zhao.pojo;
+
+import lombok.Data;
+
+/**
+ * 批量互动中一个目标的最终状态
+ */
+@Data
+public class InteractionResult {
+    private InteractionType type;
+    private Integer targetId;
+    // 最终是否处于点赞/收藏/关注状态，操作失败时为null
+    private Boolean active;
+    // 本次请求是否改变了状态，已经是期望状态时为false
+    private Boolean changed;
+    // 目标最新的点赞数或收藏数，关注没有计数，为null
+    private Integer count;
+    // 操作失败的原因，成功时为null
+    private String error;
+}
@@ -0,0 +1,36 @@
+package com.zhao.pojo;
+
+import lombok.Getter;
+
+/**
+ * 可以批量提交的互动类型
+ * 每种互动对应一张记录表（逻辑删除）以及可选的计数列，表名列名只来自这里，拼进SQL是安全的
+ */
+@Getter
+public enum InteractionType {
+    // 点赞文章
+    ARTICLE_LIKE("article_like", "user_id", "article_id", "create_time", "article", "like_count"),
+    // 收藏文章
+    ARTICLE_COLLECT("article_collect", "user_id", "article_id", "collect_time", "article", "collect_count"),
+    // 点赞评论
+    COMMENT_LIKE("article_comment_like", "user_id", "comment_id", "create_time", "article_comment", "comment_like_count"),
+    // 关注用户，没有计数列，关注数粉丝数由缓存维护
+    FOLLOW("user_follow", "follower_id", "followed_id", "create_time", null, null);
+
+    private final String table;
+    private final String userColumn;
+    private final String targetColumn;
+    private final String timeColumn;
+    private final String countTable;
+    private final String countColumn;
+
+    InteractionType(String table, String userColumn, String targetColumn, String timeColumn,
+                    String countTable, String countColumn) {
+        this.table = table;
+        this.userColumn = userColumn;
+        this.targetColumn = targetColumn;
+        this.timeColumn = timeColumn;
+        this.countTable = countTable;
+        this.countColumn = countColumn;
+    }
+}
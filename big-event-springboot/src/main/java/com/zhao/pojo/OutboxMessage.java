@@ -0,0 +1,20 @@
+package com.zhao.pojo;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 事件发件箱中的一条记录
+ */
+@Data
+public class OutboxMessage {
+    private Long id;
+    private String eventType;//事件类名
+    private String payload;//事件内容JSON
+    // 投递状态：0-待投递，1-已投递，2-超过重试次数
+    private Integer status;
+    private Integer attempts;//失败次数
+    private LocalDateTime nextRetryTime;
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,19 @@
+package com.zhao.pojo;
+
+import lombok.Data;
+
+/**
+ * 用户资料
+ * 只包含可以缓存、可以展示给其他用户的字段，不包含密码、邮箱、手机号
+ */
+@Data
+public class UserProfile {
+    private Integer id;
+    private String username;
+    private String nickname;
+    private String userPic;
+    // 用户角色：0-管理员，1-作者，2-普通用户
+    private Integer role;
+    // 账号状态：0-正常，1-禁用
+    private Integer status;
+}
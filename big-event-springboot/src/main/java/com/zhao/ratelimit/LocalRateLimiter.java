@@ -0,0 +1,102 @@
+package com.zhao.ratelimit;
+
+import com.zhao.anno.RateLimit;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * 单机内存限流
+ * Redis不可用时代替Redis限流，配额只在当前实例内有效；
+ * 记录数超过上限时清理已经空闲的记录，避免被大量不同的IP撑满内存
+ */
+public class LocalRateLimiter {
+
+    private static final int MAX_ENTRIES = 100_000;
+
+    private final LongSupplier clock;
+    private final Map<String, Object> states = new ConcurrentHashMap<>();
+
+    public LocalRateLimiter() {
+        this(System::currentTimeMillis);
+    }
+
+    public LocalRateLimiter(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * 尝试获取一个请求配额
+     * @return 是否允许本次请求
+     */
+    public boolean tryAcquire(String key, RateLimit.Algorithm algorithm, int permits, long windowMillis) {
+        long now = clock.getAsLong();
+        if (states.size() > MAX_ENTRIES) {
+            evictIdle(now, windowMillis);
+        }
+        // 同名的限流可能使用不同的算法，按算法分开记录
+        if (algorithm == RateLimit.Algorithm.TOKEN_BUCKET) {
+            TokenBucket bucket = (TokenBucket) states.computeIfAbsent("token:" + key, k -> new TokenBucket(permits, now));
+            return bucket.tryAcquire(permits, windowMillis, now);
+        }
+        SlidingWindow window = (SlidingWindow) states.computeIfAbsent("window:" + key, k -> new SlidingWindow());
+        return window.tryAcquire(permits, windowMillis, now);
+    }
+
+    private void evictIdle(long now, long windowMillis) {
+        states.values().removeIf(state -> state instanceof Idle idle && idle.idleSince() < now - windowMillis);
+    }
+
+    private interface Idle {
+        long idleSince();
+    }
+
+    private static class TokenBucket implements Idle {
+        private double tokens;
+        private long lastRefill;
+
+        TokenBucket(int capacity, long now) {
+            this.tokens = capacity;
+            this.lastRefill = now;
+        }
+
+        synchronized boolean tryAcquire(int capacity, long refillMillis, long now) {
+            tokens = Math.min(capacity, tokens + (double) (now - lastRefill) * capacity / refillMillis);
+            lastRefill = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public synchronized long idleSince() {
+            return lastRefill;
+        }
+    }
+
+    private static class SlidingWindow implements Idle {
+        // 时间窗口内每个请求的时间，最多permits个
+        private final Deque<Long> timestamps = new ArrayDeque<>();
+
+        synchronized boolean tryAcquire(int permits, long windowMillis, long now) {
+            while (!timestamps.isEmpty() && timestamps.peekFirst() <= now - windowMillis) {
+                timestamps.pollFirst();
+            }
+            if (timestamps.size() >= permits) {
+                return false;
+            }
+            timestamps.addLast(now);
+            return true;
+        }
+
+        @Override
+        public synchronized long idleSince() {
+            return timestamps.isEmpty() ? 0 : timestamps.peekLast();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.zhao.ratelimit;
+
+import com.zhao.anno.RateLimit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 分布式限流
+ * 每次检查是一个Lua脚本，一次往返完成，多个实例共用同一份配额；时间取Redis服务器的时间，不受各实例时钟偏差影响。
+ * Redis不可用时退回到单机内存限流，不会因为限流本身让接口不可用
+ */
+@Component
+@Slf4j
+public class RateLimiter {
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    private final LocalRateLimiter localRateLimiter = new LocalRateLimiter();
+
+    // 令牌桶和滑动窗口的数据结构不同，同名的限流按算法使用不同的key
+    private static final String TOKEN_BUCKET_PREFIX = "rate:token:";
+    private static final String SLIDING_WINDOW_PREFIX = "rate:window:";
+
+    // 滑动窗口：有序集合记录窗口内每个请求的时间
+    // ARGV: 请求数上限, 窗口毫秒数, 本次请求的唯一标识
+    private static final DefaultRedisScript<Long> SLIDING_WINDOW_SCRIPT = new DefaultRedisScript<>(
+            "local t = redis.call('TIME') " +
+            "local now = t[1] * 1000 + math.floor(t[2] / 1000) " +
+            "local window = tonumber(ARGV[2]) " +
+            "redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', now - window) " +
+            "if redis.call('ZCARD', KEYS[1]) >= tonumber(ARGV[1]) then return 0 end " +
+            "redis.call('ZADD', KEYS[1], now, ARGV[3]) " +
+            "redis.call('PEXPIRE', KEYS[1], window) " +
+            "return 1",
+            Long.class);
+
+    // 令牌桶：Hash记录剩余令牌数和上次补充的时间
+    // ARGV: 桶容量, 装满空桶需要的毫秒数
+    private static final DefaultRedisScript<Long> TOKEN_BUCKET_SCRIPT = new DefaultRedisScript<>(
+            "local t = redis.call('TIME') " +
+            "local now = t[1] * 1000 + math.floor(t[2] / 1000) " +
+            "local capacity = tonumber(ARGV[1]) " +
+            "local refill = tonumber(ARGV[2]) " +
+            "local state = redis.call('HMGET', KEYS[1], 'tokens', 'ts') " +
+            "local tokens = tonumber(state[1]) or capacity " +
+            "local ts = tonumber(state[2]) or now " +
+            "tokens = math.min(capacity, tokens + (now - ts) * capacity / refill) " +
+            "local allowed = 0 " +
+            "if tokens >= 1 then tokens = tokens - 1 allowed = 1 end " +
+            "redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', now) " +
+            "redis.call('PEXPIRE', KEYS[1], refill) " +
+            "return allowed",
+            Long.class);
+
+    /**
+     * 尝试获取一个请求配额
+     * @param key 限流对象，例如 UserController.login:ip:127.0.0.1
+     * @param algorithm 限流算法
+     * @param permits 时间窗口内允许的请求数（令牌桶容量）
+     * @param seconds 时间窗口（装满令牌桶的时间）
+     * @return 是否允许本次请求
+     */
+    public boolean tryAcquire(String key, RateLimit.Algorithm algorithm, int permits, int seconds) {
+        long windowMillis = seconds * 1000L;
+        try {
+            Long allowed;
+            if (algorithm == RateLimit.Algorithm.TOKEN_BUCKET) {
+                allowed = stringRedisTemplate.execute(TOKEN_BUCKET_SCRIPT, List.of(TOKEN_BUCKET_PREFIX + key),
+                        String.valueOf(permits), String.valueOf(windowMillis));
+            } else {
+                allowed = stringRedisTemplate.execute(SLIDING_WINDOW_SCRIPT, List.of(SLIDING_WINDOW_PREFIX + key),
+                        String.valueOf(permits), String.valueOf(windowMillis), UUID.randomUUID().toString());
+            }
+            return allowed == null || allowed == 1;
+        } catch (Exception e) {
+            log.warn("Redis限流失败，使用本地限流: {}", e.getMessage());
+            return localRateLimiter.tryAcquire(key, algorithm, permits, windowMillis);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.zhao.security;
+
+import com.zhao.utils.LatencyHistogram;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.mindrot.jbcrypt.BCrypt;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * 密码哈希
+ * BCrypt的计算都放到有界的passwordExecutor线程池中执行，不占用Tomcat请求线程的CPU；
+ * 哈希强度由 password.bcrypt.cost 配置，调整后用户下次登录时按新的强度重新哈希。
+ * 排队时间、哈希和校验的耗时都记录在直方图中，可以通过 /admin/metrics 查看
+ */
+@Component
+@Slf4j
+public class PasswordHasher {
+
+    @Autowired
+    @Qualifier("passwordExecutor")
+    private TaskExecutor passwordExecutor;
+
+    // BCrypt的强度，每加1计算时间翻倍
+    @Value("${password.bcrypt.cost:10}")
+    private int cost;
+
+    private final LatencyHistogram queueWaitHistogram = new LatencyHistogram();
+    private final LatencyHistogram hashHistogram = new LatencyHistogram();
+    private final LatencyHistogram verifyHistogram = new LatencyHistogram();
+
+    @PostConstruct
+    public void init() {
+        if (cost < 4 || cost > 31) {
+            throw new IllegalStateException("password.bcrypt.cost 必须在4到31之间: " + cost);
+        }
+    }
+
+    /**
+     * 异步计算密码哈希
+     * @param plainPassword 明文密码
+     * @return 哈希后的密码；线程池已满时以"系统繁忙"异常结束
+     */
+    public CompletableFuture<String> hashAsync(String plainPassword) {
+        return submit(() -> {
+            long start = System.nanoTime();
+            String hashed = BCrypt.hashpw(plainPassword, BCrypt.gensalt(cost));
+            hashHistogram.record(System.nanoTime() - start);
+            return hashed;
+        });
+    }
+
+    /**
+     * 异步校验密码
+     * @param plainPassword 明文密码
+     * @param hashedPassword 哈希后的密码
+     * @return 是否匹配；线程池已满时以"系统繁忙"异常结束
+     */
+    public CompletableFuture<Boolean> verifyAsync(String plainPassword, String hashedPassword) {
+        return submit(() -> {
+            long start = System.nanoTime();
+            boolean matched = BCrypt.checkpw(plainPassword, hashedPassword);
+            verifyHistogram.record(System.nanoTime() - start);
+            return matched;
+        });
+    }
+
+    /**
+     * 计算密码哈希，在线程池中计算，当前线程等待结果
+     */
+    public String hash(String plainPassword) {
+        return join(hashAsync(plainPassword));
+    }
+
+    /**
+     * 校验密码，在线程池中计算，当前线程等待结果
+     */
+    public boolean verify(String plainPassword, String hashedPassword) {
+        return join(verifyAsync(plainPassword, hashedPassword));
+    }
+
+    /**
+     * 密码哈希的强度是否与当前配置不同，需要重新哈希
+     * @param hashedPassword 哈希后的密码，格式为 $2a$10$...
+     */
+    public boolean needsRehash(String hashedPassword) {
+        if (hashedPassword == null || hashedPassword.length() < 7 || hashedPassword.charAt(0) != '$') {
+            return true;
+        }
+        try {
+            return Integer.parseInt(hashedPassword.substring(4, 6)) != cost;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    /**
+     * 各项耗时统计
+     */
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("cost", cost);
+        metrics.put("queueWait", queueWaitHistogram.snapshot());
+        metrics.put("hash", hashHistogram.snapshot());
+        metrics.put("verify", verifyHistogram.snapshot());
+        return metrics;
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        long submitted = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                queueWaitHistogram.record(System.nanoTime() - submitted);
+                return task.get();
+            }, passwordExecutor);
+        } catch (TaskRejectedException e) {
+            log.warn("密码哈希线程池已满，拒绝请求");
+            return CompletableFuture.failedFuture(new RuntimeException("系统繁忙，请稍后再试"));
+        }
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
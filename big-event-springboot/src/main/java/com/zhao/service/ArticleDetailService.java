@@ -0,0 +1,36 @@
+package com.zhao.service;
+
+import com.zhao.pojo.ArticleDetailAggregateVO;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+public interface ArticleDetailService {
+
+    // 文章页可以选择的部分，文章本身总是返回
+    List<String> SECTIONS = List.of("author", "liked", "collected", "comments", "categories", "following");
+
+    // 详情聚合接口返回的部分
+    Set<String> DETAIL_SECTIONS = Set.of("author", "liked", "collected", "comments");
+
+    /**
+     * 并发查询文章详情页需要的全部数据
+     * @param articleId 文章ID
+     * @param userId 当前登录用户ID，未登录为null
+     * @param commentPageSize 第一页评论的条数
+     * @return 聚合结果；文章不存在或查询文章失败时以异常结束
+     */
+    CompletableFuture<ArticleDetailAggregateVO> getDetailAggregate(Integer articleId, Integer userId, Integer commentPageSize);
+
+    /**
+     * 并发查询文章页需要的数据，只查询调用方要的部分
+     * @param articleId 文章ID
+     * @param userId 当前登录用户ID，未登录为null
+     * @param commentPageSize 第一页评论的条数
+     * @param sections 需要的部分，取值见SECTIONS
+     * @return 聚合结果，没要的部分为null且不列在missing中；文章不存在或查询文章失败时以异常结束
+     */
+    CompletableFuture<ArticleDetailAggregateVO> getArticlePage(Integer articleId, Integer userId, Integer commentPageSize,
+                                                               Set<String> sections);
+}
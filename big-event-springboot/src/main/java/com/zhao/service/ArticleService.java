@@ -3,6 +3,7 @@ package com.zhao.service;
 import com.zhao.pojo.Article;
 import com.zhao.pojo.ArticleDetailVO;
 import com.zhao.pojo.ArticleHomeVO;
+import com.zhao.pojo.CursorPage;
 import com.zhao.pojo.PageBean;
 
 public interface ArticleService {
@@ -54,6 +55,19 @@ public interface ArticleService {
      * @return 分页后的文章列表
      */
     PageBean<Article> getUserArticles(Integer page, Integer pageSize, String state);
+
+    /**
+     * 游标方式获取用户文章列表
+     * 翻到很深的页时也只扫描pageSize条记录，适合文章很多的作者
+     * @param cursor 上一页返回的nextCursor，第一页传null
+     * @param pageSize 每页条数
+     * @param categoryId 分类ID（可选）
+     * @param state 文章状态（可选）
+     * @param withTotal 是否需要统计总数
+     * @return 游标分页结果
+     */
+    CursorPage<Article> getUserArticlesByCursor(String cursor, Integer pageSize, Integer categoryId,
+                                                String state, boolean withTotal);
     
     /**
      * 获取文章详情页信息
@@ -1,6 +1,7 @@
 package com.zhao.service;
 
 import com.zhao.pojo.AuthorApply;
+import com.zhao.pojo.CursorPage;
 import com.zhao.pojo.dto.AuthorApplyDTO;
 
 import java.util.List;
@@ -41,4 +42,14 @@ public interface AuthorApplyService {
      * @return 包含申请列表和总数的Map
      */
     Map<String, Object> getAuthorApplyList(Integer page, Integer pageSize, Integer status);
-}
\ No newline at end of file
+    
+    /**
+     * 游标方式获取作者申请列表
+     * @param cursor 上一页返回的nextCursor，第一页传null
+     * @param pageSize 每页大小
+     * @param status 申请状态，0=待审核/1=通过/2=拒绝，null表示查询所有状态
+     * @param withTotal 是否需要统计总数
+     * @return 游标分页结果
+     */
+    CursorPage<AuthorApplyDTO> getAuthorApplyListByCursor(String cursor, Integer pageSize, Integer status, boolean withTotal);
+}
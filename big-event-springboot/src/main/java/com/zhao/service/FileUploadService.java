@@ -0,0 +1,30 @@
+package com.zhao.service;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+
+public interface FileUploadService {
+
+    /**
+     * 异步上传文件
+     * 文件先落到本地临时文件（同时计算SHA-256），再在上传线程池中传到存储，不占用请求线程；
+     * 相同内容的文件已经上传过时直接返回已有的URL
+     * @param file 上传的文件
+     * @return 文件访问URL
+     */
+    CompletableFuture<String> uploadAsync(MultipartFile file);
+
+    /**
+     * 流式上传文件
+     * 边读请求体边校验大小和文件类型，不把整个文件读入内存：
+     * 请求体写入临时文件的同时计算SHA-256，相同内容的文件已经上传过时直接返回已有的URL
+     * @param in 请求体
+     * @param contentLength 声明的文件大小，超过上限时不读取请求体直接拒绝，未知时传-1
+     * @param contentType 客户端声明的Content-Type，可为null
+     * @return 文件访问URL
+     */
+    String uploadStream(InputStream in, long contentLength, String contentType) throws IOException;
+}
@@ -0,0 +1,28 @@
+package com.zhao.service;
+
+import com.zhao.pojo.InteractionAction;
+import com.zhao.pojo.InteractionResult;
+import com.zhao.pojo.InteractionType;
+
+import java.util.List;
+
+public interface InteractionService {
+
+    /**
+     * 批量提交点赞、收藏、评论点赞、关注操作，在一个事务中执行
+     * @param userId 当前用户ID
+     * @param actions 操作列表，同一目标出现多次时按顺序依次生效
+     * @return 每个目标（按首次出现的顺序）的最终状态和计数
+     */
+    List<InteractionResult> applyBatch(Integer userId, List<InteractionAction> actions);
+
+    /**
+     * 点赞、收藏、关注或取消一个目标，不校验目标是否存在
+     * @param type 互动类型
+     * @param userId 当前用户ID
+     * @param targetId 目标ID
+     * @param active 期望的最终状态，为null时在当前状态上切换
+     * @return 最终状态、本次是否改变了状态以及最新计数
+     */
+    InteractionResult toggle(InteractionType type, Integer userId, Integer targetId, Boolean active);
+}
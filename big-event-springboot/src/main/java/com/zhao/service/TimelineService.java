@@ -0,0 +1,41 @@
+package com.zhao.service;
+
+import com.zhao.pojo.Article;
+import com.zhao.pojo.ArticleHomeVO;
+import com.zhao.pojo.CursorPage;
+
+/**
+ * 关注时间线服务
+ * 采用推拉结合的方式：普通作者发布文章时把文章ID推送到每个粉丝的收件箱，
+ * 粉丝数超过阈值的大V只写自己的发件箱，粉丝读取时间线时再拉取合并
+ */
+public interface TimelineService {
+
+    /**
+     * 在当前线程推送到作者发件箱和粉丝时间线，失败时抛出异常，由调用方决定是否重试
+     * @param article 已发布的文章（需要包含id、createUser、createTime）
+     */
+    void fanOut(Article article);
+
+    /**
+     * 文章删除或撤回发布后调用，从作者发件箱中移除，失败时抛出异常
+     * 已推送到粉丝收件箱的记录在读取时按文章状态过滤掉
+     * @param article 文章（需要包含id、createUser）
+     */
+    void retract(Article article);
+
+    /**
+     * 关注关系变化后调用，清除用户的收件箱，下次读取时按新的关注列表重建
+     * @param userId 关注者ID
+     */
+    void onFollowChanged(Integer userId);
+
+    /**
+     * 游标方式获取用户的关注时间线
+     * @param userId 用户ID
+     * @param cursor 上一页返回的nextCursor，第一页传null
+     * @param pageSize 每页条数
+     * @return 关注作者发布的文章，按发布时间倒序
+     */
+    CursorPage<ArticleHomeVO> getTimeline(Integer userId, String cursor, Integer pageSize);
+}
@@ -1,5 +1,8 @@
 package com.zhao.service;
 
+import com.zhao.pojo.CursorPage;
+import com.zhao.pojo.FollowUserVO;
+
 import java.util.List;
 import java.util.Map;
 
@@ -13,6 +16,14 @@ public interface UserFollowService {
      */
     Map<String, Boolean> toggleFollow(Integer followerId, Integer followedId);
     
+    /**
+     * 关注关系变化后更新相关缓存（关注数、粉丝数、列表第一页、关注关系邻接表、时间线收件箱）
+     * 由CacheEventListener在关注关系变化的事务提交后调用
+     * @param followerId 关注者ID
+     * @param changes 被关注者ID -> 变化后是否关注，只包含实际发生变化的关系
+     */
+    void onFollowsChanged(Integer followerId, Map<Integer, Boolean> changes);
+    
     /**
      * 获取用户关注列表
      * @param followerId 关注者ID
@@ -26,4 +37,39 @@ public interface UserFollowService {
      * @return 粉丝列表
      */
     List<Map<String, Object>> getFollowersList(Integer followedId);
-}
\ No newline at end of file
+    
+    /**
+     * 游标方式获取用户关注列表
+     * 第一页会被缓存，关注/取消关注时失效
+     * @param followerId 关注者ID
+     * @param cursor 上一页返回的nextCursor，第一页传null
+     * @param pageSize 每页条数
+     * @return 游标分页结果，total为缓存的关注数
+     */
+    CursorPage<FollowUserVO> getFollowingPage(Integer followerId, String cursor, Integer pageSize);
+    
+    /**
+     * 游标方式获取用户粉丝列表
+     * 第一页会被缓存，关注/取消关注时失效
+     * @param followedId 被关注者ID
+     * @param cursor 上一页返回的nextCursor，第一页传null
+     * @param pageSize 每页条数
+     * @return 游标分页结果，total为缓存的粉丝数
+     */
+    CursorPage<FollowUserVO> getFollowersPage(Integer followedId, String cursor, Integer pageSize);
+    
+    /**
+     * 获取用户的关注数和粉丝数（带缓存）
+     * @param userId 用户ID
+     * @return 包含followingCount和followersCount的Map
+     */
+    Map<String, Long> getFollowCounts(Integer userId);
+    
+    /**
+     * 批量查询当前用户与一批用户之间的关注关系
+     * @param userId 当前用户ID
+     * @param targetIds 待查询的用户ID
+     * @return 用户ID -> {following: 我是否关注了他, followedBy: 他是否关注了我, mutual: 是否互相关注}
+     */
+    Map<Integer, Map<String, Boolean>> getFollowStates(Integer userId, List<Integer> targetIds);
+}
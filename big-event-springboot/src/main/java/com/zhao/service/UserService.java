@@ -1,5 +1,6 @@
 package com.zhao.service;
 
+import com.zhao.pojo.CursorPage;
 import com.zhao.pojo.User;
 
 import java.util.Map;
@@ -21,6 +22,9 @@ public interface UserService {
     //根据ID更新密码
     void updatePasswordById(Integer userId, String newPassword);
 
+    //按当前配置的哈希强度重新计算密码哈希（异步执行）
+    void rehashPassword(Integer userId, String plainPassword, String oldHash);
+
     //注册（邮箱方式）
     void register(String username, String password, String email);
     
@@ -42,6 +46,10 @@ public interface UserService {
     // 获取用户列表（分页、多条件筛选）
     Map<String, Object> getUserList(Integer page, Integer pageSize, Integer role, String username, Integer status, Integer excludeId);
     
+    // 游标方式获取用户列表（多条件筛选，总数可选）
+    CursorPage<User> getUserListByCursor(String cursor, Integer pageSize, Integer role, String username,
+                                         Integer status, Integer excludeId, boolean withTotal);
+    
     // 更新用户最后登录时间
     void updateLastLoginTime(Integer userId);
 }
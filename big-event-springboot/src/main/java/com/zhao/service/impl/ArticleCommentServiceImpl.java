@@ -1,15 +1,20 @@
 package com.zhao.service.impl;
 
+import com.zhao.cache.PublishedArticleCache;
+import com.zhao.cache.UserProfileCache;
+import com.zhao.counter.CommentLikeCounter;
+import com.zhao.event.CommentAddedEvent;
 import com.zhao.mapper.ArticleCommentMapper;
 import com.zhao.mapper.ArticleMapper;
-import com.zhao.mapper.UserMapper;
 import com.zhao.pojo.Article;
 import com.zhao.pojo.ArticleComment;
 import com.zhao.pojo.ArticleCommentVO;
-import com.zhao.pojo.User;
+import com.zhao.pojo.UserProfile;
 import com.zhao.service.ArticleCommentService;
+import com.zhao.storage.ImagePipeline;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,19 +32,31 @@ public class ArticleCommentServiceImpl implements ArticleCommentService {
     private ArticleMapper articleMapper;
 
     @Autowired
-    private UserMapper userMapper;
+    private CommentLikeCounter commentLikeCounter;
+
+    @Autowired
+    private PublishedArticleCache publishedArticleCache;
+
+    @Autowired
+    private UserProfileCache userProfileCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ImagePipeline imagePipeline;
 
     private static final String PUBLISHED_STATE = "已发布";
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     public ArticleCommentVO addComment(ArticleComment articleComment, Integer userId) {
-        // 1. 验证文章是否存在且状态为"已发布"
-        Article article = articleMapper.findById(articleComment.getArticleId());
-        if (article == null) {
+        // 1. 验证文章是否存在且状态为"已发布"，先查已发布文章ID缓存，不读取整篇文章
+        String state = publishedArticleCache.getState(articleComment.getArticleId());
+        if (state == null) {
             throw new RuntimeException("文章不存在");
         }
-        if (!PUBLISHED_STATE.equals(article.getState())) {
+        if (!PUBLISHED_STATE.equals(state)) {
             throw new RuntimeException("只能评论已发布的文章");
         }
 
@@ -72,13 +89,17 @@ public class ArticleCommentServiceImpl implements ArticleCommentService {
         // 4. 保存评论
         articleCommentMapper.insert(articleComment);
         
-        // 5. 获取用户信息
-        User user = userMapper.findById(userId);
+        // 5. 获取用户昵称、头像，从用户资料缓存读取
+        UserProfile user = userProfileCache.get(userId);
         if (user == null) {
             throw new RuntimeException("用户信息不存在");
         }
+
+        // 6. 文章评论数等在事务提交后由后台线程更新
+        eventPublisher.publishEvent(new CommentAddedEvent(articleComment.getId(), articleComment.getArticleId(),
+                articleComment.getParentId(), userId));
         
-        // 6. 构建返回的VO对象
+        // 7. 构建返回的VO对象
         ArticleCommentVO commentVO = new ArticleCommentVO();
         commentVO.setId(articleComment.getId());
         commentVO.setContent(articleComment.getContent());
@@ -158,6 +179,8 @@ public class ArticleCommentServiceImpl implements ArticleCommentService {
         
         // 构建评论树形结构，包含回复
         List<Map<String, Object>> commentList = new ArrayList<>();
+        // 评论和回复的用户信息，最后统一把头像换成缩略图
+        List<Map<String, Object>> userInfos = new ArrayList<>();
         for (Map<String, Object> mainComment : mainComments) {
             // 构建评论对象
             Map<String, Object> comment = new HashMap<>(mainComment);
@@ -174,14 +197,16 @@ public class ArticleCommentServiceImpl implements ArticleCommentService {
                 comment.put("id", id);
             }
             
-            // 设置点赞状态
+            // 设置点赞状态，点赞数加上还没写入数据库的变化量
             comment.put("liked", likedCommentIds.contains(id));
+            comment.put("likeCount", withPendingLikes(id, comment.get("likeCount")));
             
             // 构建用户信息
             Map<String, Object> userInfo = new HashMap<>();
             userInfo.put("nickname", comment.remove("nickname"));
             userInfo.put("userPic", comment.remove("userPic"));
             comment.put("userInfo", userInfo);
+            userInfos.add(userInfo);
             
             // 获取回复列表
             if (id != null) {
@@ -206,12 +231,14 @@ public class ArticleCommentServiceImpl implements ArticleCommentService {
                     
                     // 设置点赞状态
                     processedReply.put("liked", likedCommentIds.contains(replyId));
+                    processedReply.put("likeCount", withPendingLikes(replyId, processedReply.get("likeCount")));
                     
                     // 构建回复的用户信息
                     Map<String, Object> replyUserInfo = new HashMap<>();
                     replyUserInfo.put("nickname", processedReply.remove("nickname"));
                     replyUserInfo.put("userPic", processedReply.remove("userPic"));
                     processedReply.put("userInfo", replyUserInfo);
+                    userInfos.add(replyUserInfo);
                     
                     processedReplies.add(processedReply);
                 }
@@ -221,6 +248,8 @@ public class ArticleCommentServiceImpl implements ArticleCommentService {
             commentList.add(comment);
         }
         
+        imagePipeline.useThumbnails(userInfos, info -> (String) info.get("userPic"), (info, url) -> info.put("userPic", url));
+        
         // 构建返回结果
         HashMap<String, Object> result = new HashMap<>();
         result.put("list", commentList);
@@ -228,4 +257,16 @@ public class ArticleCommentServiceImpl implements ArticleCommentService {
         
         return result;
     }
-}
\ No newline at end of file
+
+    /**
+     * 评论点赞数加上CommentLikeCounter中还没写入数据库的变化量
+     */
+    private Object withPendingLikes(Integer commentId, Object likeCount) {
+        long pending = commentId == null ? 0 : commentLikeCounter.pending(commentId);
+        if (pending == 0) {
+            return likeCount;
+        }
+        long stored = likeCount instanceof Number number ? number.longValue() : 0;
+        return (int) (stored + pending);
+    }
+}
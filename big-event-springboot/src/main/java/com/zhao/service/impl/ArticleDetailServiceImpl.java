@@ -0,0 +1,219 @@
+package com.zhao.service.impl;
+
+import com.zhao.mapper.ArticleCollectMapper;
+import com.zhao.mapper.ArticleLikeMapper;
+import com.zhao.mapper.ArticleMapper;
+import com.zhao.pojo.Article;
+import com.zhao.pojo.ArticleCollect;
+import com.zhao.pojo.ArticleDetailAggregateVO;
+import com.zhao.pojo.ArticleDetailVO;
+import com.zhao.pojo.ArticleLike;
+import com.zhao.pojo.AuthorVO;
+import com.zhao.pojo.CategoryVO;
+import com.zhao.pojo.UserProfile;
+import com.zhao.cache.FollowGraphCache;
+import com.zhao.cache.UserProfileCache;
+import com.zhao.service.ArticleCommentService;
+import com.zhao.service.ArticleDetailService;
+import com.zhao.service.CategoryService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 文章详情页聚合查询
+ * 文章、点赞状态、收藏状态、第一页评论、分类列表同时在detailExecutor中查询，作者信息和关注状态在文章查到后查询；
+ * 调用方可以只要其中几个部分，没要的部分不查询；
+ * 除文章外每个部分有各自的超时时间，超时、出错或线程池已满被拒绝的部分返回null并记录在missing中，不影响其他部分
+ */
+@Service
+@Slf4j
+public class ArticleDetailServiceImpl implements ArticleDetailService {
+
+    @Autowired
+    private ArticleMapper articleMapper;
+
+    @Autowired
+    private UserProfileCache userProfileCache;
+
+    @Autowired
+    private ArticleLikeMapper articleLikeMapper;
+
+    @Autowired
+    private ArticleCollectMapper articleCollectMapper;
+
+    @Autowired
+    private ArticleCommentService articleCommentService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private FollowGraphCache followGraphCache;
+
+    @Autowired
+    @Qualifier("detailExecutor")
+    private TaskExecutor detailExecutor;
+
+    // 文章本身的超时时间，超时则整个请求失败
+    @Value("${article.detail.article-timeout:2000}")
+    private long articleTimeoutMillis;
+
+    // 其他部分的超时时间，超时则该部分缺失
+    @Value("${article.detail.branch-timeout:800}")
+    private long branchTimeoutMillis;
+
+    // 超时或出错时的占位值，与查询结果null区分开
+    private static final Object MISSING = new Object();
+    // 第一页评论的默认条数和上限
+    private static final int DEFAULT_COMMENT_PAGE_SIZE = 10;
+    private static final int MAX_COMMENT_PAGE_SIZE = 50;
+
+    @Override
+    public CompletableFuture<ArticleDetailAggregateVO> getDetailAggregate(Integer articleId, Integer userId, Integer commentPageSize) {
+        return getArticlePage(articleId, userId, commentPageSize, DETAIL_SECTIONS);
+    }
+
+    @Override
+    public CompletableFuture<ArticleDetailAggregateVO> getArticlePage(Integer articleId, Integer userId, Integer commentPageSize,
+                                                                      Set<String> sections) {
+        int pageSize = commentPageSize == null || commentPageSize < 1
+                ? DEFAULT_COMMENT_PAGE_SIZE : Math.min(commentPageSize, MAX_COMMENT_PAGE_SIZE);
+
+        // 1. 同时发起不互相依赖的查询
+        CompletableFuture<Article> articleFuture;
+        try {
+            articleFuture = CompletableFuture
+                    .supplyAsync(() -> articleMapper.findById(articleId), detailExecutor)
+                    .orTimeout(articleTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            log.warn("文章详情线程池已满，拒绝查询文章{}", articleId);
+            return CompletableFuture.failedFuture(new RuntimeException("系统繁忙，请稍后重试"));
+        }
+        CompletableFuture<Object> likedFuture = branch("liked", sections, articleId, () -> {
+            if (userId == null) {
+                return false;
+            }
+            ArticleLike like = articleLikeMapper.findByArticleIdAndUserId(articleId, userId);
+            return like != null && like.getIsDeleted() == 0;
+        });
+        CompletableFuture<Object> collectedFuture = branch("collected", sections, articleId, () -> {
+            if (userId == null) {
+                return false;
+            }
+            ArticleCollect collect = articleCollectMapper.findByArticleIdAndUserId(articleId, userId);
+            return collect != null && collect.getIsDeleted() == 0;
+        });
+        CompletableFuture<Object> commentsFuture = branch("comments", sections, articleId,
+                () -> articleCommentService.getArticleComments(articleId, 1, pageSize, userId));
+        CompletableFuture<Object> categoriesFuture = branch("categories", sections, articleId,
+                () -> categoryService.getCategoryList(userId));
+
+        // 2. 作者信息和关注状态依赖文章的create_user，文章查到后再查
+        CompletableFuture<Object> authorFuture = articleFuture.thenCompose(article -> {
+            if (article == null || article.getCreateUser() == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return branch("author", sections, articleId, () -> toAuthor(userProfileCache.get(article.getCreateUser())));
+        });
+        CompletableFuture<Object> followingFuture = articleFuture.thenCompose(article -> {
+            if (article == null || article.getCreateUser() == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return branch("following", sections, articleId, () -> userId != null && !userId.equals(article.getCreateUser())
+                    && followGraphCache.isFollowing(userId, article.getCreateUser()));
+        });
+
+        // 3. 汇总，文章不存在时整个请求失败，其他部分缺失时记录下来
+        return articleFuture.thenCompose(article -> {
+            if (article == null) {
+                throw new RuntimeException("文章不存在");
+            }
+            return CompletableFuture.allOf(likedFuture, collectedFuture, commentsFuture, categoriesFuture,
+                    authorFuture, followingFuture).thenApply(v -> {
+                ArticleDetailAggregateVO result = new ArticleDetailAggregateVO();
+                result.setArticle(toDetail(article));
+                result.setAuthor((AuthorVO) take(authorFuture, "author", result.getMissing()));
+                result.setLiked((Boolean) take(likedFuture, "liked", result.getMissing()));
+                result.setCollected((Boolean) take(collectedFuture, "collected", result.getMissing()));
+                @SuppressWarnings("unchecked")
+                HashMap<String, Object> comments = (HashMap<String, Object>) take(commentsFuture, "comments", result.getMissing());
+                result.setComments(comments);
+                @SuppressWarnings("unchecked")
+                List<CategoryVO> categories = (List<CategoryVO>) take(categoriesFuture, "categories", result.getMissing());
+                result.setCategories(categories);
+                result.setFollowing((Boolean) take(followingFuture, "following", result.getMissing()));
+                // 文章详情中的作者名和点赞收藏状态与单独的字段保持一致
+                if (result.getAuthor() != null) {
+                    result.getArticle().setAuthor(result.getAuthor().getUsername());
+                }
+                result.getArticle().setLiked(Boolean.TRUE.equals(result.getLiked()));
+                result.getArticle().setCollected(Boolean.TRUE.equals(result.getCollected()));
+                return result;
+            });
+        });
+    }
+
+    /**
+     * 在线程池中执行一个可缺失的查询，超时、出错或被线程池拒绝时结果为MISSING；调用方没要这个部分时直接返回null，不查询
+     */
+    private CompletableFuture<Object> branch(String name, Set<String> sections, Integer articleId, Supplier<Object> query) {
+        if (!sections.contains(name)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Object> future;
+        try {
+            future = CompletableFuture.supplyAsync(query, detailExecutor);
+        } catch (RejectedExecutionException e) {
+            log.warn("文章详情线程池已满，文章{}的{}部分缺失", articleId, name);
+            return CompletableFuture.completedFuture(MISSING);
+        }
+        return future
+                .completeOnTimeout(MISSING, branchTimeoutMillis, TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    log.warn("文章{}详情的{}部分查询失败: {}", articleId, name, e.getMessage());
+                    return MISSING;
+                });
+    }
+
+    private static Object take(CompletableFuture<Object> future, String name, List<String> missing) {
+        Object value = future.join();
+        if (value == MISSING) {
+            missing.add(name);
+            return null;
+        }
+        return value;
+    }
+
+    private static ArticleDetailVO toDetail(Article article) {
+        ArticleDetailVO detail = new ArticleDetailVO();
+        BeanUtils.copyProperties(article, detail);
+        detail.setLikeCount(article.getLikeCount() != null ? article.getLikeCount() : 0);
+        detail.setCollectCount(article.getCollectCount() != null ? article.getCollectCount() : 0);
+        return detail;
+    }
+
+    private static AuthorVO toAuthor(UserProfile user) {
+        if (user == null) {
+            return null;
+        }
+        AuthorVO author = new AuthorVO();
+        author.setId(user.getId());
+        author.setUsername(user.getUsername());
+        author.setNickname(user.getNickname());
+        author.setUserPic(user.getUserPic());
+        return author;
+    }
+}
@@ -1,16 +1,16 @@
 package com.zhao.service.impl;
 
-import com.zhao.mapper.ArticleLikeMapper;
 import com.zhao.mapper.ArticleMapper;
 import com.zhao.pojo.Article;
-import com.zhao.pojo.ArticleLike;
+import com.zhao.pojo.InteractionResult;
+import com.zhao.pojo.InteractionType;
 import com.zhao.service.ArticleLikeService;
+import com.zhao.service.InteractionService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -19,7 +19,7 @@ import java.util.Map;
 public class ArticleLikeServiceImpl implements ArticleLikeService {
     
     @Autowired
-    private ArticleLikeMapper articleLikeMapper;
+    private InteractionService interactionService;
     
     @Autowired
     private ArticleMapper articleMapper;
@@ -38,46 +38,13 @@ public class ArticleLikeServiceImpl implements ArticleLikeService {
             throw new RuntimeException("只能点赞已发布的文章");
         }
         
-        // 2. 查询用户是否已点赞
-        ArticleLike existingLike = articleLikeMapper.findByArticleIdAndUserId(articleId, userId);
+        // 2. 切换点赞状态，计数随实际发生的变化增减
+        InteractionResult toggled = interactionService.toggle(InteractionType.ARTICLE_LIKE, userId, articleId, null);
         
-        boolean liked = false;
-        
-        if (existingLike == null) {
-            // 未点赞，创建新的点赞记录
-            ArticleLike newLike = new ArticleLike();
-            newLike.setArticleId(articleId);
-            newLike.setUserId(userId);
-            newLike.setCreateTime(LocalDateTime.now());
-            newLike.setIsDeleted(0);
-            articleLikeMapper.insert(newLike);
-            // 增加文章点赞数
-            articleMapper.incrementLikeCount(articleId);
-            liked = true;
-        } else {
-            if (existingLike.getIsDeleted() == 0) {
-                // 已点赞，取消点赞（逻辑删除）
-                articleLikeMapper.deleteByArticleIdAndUserId(articleId, userId);
-                // 减少文章点赞数
-                articleMapper.decrementLikeCount(articleId);
-                liked = false;
-            } else {
-                // 已取消点赞，恢复点赞
-                articleLikeMapper.restoreByArticleIdAndUserId(articleId, userId);
-                // 增加文章点赞数
-                articleMapper.incrementLikeCount(articleId);
-                liked = true;
-            }
-        }
-        
-        // 3. 获取最新的点赞数
-        Article updatedArticle = articleMapper.findById(articleId);
-        Integer likeCount = updatedArticle.getLikeCount() != null ? updatedArticle.getLikeCount() : 0;
-        
-        // 4. 返回结果
+        // 3. 返回结果
         Map<String, Object> result = new HashMap<>();
-        result.put("liked", liked);
-        result.put("likeCount", likeCount);
+        result.put("liked", toggled.getActive());
+        result.put("likeCount", toggled.getCount());
         
         return result;
     }
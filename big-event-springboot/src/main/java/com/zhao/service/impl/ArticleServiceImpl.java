@@ -2,6 +2,11 @@ package com.zhao.service.impl;
 
 import com.github.pagehelper.Page;
 import com.github.pagehelper.PageHelper;
+import com.zhao.event.ArticleCreatedEvent;
+import com.zhao.event.ArticleDeletedEvent;
+import com.zhao.event.ArticlePublishedEvent;
+import com.zhao.event.ArticleUnpublishedEvent;
+import com.zhao.event.ArticleUpdatedEvent;
 import com.zhao.mapper.ArticleMapper;
 import com.zhao.mapper.ArticleLikeMapper;
 import com.zhao.mapper.ArticleCollectMapper;
@@ -10,15 +15,21 @@ import com.zhao.pojo.ArticleDetailVO;
 import com.zhao.pojo.ArticleHomeVO;
 import com.zhao.pojo.ArticleLike;
 import com.zhao.pojo.ArticleCollect;
+import com.zhao.pojo.CursorPage;
 import com.zhao.pojo.PageBean;
 import com.zhao.service.ArticleService;
+import com.zhao.storage.ImagePipeline;
+import com.zhao.utils.CursorUtil;
 import com.zhao.utils.UserContextUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 
 import org.springframework.util.StringUtils;
 
@@ -34,10 +45,17 @@ public class ArticleServiceImpl implements ArticleService {
     
     @Autowired
     private ArticleCollectMapper articleCollectMapper;
+    
+    @Autowired
+    private ImagePipeline imagePipeline;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     // private static final String PUBLISHED_STATE = "已发布";
 
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public void add(Article article) {
         //补充属性值
         article.setCreateTime(LocalDateTime.now());
@@ -45,6 +63,11 @@ public class ArticleServiceImpl implements ArticleService {
         Integer userId = UserContextUtil.getCurrentUserId();
         article.setCreateUser(userId);
         articleMapper.add(article);
+        //事件与文章在同一个事务中写入发件箱，分类文章数、粉丝的关注时间线在提交后更新
+        eventPublisher.publishEvent(new ArticleCreatedEvent(article.getId(), article.getCategoryId(), userId));
+        if ("已发布".equals(article.getState())) {
+            eventPublisher.publishEvent(new ArticlePublishedEvent(article.getId(), userId, article.getCreateTime()));
+        }
     }
 
     @Override
@@ -71,14 +94,40 @@ public class ArticleServiceImpl implements ArticleService {
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public void update(Article article) {
+        Article old = articleMapper.findById(article.getId());
         article.setUpdateTime(LocalDateTime.now());
         articleMapper.update(article);
+        if (old == null) {
+            return;
+        }
+        //修改了分类时调整两个分类的文章数
+        if (!Objects.equals(old.getCategoryId(), article.getCategoryId())) {
+            eventPublisher.publishEvent(new ArticleUpdatedEvent(old.getId(), old.getCategoryId(), article.getCategoryId()));
+        }
+        //草稿变为已发布时推送到关注时间线，已发布撤回为草稿时从时间线移除
+        boolean wasPublished = "已发布".equals(old.getState());
+        boolean isPublished = "已发布".equals(article.getState());
+        if (!wasPublished && isPublished) {
+            eventPublisher.publishEvent(new ArticlePublishedEvent(old.getId(), old.getCreateUser(), old.getCreateTime()));
+        } else if (wasPublished && !isPublished) {
+            eventPublisher.publishEvent(new ArticleUnpublishedEvent(old.getId(), old.getCreateUser()));
+        }
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public void delete(Integer id) {
+        Article old = articleMapper.findById(id);
         articleMapper.delete(id);
+        if (old == null) {
+            return;
+        }
+        eventPublisher.publishEvent(new ArticleDeletedEvent(old.getId(), old.getCategoryId(), old.getCreateUser()));
+        if ("已发布".equals(old.getState())) {
+            eventPublisher.publishEvent(new ArticleUnpublishedEvent(old.getId(), old.getCreateUser()));
+        }
     }
 
     /**
@@ -126,6 +175,8 @@ public class ArticleServiceImpl implements ArticleService {
             // 调用Mapper方法，传入排序方式、文章状态(只查已发布的)、起始位置、每页条数
             List<ArticleHomeVO> articleList = articleMapper.selectHomeArticles(
                     sort, "已发布", offset, pageSize);
+            // 封面换成缩略图
+            imagePipeline.useThumbnails(articleList);
             // 这个数字用于前端显示总页数
             Long total = articleMapper.countHomeArticles("已发布");
             // 把查询到的文章列表、总条数、当前页码、每页大小打包返回
@@ -163,6 +214,7 @@ public class ArticleServiceImpl implements ArticleService {
             
             // 调用Mapper查询搜索结果
             List<ArticleHomeVO> articleList = articleMapper.searchArticles(keyword, "已发布", offset, pageSize);
+            imagePipeline.useThumbnails(articleList);
             
             // 查询匹配的总条数
             Long total = articleMapper.countSearchArticles(keyword, "已发布");
@@ -193,7 +245,7 @@ public class ArticleServiceImpl implements ArticleService {
             List<Article> articleList = articleMapper.getUserArticles(userId, state, offset, pageSize);
             
             // 查询用户文章总数
-            Long total = articleMapper.countUserArticles(userId, state);
+            Long total = articleMapper.countUserArticles(userId, null, state);
             
             // 返回分页结果
             return new PageBean<>(articleList, total, page, pageSize);
@@ -203,6 +255,29 @@ public class ArticleServiceImpl implements ArticleService {
         }
     }
     
+    @Override
+    public CursorPage<Article> getUserArticlesByCursor(String cursor, Integer pageSize, Integer categoryId,
+                                                       String state, boolean withTotal) {
+        // 参数校验和规范化
+        pageSize = (pageSize == null || pageSize < 1) ? 10 : pageSize;
+        pageSize = Math.min(pageSize, 50); // 限制最大页大小
+
+        // 解析游标，第一页游标为空
+        CursorUtil.Cursor c = CursorUtil.decode(cursor);
+
+        // 获取当前用户ID
+        Integer userId = UserContextUtil.getCurrentUserId();
+
+        // 多查一条，用来判断是否还有下一页
+        List<Article> rows = articleMapper.getUserArticlesByCursor(userId, categoryId, state,
+                c == null ? null : c.createTime(), c == null ? null : c.id(), pageSize + 1);
+
+        // 总数需要额外一次COUNT，只有前端明确需要时才查
+        Long total = withTotal ? articleMapper.countUserArticles(userId, categoryId, state) : null;
+
+        return CursorPage.of(rows, pageSize, a -> CursorUtil.encode(a.getCreateTime(), a.getId()), total);
+    }
+
     @Override
     public ArticleDetailVO getArticleDetail(Integer id) {
         try {
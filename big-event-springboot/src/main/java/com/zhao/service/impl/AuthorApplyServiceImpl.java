@@ -1,13 +1,18 @@
 package com.zhao.service.impl;
 
+import com.zhao.cache.UserProfileCache;
+import com.zhao.event.UserProfileChangedEvent;
 import com.zhao.mapper.AuthorApplyMapper;
 import com.zhao.mapper.UserMapper;
 import com.zhao.pojo.AuthorApply;
-import com.zhao.pojo.User;
+import com.zhao.pojo.CursorPage;
+import com.zhao.pojo.UserProfile;
 import com.zhao.pojo.dto.AuthorApplyDTO;
 import com.zhao.service.AuthorApplyService;
+import com.zhao.utils.CursorUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,6 +33,12 @@ public class AuthorApplyServiceImpl implements AuthorApplyService {
     
     @Autowired
     private UserMapper userMapper;
+
+    @Autowired
+    private UserProfileCache userProfileCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
     
     @Override
     @Transactional(rollbackFor = Exception.class)
@@ -44,7 +55,7 @@ public class AuthorApplyServiceImpl implements AuthorApplyService {
         
         // 2. 检查用户是否存在
         Integer userId = apply.getUserId();
-        User user = userMapper.findById(userId);
+        UserProfile user = userProfileCache.get(userId);
         if (user == null) {
             throw new RuntimeException("用户不存在");
         }
@@ -67,6 +78,7 @@ public class AuthorApplyServiceImpl implements AuthorApplyService {
         // 6. 如果是通过，更新用户角色为作者
         if (status == 1) {
             userMapper.updateRole(userId, 1);
+            eventPublisher.publishEvent(new UserProfileChangedEvent(userId));
             log.info("管理员{}通过了用户{}的作者申请", adminId, userId);
         } else {
             log.info("管理员{}拒绝了用户{}的作者申请，原因：{}", adminId, userId, rejectReason);
@@ -83,7 +95,7 @@ public class AuthorApplyServiceImpl implements AuthorApplyService {
         }
         
         // 2. 检查用户是否存在
-        User user = userMapper.findById(authorApply.getUserId());
+        UserProfile user = userProfileCache.get(authorApply.getUserId());
         if (user == null) {
             throw new RuntimeException("用户不存在");
         }
@@ -139,13 +151,7 @@ public class AuthorApplyServiceImpl implements AuthorApplyService {
         List<AuthorApplyDTO> applyList = authorApplyMapper.getAuthorApplyList(status, start, pageSize);
         
         // 4. 对身份证号进行脱敏处理
-        for (AuthorApplyDTO apply : applyList) {
-            apply.setIdCard(maskIdCard(apply.getIdCard()));
-            // 对真实姓名进行脱敏处理，只显示姓
-            if (apply.getRealName() != null && apply.getRealName().length() > 1) {
-                apply.setRealName(apply.getRealName().charAt(0) + "*");
-            }
-        }
+        maskApplyList(applyList);
         
         // 5. 查询总数
         Integer total = authorApplyMapper.getAuthorApplyCount(status);
@@ -158,6 +164,41 @@ public class AuthorApplyServiceImpl implements AuthorApplyService {
         return result;
     }
     
+    @Override
+    public CursorPage<AuthorApplyDTO> getAuthorApplyListByCursor(String cursor, Integer pageSize, Integer status, boolean withTotal) {
+        // 1. 参数校验和默认值处理
+        if (pageSize == null || pageSize < 1 || pageSize > 100) {
+            pageSize = 10;
+        }
+        
+        // 2. 解析游标，第一页游标为空
+        CursorUtil.Cursor c = CursorUtil.decode(cursor);
+        
+        // 3. 多查一条，用来判断是否还有下一页
+        List<AuthorApplyDTO> rows = authorApplyMapper.getAuthorApplyListByCursor(status,
+                c == null ? null : c.createTime(), c == null ? null : c.id(), pageSize + 1);
+        CursorPage<AuthorApplyDTO> result = CursorPage.of(rows, pageSize,
+                a -> CursorUtil.encode(a.getCreateTime(), a.getId()),
+                withTotal ? authorApplyMapper.getAuthorApplyCount(status).longValue() : null);
+        
+        // 4. 对身份证号和真实姓名进行脱敏处理
+        maskApplyList(result.getList());
+        return result;
+    }
+    
+    /**
+     * 对申请列表中的身份证号和真实姓名进行脱敏
+     */
+    private void maskApplyList(List<AuthorApplyDTO> applyList) {
+        for (AuthorApplyDTO apply : applyList) {
+            apply.setIdCard(maskIdCard(apply.getIdCard()));
+            // 对真实姓名进行脱敏处理，只显示姓
+            if (apply.getRealName() != null && apply.getRealName().length() > 1) {
+                apply.setRealName(apply.getRealName().charAt(0) + "*");
+            }
+        }
+    }
+    
     /**
      * 加密身份证号（简单加密示例）
      */
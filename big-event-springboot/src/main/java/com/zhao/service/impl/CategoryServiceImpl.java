@@ -1,17 +1,19 @@
 package com.zhao.service.impl;
 
+import com.zhao.cache.CategoryCache;
+import com.zhao.context.UserContextHolder;
+import com.zhao.event.CategoryChangedEvent;
 import com.zhao.mapper.CategoryMapper;
 import com.zhao.pojo.Category;
 import com.zhao.pojo.CategoryVO;
 import com.zhao.service.CategoryService;
-import com.zhao.utils.ThreadLocalUtil;
-import com.zhao.utils.UserContextUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 
 
 @Service
@@ -20,22 +22,26 @@ public class CategoryServiceImpl implements CategoryService {
     @Autowired
     private CategoryMapper categoryMapper;
 
+    @Autowired
+    private CategoryCache categoryCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Override
     public void add(Category category) {
         category.setCreateTime(LocalDateTime.now());
         category.setUpdateTime(LocalDateTime.now());
         //补充属性值
-        Map<String, Object> map = ThreadLocalUtil.get();
-        Integer userId = (Integer) map.get("id");
+        Integer userId = UserContextHolder.currentUserId();
         category.setCreateUser(userId);
         categoryMapper.add(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(userId));
     }
 
     @Override
     public List<Category> list() {
-        Map<String,Object> map = ThreadLocalUtil.get();
-        Integer userId = (Integer) map.get("id");
-        return categoryMapper.list(userId);
+        return categoryMapper.list(UserContextHolder.currentUserId());
     }
 
     @Override
@@ -46,13 +52,21 @@ public class CategoryServiceImpl implements CategoryService {
 
     @Override
     public void update(Category category) {
+        Category old = categoryMapper.findById(category.getId());
         category.setUpdateTime(LocalDateTime.now());
         categoryMapper.update(category);
+        if (old != null) {
+            eventPublisher.publishEvent(new CategoryChangedEvent(old.getCreateUser()));
+        }
     }
 
     @Override
     public void delete(Integer id) {
+        Category old = categoryMapper.findById(id);
         categoryMapper.delete(id);
+        if (old != null) {
+            eventPublisher.publishEvent(new CategoryChangedEvent(old.getCreateUser()));
+        }
     }
 
 
@@ -60,12 +74,12 @@ public class CategoryServiceImpl implements CategoryService {
 
     @Override
     public List<CategoryVO> getCategoryList(Integer userId) {
-        // 查询所有分类及文章数量
-        List<CategoryVO> allCategories = categoryMapper.findAllWithArticleCount();
+        // 查询所有分类及文章数量（走缓存，文章数在增删文章时原地加减）
+        List<CategoryVO> allCategories = categoryCache.getCategories();
 
         if (userId != null) {
-            // 如果有用户ID，查询该用户创建的分类ID列表
-            List<Integer> userCategoryIds = categoryMapper.findUserCategoryIds(userId);
+            // 如果有用户ID，查询该用户创建的分类ID集合
+            Set<Integer> userCategoryIds = categoryCache.getUserCategoryIds(userId);
 
             // 标记哪些分类是当前用户创建的
             for (CategoryVO category : allCategories) {
@@ -1,9 +1,9 @@
 package com.zhao.service.impl;
+import com.zhao.mail.MailDispatcher;
+import com.zhao.verify.VerificationCodeStore;
+import com.zhao.verify.VerifyResult;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
 import java.util.Random;
@@ -14,16 +14,17 @@ import java.util.concurrent.TimeUnit;
  * 邮箱验证服务类
  * 这个类专门负责处理邮箱验证码的发送和验证工作
  * 包括：生成验证码、发送邮件、存储验证码到Redis、验证用户输入的验证码
+ * 邮件由MailDispatcher在后台发送，接口不等待SMTP握手
  */
 @Service // 告诉Spring这是一个服务类，会被自动扫描并创建实例
-
+@Slf4j
 public class EmailVerifyService {
 
-    @Autowired // 让Spring自动注入邮件发送器，我们不需要自己创建
-    private JavaMailSender mailSender;
+    @Autowired // 邮件发送队列，邮件放进队列后由后台线程批量发送
+    private MailDispatcher mailDispatcher;
 
-    @Autowired // 让Spring自动注入Redis操作模板，用于操作Redis数据库
-    private RedisTemplate<String, Object> redisTemplate;
+    @Autowired // 验证码存储，与短信验证码共用
+    private VerificationCodeStore codeStore;
 
     // 验证码有效期5分钟（数字5表示5个单位）
     private static final long EXPIRY_TIME = 5;
@@ -35,9 +36,8 @@ public class EmailVerifyService {
     private static final String FORGET_PREFIX = "forget:"; // 找回密码验证码的前缀
     private static final String UPDATE_PWD_PREFIX = "update_pwd:";// 更新密码验证码的前缀
 
-    // 从配置文件中读取发件人邮箱地址
-    @Value("${spring.mail.username}")
-    private String fromEmail;
+    // 发送频率限制的key前缀，同一邮箱1分钟内只能发送一次
+    private static final String EMAIL_RATE_LIMIT_PREFIX = "email:rate:limit:";
 
     /**
      * 生成6位数字验证码
@@ -52,29 +52,31 @@ public class EmailVerifyService {
      * 发送验证码到指定邮箱
      * @param email 目标邮箱地址，验证码会发送到这个邮箱
      * @param type 验证码类型：register-用于注册, forget-用于找回密码, update_pwd-用于修改密码
-     * @return true-发送成功, false-发送失败
+     * @return true-已放入发送队列, false-发送过于频繁或放入队列失败
      */
     public boolean sendVerifyCode(String email, String type) {
         try {
-            // 1. 生成6位随机验证码
-            String code = generateCode();
-            // 2. 构建Redis存储的key（根据类型和邮箱区分）
+            // 1. 构建Redis存储的key（根据类型和邮箱区分），类型不支持时会抛出异常
             String redisKey = buildRedisKey(email, type);
 
-            // 3. 将验证码存储到Redis中，设置5分钟自动过期
-            //    这样即使我们忘记删除，Redis也会自动清理过期数据
-            redisTemplate.opsForValue().set(redisKey, code, EXPIRY_TIME, EXPIRY_UNIT);
-
-            // 4. 准备邮件内容
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail); // 设置发件人（从配置文件读取）
-            message.setTo(email); // 设置收件人
-            message.setSubject(getEmailSubject(type)); // 设置邮件主题
-            message.setText(getEmailContent(code, type)); // 设置邮件正文
+            // 2. 生成6位随机验证码
+            String code = generateCode();
 
-            // 5. 发送邮件
-            mailSender.send(message);
-            return true; // 发送成功
+            // 3. 存储验证码，设置5分钟自动过期；同一邮箱1分钟内只能发送一次（检查频率和存储是一个原子操作）
+            String rateLimitKey = EMAIL_RATE_LIMIT_PREFIX + email;
+            if (!codeStore.issue(redisKey, rateLimitKey, code, EXPIRY_UNIT.toSeconds(EXPIRY_TIME), 60)) {
+                log.warn("邮箱 {} 发送验证码过于频繁", email);
+                return false;
+            }
+
+            // 4. 放入发送队列后立即返回，由后台线程发送邮件
+            if (mailDispatcher.enqueue(email, getEmailSubject(type), getEmailContent(code, type))) {
+                return true;
+            }
+
+            // 队列已满或Redis不可用，作废验证码并清除频率限制，用户可以马上重试
+            codeStore.revoke(redisKey, rateLimitKey);
+            return false;
         } catch (Exception e) {
             e.printStackTrace(); // 打印错误信息（实际项目中应该用日志记录）
             return false; // 发送失败
@@ -89,24 +91,17 @@ public class EmailVerifyService {
      * @return true-验证成功, false-验证失败
      */
     public boolean verifyCode(String email, String code, String type) {
+        if (code == null) {
+            return false;
+        }
         // 1. 构建Redis key（与发送验证码时用的key相同）
         String redisKey = buildRedisKey(email, type);
-        // 2. 从Redis中获取之前存储的验证码
-        String storedCode = (String) redisTemplate.opsForValue().get(redisKey);
-
-        // 3. 检查验证码是否存在（可能已过期或被删除）
-        if (storedCode == null) {
-            return false; // 验证码不存在或已过期
-        }
-
-        // 4. 比较用户输入的验证码和Redis中存储的是否一致
-        if (storedCode.equals(code)) {
-            // 验证成功，删除Redis中的验证码
-            redisTemplate.delete(redisKey);
-            return true;
+        // 2. 校验验证码，成功后验证码作废；错误次数过多时验证码也会作废，需要重新获取
+        VerifyResult result = codeStore.verify(redisKey, code);
+        if (result == VerifyResult.TOO_MANY_ATTEMPTS) {
+            log.warn("邮箱 {} 验证码错误次数过多，验证码已作废", email);
         }
-        // 验证码不匹配
-        return false;
+        return result == VerifyResult.SUCCESS;
     }
 
     /**
@@ -0,0 +1,166 @@
+package com.zhao.service.impl;
+
+import com.zhao.exception.FileValidationException;
+import com.zhao.service.FileUploadService;
+import com.zhao.storage.FileStorage;
+import com.zhao.storage.FileTypeDetector;
+import com.zhao.storage.ImagePipeline;
+import com.zhao.storage.SizeLimitInputStream;
+import com.zhao.storage.TempFileSpooler;
+import com.zhao.storage.UploadDigestIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+@Service
+@Slf4j
+public class FileUploadServiceImpl implements FileUploadService {
+
+    @Autowired
+    private FileStorage fileStorage;
+
+    @Autowired
+    private ImagePipeline imagePipeline;
+
+    @Autowired
+    private UploadDigestIndex uploadDigestIndex;
+
+    @Autowired
+    @Qualifier("uploadExecutor")
+    private TaskExecutor uploadExecutor;
+
+    // 流式上传的文件大小上限，与multipart上传的10MB保持一致
+    @Value("${upload.stream.max-size:10485760}")
+    private long maxSize;
+
+    @Override
+    public CompletableFuture<String> uploadAsync(MultipartFile file) {
+        Path temp;
+        String digest;
+        try {
+            // 请求结束后multipart的临时文件会被清理，先转存到自己的临时文件，转存的同时计算SHA-256
+            MessageDigest md = UploadDigestIndex.newDigest();
+            try (InputStream in = new DigestInputStream(file.getInputStream(), md)) {
+                temp = TempFileSpooler.spool(in);
+            }
+            digest = UploadDigestIndex.toHex(md);
+        } catch (IOException e) {
+            log.error("保存上传文件失败: ", e);
+            return CompletableFuture.failedFuture(new RuntimeException("文件上传失败"));
+        }
+
+        // 相同内容已经上传过，直接返回已有的文件
+        String existing = uploadDigestIndex.find(digest);
+        if (existing != null) {
+            deleteQuietly(temp);
+            return CompletableFuture.completedFuture(existing);
+        }
+
+        // 以内容摘要作为文件名，同一内容并发上传时写入的是同一个文件
+        String fileName = digest + getExtension(file.getOriginalFilename());
+        return CompletableFuture.supplyAsync(() -> {
+            boolean handedOver = false;
+            try {
+                String url = fileStorage.upload(fileName, temp);
+                uploadDigestIndex.record(digest, url);
+                // jpg、png图片交给图片流水线生成缩略图，临时文件由流水线负责删除
+                if (isResizable(temp)) {
+                    imagePipeline.submit(fileName, url, temp);
+                    handedOver = true;
+                }
+                return url;
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            } finally {
+                if (!handedOver) {
+                    deleteQuietly(temp);
+                }
+            }
+        }, uploadExecutor);
+    }
+
+    @Override
+    public String uploadStream(InputStream in, long contentLength, String contentType) throws IOException {
+        // 1. 声明的大小超限时直接拒绝，不读取请求体
+        if (contentLength > maxSize) {
+            throw new FileValidationException("文件大小不能超过" + (maxSize / 1024 / 1024) + "MB");
+        }
+
+        // 2. 读取文件头判断类型，再推回流中，后面的读取不受影响
+        // 推回的字节不会再经过DigestInputStream，摘要只计算一次
+        SizeLimitInputStream limited = new SizeLimitInputStream(in, maxSize);
+        MessageDigest md = UploadDigestIndex.newDigest();
+        PushbackInputStream body = new PushbackInputStream(new DigestInputStream(limited, md), FileTypeDetector.HEADER_SIZE);
+        byte[] header = body.readNBytes(FileTypeDetector.HEADER_SIZE);
+        String ext = FileTypeDetector.detectExtension(header, header.length);
+        if (ext == null) {
+            throw new FileValidationException("只支持上传jpg、png、gif、webp格式的图片");
+        }
+        // 客户端声明了具体的图片类型时，必须与实际内容一致
+        if (contentType != null && contentType.startsWith("image/")
+                && !contentType.startsWith(FileTypeDetector.contentTypeOf(ext))) {
+            throw new FileValidationException("文件内容与Content-Type不一致");
+        }
+        body.unread(header);
+
+        // 3. 先写入临时文件（不占内存），写完就知道摘要，重复的文件不再上传；
+        //    直接转发到存储时要传完才知道摘要，重复的内容每次都会再存一份
+        Path temp = TempFileSpooler.spool(body);
+        try {
+            String digest = UploadDigestIndex.toHex(md);
+            String existing = uploadDigestIndex.find(digest);
+            if (existing != null) {
+                return existing;
+            }
+            String url = fileStorage.upload(digest + ext, temp);
+            uploadDigestIndex.record(digest, url);
+            return url;
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
+
+    /**
+     * 根据文件头判断是否是可以生成缩略图的图片（动图不处理）
+     */
+    private static boolean isResizable(Path file) throws IOException {
+        byte[] header;
+        try (InputStream in = Files.newInputStream(file)) {
+            header = in.readNBytes(FileTypeDetector.HEADER_SIZE);
+        }
+        String ext = FileTypeDetector.detectExtension(header, header.length);
+        return ".jpg".equals(ext) || ".png".equals(ext);
+    }
+
+    /**
+     * 安全地处理文件扩展名，确保即使没有扩展名也不会出错
+     */
+    private static String getExtension(String originalFilename) {
+        if (originalFilename != null && originalFilename.lastIndexOf('.') > 0) {
+            return originalFilename.substring(originalFilename.lastIndexOf('.'));
+        }
+        return "";
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("删除临时文件失败: {}", path);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.zhao.service.impl;
+
+import com.zhao.counter.CommentLikeCounter;
+import com.zhao.event.LikeToggledEvent;
+import com.zhao.mapper.InteractionMapper;
+import com.zhao.pojo.InteractionAction;
+import com.zhao.pojo.InteractionResult;
+import com.zhao.pojo.InteractionType;
+import com.zhao.service.InteractionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 批量互动
+ * 离线或移动端攒下的一批操作一次提交：按类型分组，每种类型先用一条查询取出当前状态，
+ * 再用多行INSERT、批量UPDATE和一条CASE UPDATE写入记录和计数，整批在一个事务中完成。
+ * 操作表示期望的最终状态，重复提交同一批操作结果不变；无效的目标单独返回错误，不影响其他操作。
+ * 单个目标的点赞、收藏、关注也在这里执行（toggle），依赖各记录表上(用户, 目标)的唯一索引
+ */
+@Service
+@Slf4j
+public class InteractionServiceImpl implements InteractionService {
+
+    @Autowired
+    private InteractionMapper interactionMapper;
+
+    @Autowired
+    private CommentLikeCounter commentLikeCounter;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // 单次最多提交的操作数
+    private static final int MAX_ACTIONS = 100;
+    private static final String PUBLISHED_STATE = "已发布";
+    private static final String CONFLICT_MESSAGE = "操作冲突，请重试";
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public InteractionResult toggle(InteractionType type, Integer userId, Integer targetId, Boolean active) {
+        // 1. 每一步都是一条原子语句，计数的变化量取自受影响的行数：
+        //    并发的重复点击只有一个请求真正改变状态，其余请求影响0行，计数不会多加或多减
+        boolean state;
+        int delta;
+        if (Boolean.TRUE.equals(active)) {
+            state = true;
+            delta = interactionMapper.activate(type, userId, targetId, LocalDateTime.now()) > 0 ? 1 : 0;
+        } else if (Boolean.FALSE.equals(active)) {
+            state = false;
+            delta = -interactionMapper.deactivate(type, userId, targetId);
+        } else if (interactionMapper.deactivate(type, userId, targetId) > 0) {
+            // 切换：有效的记录取消掉
+            state = false;
+            delta = -1;
+        } else {
+            // 切换：没有可取消的记录，点赞/收藏/关注
+            state = true;
+            delta = interactionMapper.activate(type, userId, targetId, LocalDateTime.now()) > 0 ? 1 : 0;
+        }
+
+        // 2. 修改计数并返回最新值
+        InteractionResult result = new InteractionResult();
+        result.setType(type);
+        result.setTargetId(targetId);
+        result.setActive(state);
+        result.setChanged(delta != 0);
+        if (type == InteractionType.COMMENT_LIKE) {
+            // 评论点赞数先在内存中累加，定时批量写入，热门评论的点赞不用排队等同一行的行锁
+            long pending = commentLikeCounter.pending(targetId);
+            commentLikeCounter.add(targetId, delta);
+            Integer stored = interactionMapper.findCount(type, targetId);
+            result.setCount((int) ((stored == null ? 0 : stored) + pending + delta));
+        } else if (type.getCountTable() != null) {
+            if (delta != 0) {
+                interactionMapper.updateCount(type, targetId, delta);
+            }
+            result.setCount(interactionMapper.findCount(type, targetId));
+        }
+        if (delta != 0) {
+            eventPublisher.publishEvent(new LikeToggledEvent(type, userId, targetId, state));
+        }
+        return result;
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<InteractionResult> applyBatch(Integer userId, List<InteractionAction> actions) {
+        // 1. 参数校验
+        if (actions == null || actions.isEmpty()) {
+            throw new RuntimeException("操作列表不能为空");
+        }
+        if (actions.size() > MAX_ACTIONS) {
+            throw new RuntimeException("单次最多提交" + MAX_ACTIONS + "个操作");
+        }
+
+        // 2. 按类型、目标分组，同一目标的多次操作保持提交顺序
+        Map<InteractionType, Map<Integer, List<Boolean>>> grouped = new EnumMap<>(InteractionType.class);
+        Map<String, InteractionResult> results = new LinkedHashMap<>();
+        for (InteractionAction action : actions) {
+            if (action == null || action.getType() == null || action.getTargetId() == null) {
+                throw new RuntimeException("操作类型和目标ID不能为空");
+            }
+            grouped.computeIfAbsent(action.getType(), t -> new LinkedHashMap<>())
+                    .computeIfAbsent(action.getTargetId(), id -> new ArrayList<>())
+                    .add(action.getActive());
+            results.computeIfAbsent(action.getType() + ":" + action.getTargetId(), k -> {
+                InteractionResult result = new InteractionResult();
+                result.setType(action.getType());
+                result.setTargetId(action.getTargetId());
+                return result;
+            });
+        }
+
+        // 3. 每种类型批量执行
+        LocalDateTime now = LocalDateTime.now();
+        grouped.forEach((type, targets) -> apply(userId, type, targets, results, now));
+        return new ArrayList<>(results.values());
+    }
+
+    private void apply(Integer userId, InteractionType type, Map<Integer, List<Boolean>> targets,
+                       Map<String, InteractionResult> results, LocalDateTime now) {
+        // 1. 过滤掉不存在或不允许操作的目标
+        Set<Integer> valid = new HashSet<>(findValidTargets(userId, type, targets.keySet()));
+        for (Integer targetId : targets.keySet()) {
+            if (!valid.contains(targetId)) {
+                results.get(type + ":" + targetId).setError(invalidMessage(userId, type, targetId));
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        // 2. 一次查出当前状态，计算每个目标的最终状态
+        Set<Integer> existing = new HashSet<>(interactionMapper.findExistingTargetIds(type, userId, valid));
+        Set<Integer> active = new HashSet<>(interactionMapper.findActiveTargetIds(type, userId, valid));
+        List<Integer> toInsert = new ArrayList<>();
+        List<Integer> toRestore = new ArrayList<>();
+        List<Integer> toDelete = new ArrayList<>();
+        Map<Integer, Boolean> finalStates = new LinkedHashMap<>();
+        for (Map.Entry<Integer, List<Boolean>> entry : targets.entrySet()) {
+            Integer targetId = entry.getKey();
+            if (!valid.contains(targetId)) {
+                continue;
+            }
+            boolean current = active.contains(targetId);
+            boolean target = current;
+            for (Boolean desired : entry.getValue()) {
+                target = desired == null ? !target : desired;
+            }
+            finalStates.put(targetId, target);
+            if (target == current) {
+                continue;
+            }
+            if (!target) {
+                toDelete.add(targetId);
+            } else if (existing.contains(targetId)) {
+                toRestore.add(targetId);
+            } else {
+                toInsert.add(targetId);
+            }
+        }
+
+        // 3. 批量写入记录；受影响的行数与预期不符说明读取状态之后有并发请求改了同一批记录，
+        //    整批回滚由客户端重试（操作是期望状态，重试是安全的），保证计数与记录一致
+        if (!toInsert.isEmpty() && interactionMapper.batchInsert(type, userId, toInsert, now) != toInsert.size()) {
+            throw new RuntimeException(CONFLICT_MESSAGE);
+        }
+        if (!toRestore.isEmpty() && interactionMapper.batchUpdateDeleted(type, userId, toRestore, 0) != toRestore.size()) {
+            throw new RuntimeException(CONFLICT_MESSAGE);
+        }
+        if (!toDelete.isEmpty() && interactionMapper.batchUpdateDeleted(type, userId, toDelete, 1) != toDelete.size()) {
+            throw new RuntimeException(CONFLICT_MESSAGE);
+        }
+
+        // 4. 一条UPDATE修改所有目标的计数
+        Map<Integer, Integer> deltas = new LinkedHashMap<>();
+        toInsert.forEach(id -> deltas.put(id, 1));
+        toRestore.forEach(id -> deltas.put(id, 1));
+        toDelete.forEach(id -> deltas.put(id, -1));
+        //    评论点赞数在内存中累加，由CommentLikeCounter定时写入
+        Map<Integer, Long> pending = new HashMap<>();
+        if (type == InteractionType.COMMENT_LIKE) {
+            finalStates.keySet().forEach(id -> pending.put(id, commentLikeCounter.pending(id) + deltas.getOrDefault(id, 0)));
+            deltas.forEach(commentLikeCounter::add);
+        } else if (type.getCountTable() != null && !deltas.isEmpty()) {
+            interactionMapper.batchUpdateCounts(type, deltas);
+        }
+
+        // 5. 填充最终状态和最新计数
+        Map<Integer, Integer> counts = new HashMap<>();
+        if (type.getCountTable() != null) {
+            for (InteractionResult row : interactionMapper.findCounts(type, finalStates.keySet())) {
+                counts.put(row.getTargetId(), (int) (row.getCount() + pending.getOrDefault(row.getTargetId(), 0L)));
+            }
+        }
+        finalStates.forEach((targetId, state) -> {
+            InteractionResult result = results.get(type + ":" + targetId);
+            result.setActive(state);
+            result.setChanged(deltas.containsKey(targetId));
+            result.setCount(counts.get(targetId));
+        });
+        // 6. 状态变化的目标发布事件，关注相关缓存由监听器在事务提交后更新
+        deltas.forEach((targetId, delta) -> eventPublisher.publishEvent(new LikeToggledEvent(type, userId, targetId, delta > 0)));
+    }
+
+    private List<Integer> findValidTargets(Integer userId, InteractionType type, Set<Integer> targetIds) {
+        return switch (type) {
+            case ARTICLE_LIKE, ARTICLE_COLLECT -> interactionMapper.findArticleIdsByState(targetIds, PUBLISHED_STATE);
+            case COMMENT_LIKE -> interactionMapper.findActiveCommentIds(targetIds);
+            case FOLLOW -> interactionMapper.findUserIds(targetIds).stream()
+                    .filter(id -> !id.equals(userId))
+                    .toList();
+        };
+    }
+
+    private static String invalidMessage(Integer userId, InteractionType type, Integer targetId) {
+        return switch (type) {
+            case ARTICLE_LIKE, ARTICLE_COLLECT -> "文章不存在或未发布";
+            case COMMENT_LIKE -> "评论不存在或已被删除";
+            case FOLLOW -> targetId.equals(userId) ? "不能关注自己" : "被关注用户不存在";
+        };
+    }
+}
@@ -0,0 +1,254 @@
+package com.zhao.service.impl;
+
+import com.zhao.cache.FollowGraphCache;
+import com.zhao.mapper.ArticleMapper;
+import com.zhao.mapper.UserFollowMapper;
+import com.zhao.pojo.Article;
+import com.zhao.pojo.ArticleHomeVO;
+import com.zhao.pojo.CursorPage;
+import com.zhao.service.TimelineService;
+import com.zhao.storage.ImagePipeline;
+import com.zhao.utils.CursorUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@Service
+@Slf4j
+public class TimelineServiceImpl implements TimelineService {
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private ArticleMapper articleMapper;
+
+    @Autowired
+    private UserFollowMapper userFollowMapper;
+
+    @Autowired
+    private FollowGraphCache followGraphCache;
+
+    @Autowired
+    private ImagePipeline imagePipeline;
+
+    // 粉丝数达到该值的作者不推送，由粉丝读取时拉取
+    @Value("${timeline.big-author-threshold:5000}")
+    private int bigAuthorThreshold;
+
+    private static final String PUBLISHED_STATE = "已发布";
+    // 收件箱：用户关注的作者发布的文章ID，score为文章创建时间的毫秒数
+    private static final String INBOX_PREFIX = "timeline:inbox:";
+    // 发件箱：作者自己发布的文章ID
+    private static final String OUTBOX_PREFIX = "timeline:outbox:";
+    // 大V作者ID集合
+    private static final String BIG_AUTHORS_KEY = "timeline:big-authors";
+    // 占位成员，保证没有内容的收件箱/发件箱也算已加载（文章ID从1开始，不会冲突）
+    private static final String PLACEHOLDER = "0";
+
+    private static final int INBOX_MAX_SIZE = 500;
+    private static final int OUTBOX_MAX_SIZE = 200;
+    // 每次推送的粉丝数，一批粉丝只需要一次Redis往返
+    private static final int FAN_OUT_BATCH_SIZE = 500;
+    private static final long INBOX_EXPIRE_DAYS = 7;
+    private static final long OUTBOX_EXPIRE_DAYS = 30;
+
+    // 只推送到已存在的收件箱，不活跃用户的收件箱过期后不再占用内存，下次读取时重建
+    private static final DefaultRedisScript<Long> FAN_OUT_SCRIPT = new DefaultRedisScript<>(
+            "local n = 0 " +
+            "for i, key in ipairs(KEYS) do " +
+            "  if redis.call('exists', key) == 1 then " +
+            "    redis.call('zadd', key, ARGV[2], ARGV[1]) " +
+            "    redis.call('zremrangebyrank', key, 0, -tonumber(ARGV[3]) - 1) " +
+            "    n = n + 1 " +
+            "  end " +
+            "end " +
+            "return n",
+            Long.class);
+
+    @Override
+    public void fanOut(Article article) {
+        Integer authorId = article.getCreateUser();
+        String member = String.valueOf(article.getId());
+        double score = toScore(article.getCreateTime());
+
+        // 1. 写入作者发件箱
+        ensureOutbox(authorId);
+        stringRedisTemplate.opsForZSet().add(OUTBOX_PREFIX + authorId, member, score);
+        stringRedisTemplate.opsForZSet().removeRange(OUTBOX_PREFIX + authorId, 0, -OUTBOX_MAX_SIZE - 1);
+
+        // 2. 大V不推送，记录下来由粉丝读取时拉取
+        Long followerCount = userFollowMapper.countFollowers(authorId);
+        if (followerCount != null && followerCount >= bigAuthorThreshold) {
+            stringRedisTemplate.opsForSet().add(BIG_AUTHORS_KEY, String.valueOf(authorId));
+            return;
+        }
+        stringRedisTemplate.opsForSet().remove(BIG_AUTHORS_KEY, String.valueOf(authorId));
+
+        // 3. 普通作者分批推送到粉丝收件箱
+        List<Integer> followerIds = userFollowMapper.findFollowerIds(authorId);
+        for (int from = 0; from < followerIds.size(); from += FAN_OUT_BATCH_SIZE) {
+            List<String> keys = followerIds.subList(from, Math.min(from + FAN_OUT_BATCH_SIZE, followerIds.size()))
+                    .stream().map(id -> INBOX_PREFIX + id).toList();
+            stringRedisTemplate.execute(FAN_OUT_SCRIPT, keys, member, String.valueOf((long) score), String.valueOf(INBOX_MAX_SIZE));
+        }
+    }
+
+    @Override
+    public void retract(Article article) {
+        stringRedisTemplate.opsForZSet().remove(OUTBOX_PREFIX + article.getCreateUser(), String.valueOf(article.getId()));
+    }
+
+    @Override
+    public void onFollowChanged(Integer userId) {
+        try {
+            stringRedisTemplate.delete(INBOX_PREFIX + userId);
+        } catch (Exception e) {
+            log.warn("清除时间线收件箱失败: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public CursorPage<ArticleHomeVO> getTimeline(Integer userId, String cursor, Integer pageSize) {
+        try {
+            // 参数校验和规范化
+            pageSize = (pageSize == null || pageSize < 1) ? 10 : Math.min(pageSize, 50);
+            CursorUtil.Cursor c = CursorUtil.decode(cursor);
+            double maxScore = c == null ? Double.POSITIVE_INFINITY : toScore(c.createTime());
+            // 同一时间可能有多篇文章，多取一些用于过滤游标之前的记录
+            int fetch = pageSize * 2 + 1;
+
+            // 1. 从收件箱读取（推模式）
+            Set<Integer> followingIds = followGraphCache.getFollowingIds(userId);
+            ensureInbox(userId, followingIds);
+            Map<Integer, Double> entries = new HashMap<>();
+            collect(entries, INBOX_PREFIX + userId, maxScore, fetch);
+
+            // 2. 从关注的大V发件箱读取（拉模式）
+            for (Integer authorId : findBigAuthors(followingIds)) {
+                ensureOutbox(authorId);
+                collect(entries, OUTBOX_PREFIX + authorId, maxScore, fetch);
+            }
+
+            // 3. 合并，按(时间, ID)倒序，跳过游标及之前的记录
+            List<Map.Entry<Integer, Double>> merged = entries.entrySet().stream()
+                    .filter(e -> c == null || e.getValue() < maxScore
+                            || (e.getValue() == maxScore && e.getKey() < c.id()))
+                    .sorted(Map.Entry.<Integer, Double>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.<Integer, Double>comparingByKey().reversed()))
+                    .limit(pageSize + 1)
+                    .toList();
+            boolean hasMore = merged.size() > pageSize;
+            List<Map.Entry<Integer, Double>> page = hasMore ? merged.subList(0, pageSize) : merged;
+
+            // 4. 回填文章内容，已删除或撤回发布的文章直接跳过
+            List<ArticleHomeVO> list = new ArrayList<>();
+            if (!page.isEmpty()) {
+                Map<Integer, ArticleHomeVO> articles = new HashMap<>();
+                for (ArticleHomeVO vo : articleMapper.findHomeVOByIds(page.stream().map(Map.Entry::getKey).toList(), PUBLISHED_STATE)) {
+                    articles.put(vo.getId(), vo);
+                }
+                for (Map.Entry<Integer, Double> e : page) {
+                    if (articles.containsKey(e.getKey())) {
+                        list.add(articles.get(e.getKey()));
+                    }
+                }
+                imagePipeline.useThumbnails(list);
+            }
+
+            String nextCursor = null;
+            if (hasMore) {
+                Map.Entry<Integer, Double> last = page.get(page.size() - 1);
+                nextCursor = CursorUtil.encode(toTime(last.getValue()), last.getKey());
+            }
+            return new CursorPage<>(list, nextCursor, hasMore, pageSize, null);
+        } catch (RuntimeException e) {
+            log.error("获取关注时间线失败: ", e);
+            throw new RuntimeException("获取时间线失败");
+        }
+    }
+
+    /**
+     * 从收件箱或发件箱中按时间倒序读取不晚于maxScore的记录
+     */
+    private void collect(Map<Integer, Double> entries, String key, double maxScore, int count) {
+        Set<ZSetOperations.TypedTuple<String>> tuples = stringRedisTemplate.opsForZSet()
+                .reverseRangeByScoreWithScores(key, 1, maxScore, 0, count);
+        if (tuples == null) {
+            return;
+        }
+        for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+            entries.put(Integer.valueOf(tuple.getValue()), tuple.getScore());
+        }
+    }
+
+    /**
+     * 筛选出关注列表中的大V
+     */
+    private List<Integer> findBigAuthors(Set<Integer> followingIds) {
+        if (followingIds.isEmpty()) {
+            return List.of();
+        }
+        List<Integer> ids = new ArrayList<>(followingIds);
+        Map<Object, Boolean> hits = stringRedisTemplate.opsForSet()
+                .isMember(BIG_AUTHORS_KEY, ids.stream().map(String::valueOf).toArray());
+        return ids.stream().filter(id -> hits != null && Boolean.TRUE.equals(hits.get(String.valueOf(id)))).toList();
+    }
+
+    /**
+     * 收件箱不存在时（新用户、过期、关注关系变化）从数据库重建
+     */
+    private void ensureInbox(Integer userId, Set<Integer> followingIds) {
+        String key = INBOX_PREFIX + userId;
+        if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(key))) {
+            return;
+        }
+        List<Article> recent = followingIds.isEmpty() ? List.of()
+                : articleMapper.findRecentByAuthors(new ArrayList<>(followingIds), PUBLISHED_STATE, INBOX_MAX_SIZE);
+        load(key, recent, INBOX_EXPIRE_DAYS);
+    }
+
+    /**
+     * 发件箱不存在时从数据库加载作者最近发布的文章
+     */
+    private void ensureOutbox(Integer authorId) {
+        String key = OUTBOX_PREFIX + authorId;
+        if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(key))) {
+            return;
+        }
+        load(key, articleMapper.findRecentByAuthors(List.of(authorId), PUBLISHED_STATE, OUTBOX_MAX_SIZE), OUTBOX_EXPIRE_DAYS);
+    }
+
+    private void load(String key, List<Article> articles, long expireDays) {
+        Set<ZSetOperations.TypedTuple<String>> tuples = new HashSet<>();
+        tuples.add(ZSetOperations.TypedTuple.of(PLACEHOLDER, 0d));
+        for (Article article : articles) {
+            tuples.add(ZSetOperations.TypedTuple.of(String.valueOf(article.getId()), toScore(article.getCreateTime())));
+        }
+        stringRedisTemplate.opsForZSet().add(key, tuples);
+        stringRedisTemplate.expire(key, expireDays, TimeUnit.DAYS);
+    }
+
+    private static double toScore(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toTime(double score) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli((long) score), ZoneId.systemDefault());
+    }
+}
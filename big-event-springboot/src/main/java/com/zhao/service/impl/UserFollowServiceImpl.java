@@ -1,19 +1,34 @@
 package com.zhao.service.impl;
 
+import com.zhao.cache.FollowGraphCache;
 import com.zhao.mapper.UserFollowMapper;
-import com.zhao.pojo.UserFollow;
+import com.zhao.pojo.CursorPage;
+import com.zhao.pojo.FollowUserVO;
+import com.zhao.pojo.InteractionResult;
+import com.zhao.pojo.InteractionType;
+import com.zhao.service.InteractionService;
+import com.zhao.service.TimelineService;
 import com.zhao.service.UserFollowService;
+import com.zhao.storage.ImagePipeline;
+import com.zhao.utils.CursorUtil;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 @Service
+@Slf4j
 public class UserFollowServiceImpl implements UserFollowService {
     
     @Autowired
@@ -22,6 +37,41 @@ public class UserFollowServiceImpl implements UserFollowService {
     @Autowired
     private JdbcTemplate jdbcTemplate;
     
+    @Autowired
+    private InteractionService interactionService;
+    
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+    
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    
+    @Autowired
+    private FollowGraphCache followGraphCache;
+    
+    @Autowired
+    private TimelineService timelineService;
+    
+    @Autowired
+    private ImagePipeline imagePipeline;
+    
+    // 关注数、粉丝数缓存的key前缀
+    private static final String FOLLOWING_COUNT_PREFIX = "follow:count:following:";
+    private static final String FOLLOWERS_COUNT_PREFIX = "follow:count:followers:";
+    // 关注列表、粉丝列表第一页缓存的key前缀
+    private static final String FOLLOWING_FIRST_PAGE_PREFIX = "follow:first:following:";
+    private static final String FOLLOWERS_FIRST_PAGE_PREFIX = "follow:first:followers:";
+    
+    // 只缓存默认页大小的第一页，其他页大小直接查库
+    private static final int FIRST_PAGE_SIZE = 20;
+    private static final long COUNT_EXPIRE_MINUTES = 30;
+    private static final long FIRST_PAGE_EXPIRE_MINUTES = 5;
+    
+    // 计数缓存存在时才增减，不存在时不创建，避免缓存过期后被写成一个错误的小数字
+    private static final DefaultRedisScript<Long> INCR_IF_EXISTS_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[1]) == 1 then return redis.call('incrby', KEYS[1], ARGV[1]) end return nil",
+            Long.class);
+    
     @Override
     @Transactional(rollbackFor = Exception.class)
     public Map<String, Boolean> toggleFollow(Integer followerId, Integer followedId) {
@@ -36,38 +86,35 @@ public class UserFollowServiceImpl implements UserFollowService {
             throw new RuntimeException("被关注用户不存在");
         }
         
-        // 3. 查询是否已关注
-        UserFollow existingFollow = userFollowMapper.findByFollowerIdAndFollowedId(followerId, followedId);
-        
-        boolean following = false;
+        // 3. 切换关注状态
+        InteractionResult toggled = interactionService.toggle(InteractionType.FOLLOW, followerId, followedId, null);
+        boolean following = toggled.getActive();
         
-        if (existingFollow == null) {
-            // 4. 未关注，创建新的关注记录
-            UserFollow newFollow = new UserFollow();
-            newFollow.setFollowerId(followerId);
-            newFollow.setFollowedId(followedId);
-            newFollow.setCreateTime(LocalDateTime.now());
-            newFollow.setIsDeleted(0);
-            userFollowMapper.insert(newFollow);
-            following = true;
-        } else {
-            if (existingFollow.getIsDeleted() == 0) {
-                // 5. 已关注，取消关注（逻辑删除）
-                userFollowMapper.deleteByFollowerIdAndFollowedId(followerId, followedId);
-                following = false;
-            } else {
-                // 6. 已取消关注，恢复关注
-                userFollowMapper.restoreByFollowerIdAndFollowedId(followerId, followedId);
-                following = true;
-            }
-        }
-        
-        // 7. 返回关注状态
+        // 4. 返回关注状态，关注相关的缓存由CacheEventListener在事务提交后更新
         Map<String, Boolean> result = new HashMap<>();
         result.put("following", following);
         return result;
     }
     
+    @Override
+    public void onFollowsChanged(Integer followerId, Map<Integer, Boolean> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        changes.forEach((followedId, following) -> {
+            // 更新关注数、粉丝数缓存，并让双方列表的第一页缓存失效
+            refreshFollowCache(followerId, followedId, following ? 1 : -1);
+            // 同步关注关系邻接表缓存
+            if (following) {
+                followGraphCache.onFollow(followerId, followedId);
+            } else {
+                followGraphCache.onUnfollow(followerId, followedId);
+            }
+        });
+        // 关注的作者变了，关注者的时间线收件箱需要重建
+        timelineService.onFollowChanged(followerId);
+    }
+    
     @Override
     public List<Map<String, Object>> getFollowingList(Integer followerId) {
         // 获取用户关注列表
@@ -79,4 +126,134 @@ public class UserFollowServiceImpl implements UserFollowService {
         // 获取用户粉丝列表
         return userFollowMapper.findFollowersList(followedId);
     }
-}
\ No newline at end of file
+    
+    @Override
+    public CursorPage<FollowUserVO> getFollowingPage(Integer followerId, String cursor, Integer pageSize) {
+        CursorPage<FollowUserVO> page = loadPage(FOLLOWING_FIRST_PAGE_PREFIX + followerId, cursor, pageSize,
+                (c, limit) -> userFollowMapper.findFollowingPage(followerId,
+                        c == null ? null : c.createTime(), c == null ? null : c.id(), limit));
+        page.setTotal(getFollowCounts(followerId).get("followingCount"));
+        imagePipeline.useThumbnails(page.getList(), FollowUserVO::getUserPic, FollowUserVO::setUserPic);
+        return page;
+    }
+    
+    @Override
+    public CursorPage<FollowUserVO> getFollowersPage(Integer followedId, String cursor, Integer pageSize) {
+        CursorPage<FollowUserVO> page = loadPage(FOLLOWERS_FIRST_PAGE_PREFIX + followedId, cursor, pageSize,
+                (c, limit) -> userFollowMapper.findFollowersPage(followedId,
+                        c == null ? null : c.createTime(), c == null ? null : c.id(), limit));
+        page.setTotal(getFollowCounts(followedId).get("followersCount"));
+        imagePipeline.useThumbnails(page.getList(), FollowUserVO::getUserPic, FollowUserVO::setUserPic);
+        return page;
+    }
+    
+    @Override
+    public Map<String, Long> getFollowCounts(Integer userId) {
+        Map<String, Long> result = new HashMap<>();
+        result.put("followingCount", getCachedCount(FOLLOWING_COUNT_PREFIX + userId,
+                () -> userFollowMapper.countFollowing(userId)));
+        result.put("followersCount", getCachedCount(FOLLOWERS_COUNT_PREFIX + userId,
+                () -> userFollowMapper.countFollowers(userId)));
+        return result;
+    }
+    
+    @Override
+    public Map<Integer, Map<String, Boolean>> getFollowStates(Integer userId, List<Integer> targetIds) {
+        // 去重并限制单次查询数量
+        List<Integer> ids = targetIds.stream().filter(id -> id != null).distinct().limit(200).toList();
+        Map<Integer, Boolean> following = followGraphCache.isFollowing(userId, ids);
+        Map<Integer, Boolean> followedBy = followGraphCache.isFollowedBy(userId, ids);
+        
+        Map<Integer, Map<String, Boolean>> result = new LinkedHashMap<>();
+        for (Integer id : ids) {
+            Map<String, Boolean> state = new HashMap<>();
+            state.put("following", following.get(id));
+            state.put("followedBy", followedBy.get(id));
+            state.put("mutual", following.get(id) && followedBy.get(id));
+            result.put(id, state);
+        }
+        return result;
+    }
+    
+    /**
+     * 按游标查询一页关注记录，默认页大小的第一页走缓存
+     */
+    @SuppressWarnings("unchecked")
+    private CursorPage<FollowUserVO> loadPage(String firstPageKey, String cursor, Integer pageSize, PageQuery query) {
+        // 参数校验和规范化
+        pageSize = (pageSize == null || pageSize < 1) ? FIRST_PAGE_SIZE : Math.min(pageSize, 100);
+        CursorUtil.Cursor c = CursorUtil.decode(cursor);
+        boolean cacheable = c == null && pageSize == FIRST_PAGE_SIZE;
+        
+        if (cacheable) {
+            try {
+                Object cached = redisTemplate.opsForValue().get(firstPageKey);
+                if (cached != null) {
+                    return (CursorPage<FollowUserVO>) cached;
+                }
+            } catch (Exception e) {
+                log.warn("读取关注列表缓存失败: {}", e.getMessage());
+            }
+        }
+        
+        // 多查一条，用来判断是否还有下一页
+        List<FollowUserVO> rows = query.find(c, pageSize + 1);
+        CursorPage<FollowUserVO> page = CursorPage.of(rows, pageSize,
+                f -> CursorUtil.encode(f.getFollowTime(), f.getId()), null);
+        
+        if (cacheable) {
+            try {
+                redisTemplate.opsForValue().set(firstPageKey, page, FIRST_PAGE_EXPIRE_MINUTES, TimeUnit.MINUTES);
+            } catch (Exception e) {
+                log.warn("写入关注列表缓存失败: {}", e.getMessage());
+            }
+        }
+        return page;
+    }
+    
+    /**
+     * 读取缓存的计数，缓存不存在时查库并回填
+     */
+    private Long getCachedCount(String key, Supplier<Long> loader) {
+        try {
+            String cached = stringRedisTemplate.opsForValue().get(key);
+            if (cached != null) {
+                return Long.parseLong(cached);
+            }
+        } catch (Exception e) {
+            log.warn("读取关注计数缓存失败: {}", e.getMessage());
+        }
+        Long count = loader.get();
+        try {
+            stringRedisTemplate.opsForValue().set(key, String.valueOf(count), COUNT_EXPIRE_MINUTES, TimeUnit.MINUTES);
+        } catch (Exception e) {
+            log.warn("写入关注计数缓存失败: {}", e.getMessage());
+        }
+        return count;
+    }
+    
+    /**
+     * 关注关系变化后刷新缓存
+     * 计数缓存原地增减，不用为了一次关注把大V的粉丝数重新COUNT一遍；第一页缓存直接删除。
+     * 只在事务提交后调用：回滚时计数不会多加或多减，提交前并发读取的请求也不会把旧的第一页重新放回缓存
+     */
+    private void refreshFollowCache(Integer followerId, Integer followedId, int delta) {
+        try {
+            stringRedisTemplate.execute(INCR_IF_EXISTS_SCRIPT, List.of(FOLLOWING_COUNT_PREFIX + followerId), String.valueOf(delta));
+            stringRedisTemplate.execute(INCR_IF_EXISTS_SCRIPT, List.of(FOLLOWERS_COUNT_PREFIX + followedId), String.valueOf(delta));
+            redisTemplate.delete(List.of(FOLLOWING_FIRST_PAGE_PREFIX + followerId, FOLLOWERS_FIRST_PAGE_PREFIX + followedId));
+        } catch (Exception e) {
+            // 缓存更新失败时删除计数，下次读取重新统计
+            log.warn("刷新关注缓存失败: {}", e.getMessage());
+            stringRedisTemplate.delete(List.of(FOLLOWING_COUNT_PREFIX + followerId, FOLLOWERS_COUNT_PREFIX + followedId));
+        }
+    }
+    
+    /**
+     * 按游标查询关注记录的方法
+     */
+    @FunctionalInterface
+    private interface PageQuery {
+        List<FollowUserVO> find(CursorUtil.Cursor cursor, int limit);
+    }
+}
@@ -1,12 +1,19 @@
 package com.zhao.service.impl;
 
+import com.zhao.cache.UserProfileCache;
+import com.zhao.event.UserProfileChangedEvent;
 import com.zhao.mapper.UserMapper;
+import com.zhao.pojo.CursorPage;
 import com.zhao.pojo.User;
+import com.zhao.security.PasswordHasher;
 import com.zhao.service.UserService;
-import com.zhao.utils.PasswordUtil;
+import com.zhao.utils.CursorUtil;
 import com.zhao.utils.ThreadLocalUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -21,6 +28,19 @@ public class UserServiceImpl implements UserService {
     @Autowired
     private UserMapper userMapper;
 
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    @Qualifier("loginExecutor")
+    private TaskExecutor loginExecutor;
+
+    @Autowired
+    private UserProfileCache userProfileCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Override
     public User findByUserName(String username) {
 //        User u = userMapper.findByUserName(username);
@@ -45,15 +65,26 @@ public class UserServiceImpl implements UserService {
     @Override
     public void updatePasswordById(Integer userId, String newPassword) {
         // 密码加密
-        String encryptPassword = PasswordUtil.encryptPassword(newPassword);
+        String encryptPassword = passwordHasher.hash(newPassword);
         // 更新密码
         userMapper.updatePasswordById(encryptPassword, userId);
     }
 
+    @Override
+    public void rehashPassword(Integer userId, String plainPassword, String oldHash) {
+        // 在密码哈希线程池中计算，写库回到登录线程池，登录请求不等待；失败时下次登录会再次尝试
+        passwordHasher.hashAsync(plainPassword)
+                .thenAcceptAsync(hashed -> userMapper.replacePasswordHash(userId, oldHash, hashed), loginExecutor)
+                .exceptionally(e -> {
+                    log.warn("用户{}的密码重新哈希失败: {}", userId, e.getMessage());
+                    return null;
+                });
+    }
+
     @Override
     public void register(String username, String password, String email) {
         //密码加密
-        String encryptPassword = PasswordUtil.encryptPassword(password);
+        String encryptPassword = passwordHasher.hash(password);
         //添加
         userMapper.add(username, encryptPassword, email);
     }
@@ -61,7 +92,7 @@ public class UserServiceImpl implements UserService {
     @Override
     public void registerByPhone(String username, String password, String phone) {
         //密码加密
-        String encryptPassword = PasswordUtil.encryptPassword(password);
+        String encryptPassword = passwordHasher.hash(password);
         //添加
         userMapper.addByPhone(username, encryptPassword, phone);
     }
@@ -70,6 +101,7 @@ public class UserServiceImpl implements UserService {
     public void update(User user) {
         user.setUpdateTime(LocalDateTime.now());
         userMapper.update(user);
+        eventPublisher.publishEvent(new UserProfileChangedEvent(user.getId()));
     }
 
     @Override
@@ -78,13 +110,14 @@ public class UserServiceImpl implements UserService {
         Integer id = (Integer) map.get("id");
         log.info("updateAvatar中使用的id为{}",id);
         userMapper.updateAvatar(avatarUrl, id);
+        eventPublisher.publishEvent(new UserProfileChangedEvent(id));
     }
 
     @Override
     public void updatePwd(String newPwd) {
         Map<String, Object> map = ThreadLocalUtil.get();
         Integer id = (Integer) map.get("id");
-        userMapper.updatePwd(PasswordUtil.encryptPassword(newPwd), id);
+        userMapper.updatePwd(passwordHasher.hash(newPwd), id);
     }
     
     @Override
@@ -94,12 +127,12 @@ public class UserServiceImpl implements UserService {
             throw new RuntimeException("无效的角色值");
         }
         // 检查用户是否存在
-        User user = userMapper.findById(userId);
-        if (user == null) {
+        if (userProfileCache.get(userId) == null) {
             throw new RuntimeException("用户不存在");
         }
         // 更新用户角色
         userMapper.updateRole(userId, role);
+        eventPublisher.publishEvent(new UserProfileChangedEvent(userId));
     }
     
     @Override
@@ -146,4 +179,32 @@ public class UserServiceImpl implements UserService {
         
         return result;
     }
+    
+    @Override
+    public CursorPage<User> getUserListByCursor(String cursor, Integer pageSize, Integer role, String username,
+                                                Integer status, Integer excludeId, boolean withTotal) {
+        // 参数验证和默认值处理
+        if (pageSize == null || pageSize < 1) {
+            pageSize = 10;
+        }
+        // 限制最大分页大小
+        if (pageSize > 100) {
+            pageSize = 100;
+        }
+        
+        // 解析游标，第一页游标为空
+        CursorUtil.Cursor c = CursorUtil.decode(cursor);
+        
+        // 多查一条，用来判断是否还有下一页
+        List<User> rows = userMapper.getUserListByCursor(c == null ? null : c.createTime(), c == null ? null : c.id(),
+                pageSize + 1, role, username, status, excludeId);
+        
+        // 用户表很大时COUNT也很慢，只有需要时才统计总数
+        Long total = null;
+        if (withTotal) {
+            total = userMapper.getUserCount(role, username, status, excludeId).longValue();
+        }
+        
+        return CursorPage.of(rows, pageSize, u -> CursorUtil.encode(u.getCreateTime(), u.getId()), total);
+    }
 }
@@ -0,0 +1,131 @@
+package com.zhao.sms;
+
+import com.zhao.config.VirtualThreadConfig;
+import com.zhao.utils.CircuitBreaker;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 短信异步发送队列
+ * 接口把验证码存好、把发送任务放进队列后就返回，由后台线程调用短信服务商：
+ * - 排队的任务数有上限，满了直接拒绝，不会无限堆积
+ * - 发送失败按指数退避重试，最多重试 sms.dispatch.max-attempts 次
+ * - 短信服务商连续失败时熔断，熔断期间新的发送请求直接失败，不再排队等待
+ */
+@Component
+@Slf4j
+public class SmsDispatcher {
+
+    @Autowired
+    private SmsProvider smsProvider;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${sms.dispatch.threads:2}")
+    private int threads;
+
+    @Value("${sms.dispatch.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${sms.dispatch.max-attempts:3}")
+    private int maxAttempts;
+
+    // 第一次重试前的等待时间，之后每次翻倍
+    @Value("${sms.dispatch.initial-backoff:1000}")
+    private long initialBackoffMillis;
+
+    @Value("${sms.circuit.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${sms.circuit.open-millis:30000}")
+    private long openMillis;
+
+    private ScheduledThreadPoolExecutor executor;
+    private CircuitBreaker circuitBreaker;
+    // 排队中（包括等待重试）的任务数
+    private final AtomicInteger pending = new AtomicInteger();
+
+    @PostConstruct
+    public void init() {
+        executor = new ScheduledThreadPoolExecutor(threads, VirtualThreadConfig.threadFactory(environment, "sms-dispatch"));
+        executor.setRemoveOnCancelPolicy(true);
+        circuitBreaker = new CircuitBreaker("sms", failureThreshold, openMillis);
+    }
+
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 把验证码短信放入发送队列
+     * @param target 目标手机号
+     * @param code 验证码
+     * @param expiryMinutes 有效期（分钟）
+     * @param onGiveUp 重试次数用完仍发送失败时的回调，可为null
+     * @return 是否成功放入队列，队列已满或短信服务熔断时返回false
+     */
+    public boolean enqueue(String target, String code, int expiryMinutes, Runnable onGiveUp) {
+        if (!circuitBreaker.allowRequest()) {
+            log.warn("短信服务熔断中，拒绝发送: {}", target);
+            return false;
+        }
+        if (pending.incrementAndGet() > queueCapacity) {
+            pending.decrementAndGet();
+            log.warn("短信发送队列已满，拒绝发送: {}", target);
+            return false;
+        }
+        executor.execute(() -> attempt(target, code, expiryMinutes, onGiveUp, 1));
+        return true;
+    }
+
+    /**
+     * 短信服务是否处于熔断状态
+     */
+    public boolean isCircuitOpen() {
+        return circuitBreaker.isOpen();
+    }
+
+    private void attempt(String target, String code, int expiryMinutes, Runnable onGiveUp, int attempt) {
+        try {
+            smsProvider.sendCode(target, code, expiryMinutes);
+            circuitBreaker.recordSuccess();
+            pending.decrementAndGet();
+            log.info("已发送短信验证码到 {}", target);
+            return;
+        } catch (Exception e) {
+            circuitBreaker.recordFailure();
+            log.warn("第{}次发送短信到 {} 失败: {}", attempt, target, e.getMessage());
+        }
+
+        if (attempt < maxAttempts && circuitBreaker.allowRequest()) {
+            // 指数退避，加上随机抖动避免大量重试同时打到服务商
+            long backoff = initialBackoffMillis * (1L << (attempt - 1));
+            backoff += ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+            executor.schedule(() -> attempt(target, code, expiryMinutes, onGiveUp, attempt + 1), backoff, TimeUnit.MILLISECONDS);
+            return;
+        }
+
+        pending.decrementAndGet();
+        log.error("短信发送到 {} 失败，已放弃", target);
+        if (onGiveUp != null) {
+            try {
+                onGiveUp.run();
+            } catch (Exception e) {
+                log.error("短信发送失败回调执行异常", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.zhao.sms;
+
+/**
+ * 短信服务商
+ * 通过 sms.provider 选择实现：spug（默认）调用Spug短信接口，stub 只打印日志，用于本地开发和测试
+ */
+public interface SmsProvider {
+
+    /**
+     * 发送验证码短信，失败时抛出异常，由调用方决定是否重试
+     * @param target 目标手机号
+     * @param code 验证码
+     * @param expiryMinutes 有效期（分钟）
+     */
+    void sendCode(String target, String code, int expiryMinutes) throws Exception;
+}
@@ -0,0 +1,79 @@
+package com.zhao.sms;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Spug短信服务
+ * 使用JDK HttpClient作为底层连接，连接在请求之间复用，连接和读取都有超时，
+ * 短信服务变慢时不会无限期地占住发送线程
+ */
+@Component
+@ConditionalOnProperty(name = "sms.provider", havingValue = "spug", matchIfMissing = true)
+@Slf4j
+public class SpugSmsProvider implements SmsProvider {
+
+    private final RestTemplate restTemplate;
+
+    // Spug短信服务配置
+    @Value("${spug.sms.api-url}")
+    private String spugSmsApiUrl;
+
+    @Value("${spug.sms.api-key}")
+    private String spugSmsApiKey;
+
+    public SpugSmsProvider(@Value("${sms.http.connect-timeout:2000}") long connectTimeoutMillis,
+                           @Value("${sms.http.read-timeout:5000}") long readTimeoutMillis) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMillis));
+        this.restTemplate = new RestTemplate(requestFactory);
+    }
+
+    /**
+     * 调用Spug短信服务API发送短信
+     * 根据Spug短信接口要求，使用name、code和time三个参数
+     */
+    @Override
+    public void sendCode(String target, String code, int expiryMinutes) {
+        // 没有配置Spug短信API URL时（开发环境）直接当作发送成功
+        if (spugSmsApiUrl == null || spugSmsApiUrl.isEmpty()) {
+            log.info("未配置短信接口，跳过发送: {}", target);
+            return;
+        }
+
+        // 构建请求参数 - 按照Spug短信接口要求使用name、code、time三个参数
+        Map<String, Object> params = new HashMap<>();
+        params.put("name", "big-event");
+        params.put("code", code); // 验证码
+        params.put("time", expiryMinutes); // 有效期（分钟）
+        params.put("targets", target);
+
+        // 添加API密钥到请求头
+        HttpHeaders httpHeaders = new HttpHeaders();
+        httpHeaders.set("Authorization", "Bearer " + spugSmsApiKey);
+        HttpEntity<Map<String, Object>> requestEntity = new HttpEntity<>(params, httpHeaders);
+
+        ResponseEntity<Map<String, Object>> response = restTemplate.exchange(spugSmsApiUrl, HttpMethod.POST, requestEntity,
+                new ParameterizedTypeReference<Map<String, Object>>() {});
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            throw new RuntimeException("短信接口返回状态码: " + response.getStatusCode());
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.zhao.sms;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 本地短信桩
+ * 不调用任何外部服务，只打印日志并记录每个手机号最近一次收到的验证码
+ */
+@Component
+@ConditionalOnProperty(name = "sms.provider", havingValue = "stub")
+@Slf4j
+public class StubSmsProvider implements SmsProvider {
+
+    private final Map<String, String> lastCodes = new ConcurrentHashMap<>();
+
+    @Override
+    public void sendCode(String target, String code, int expiryMinutes) {
+        log.info("[短信桩] 发送验证码到 {}: {}，有效期{}分钟", target, code, expiryMinutes);
+        lastCodes.put(target, code);
+    }
+
+    /**
+     * 获取手机号最近一次收到的验证码
+     */
+    public String getLastCode(String target) {
+        return lastCodes.get(target);
+    }
+}
@@ -0,0 +1,36 @@
+package com.zhao.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * 文件存储
+ * 默认使用阿里云OSS（storage.type=oss），本地开发或压测时可以切换成本地磁盘（storage.type=local），
+ * 调用方只拿到可访问的URL，不关心文件实际存在哪里
+ */
+public interface FileStorage {
+
+    /**
+     * 上传本地文件，大文件会分片并行上传
+     * @param objectName 存储的文件名
+     * @param file 本地文件
+     * @return 文件访问URL
+     */
+    String upload(String objectName, Path file) throws IOException;
+
+    /**
+     * 上传输入流，流由调用方关闭
+     * @param objectName 存储的文件名
+     * @param in 文件内容
+     * @param contentLength 文件大小，未知时传-1
+     * @return 文件访问URL
+     */
+    String upload(String objectName, InputStream in, long contentLength) throws IOException;
+
+    /**
+     * 文件是否还存在
+     * @param objectName 存储的文件名
+     */
+    boolean exists(String objectName) throws IOException;
+}
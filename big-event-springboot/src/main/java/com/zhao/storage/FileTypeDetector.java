@@ -0,0 +1,64 @@
+package com.zhao.storage;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 根据文件头的魔数判断文件类型
+ * 只看前几个字节，不依赖客户端传来的文件名和Content-Type
+ */
+public class FileTypeDetector {
+
+    // 判断文件类型需要读取的字节数
+    public static final int HEADER_SIZE = 12;
+
+    /**
+     * 判断文件类型
+     * @param header 文件开头的字节
+     * @param length header中有效的字节数
+     * @return 文件扩展名（如.jpg），不支持的类型返回null
+     */
+    public static String detectExtension(byte[] header, int length) {
+        if (startsWith(header, length, 0xFF, 0xD8, 0xFF)) {
+            return ".jpg";
+        }
+        if (startsWith(header, length, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return ".png";
+        }
+        if (length >= 6) {
+            String gif = new String(header, 0, 6, StandardCharsets.US_ASCII);
+            if ("GIF87a".equals(gif) || "GIF89a".equals(gif)) {
+                return ".gif";
+            }
+        }
+        if (length >= 12 && "RIFF".equals(new String(header, 0, 4, StandardCharsets.US_ASCII))
+                && "WEBP".equals(new String(header, 8, 4, StandardCharsets.US_ASCII))) {
+            return ".webp";
+        }
+        return null;
+    }
+
+    /**
+     * 根据扩展名获取对应的Content-Type
+     */
+    public static String contentTypeOf(String extension) {
+        return switch (extension) {
+            case ".jpg" -> "image/jpeg";
+            case ".png" -> "image/png";
+            case ".gif" -> "image/gif";
+            case ".webp" -> "image/webp";
+            default -> "application/octet-stream";
+        };
+    }
+
+    private static boolean startsWith(byte[] header, int length, int... magic) {
+        if (length < magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if ((header[i] & 0xFF) != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
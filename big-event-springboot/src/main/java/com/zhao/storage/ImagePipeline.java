@@ -0,0 +1,238 @@
+package com.zhao.storage;
+
+import com.zhao.pojo.ArticleHomeVO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * 图片处理流水线
+ * 上传完原图后在后台生成JPEG缩略图，和原图放在同一个存储里，
+ * 原图URL -> 缩略图URL 的对应关系记在Redis Hash image:variants 中，文章列表的封面、关注列表和评论列表的头像据此返回缩略图。
+ * 线程池有界，排不上队的图片直接跳过，列表接口继续返回原图
+ */
+@Component
+@Slf4j
+public class ImagePipeline {
+
+    @Autowired
+    private FileStorage fileStorage;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    @Qualifier("imageExecutor")
+    private TaskExecutor imageExecutor;
+
+    private static final String THUMBNAIL_KEY = "image:variants";
+    // 缩略图宽度，列表页封面的展示宽度在这个范围内
+    private static final int THUMBNAIL_WIDTH = 480;
+    // 超过该像素数的图片不处理，避免解码时占用过多内存
+    private static final long MAX_PIXELS = 40_000_000L;
+    private static final float JPEG_QUALITY = 0.8f;
+
+    /**
+     * 提交图片处理任务
+     * 任务接管临时文件，处理完成（或被拒绝）后负责删除
+     * @param objectName 原图的文件名
+     * @param url 原图的访问URL
+     * @param file 原图的本地临时文件
+     */
+    public void submit(String objectName, String url, Path file) {
+        try {
+            imageExecutor.execute(() -> {
+                try {
+                    process(objectName, url, file);
+                } catch (Exception e) {
+                    log.warn("生成缩略图失败, file={}: {}", objectName, e.getMessage());
+                } finally {
+                    deleteQuietly(file);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            log.warn("图片处理队列已满，跳过: {}", objectName);
+            deleteQuietly(file);
+        }
+    }
+
+    /**
+     * 批量查询图片的缩略图
+     * @param urls 原图URL
+     * @return 原图URL -> 缩略图URL，没有缩略图的不包含在结果中
+     */
+    public Map<String, String> findThumbnails(Collection<String> urls) {
+        Map<String, String> result = new HashMap<>();
+        List<Object> fields = new ArrayList<>();
+        for (String url : urls) {
+            if (url != null && !url.isEmpty() && !fields.contains(url)) {
+                fields.add(url);
+            }
+        }
+        if (fields.isEmpty()) {
+            return result;
+        }
+        try {
+            List<Object> thumbnails = stringRedisTemplate.opsForHash().multiGet(THUMBNAIL_KEY, fields);
+            for (int i = 0; i < fields.size(); i++) {
+                if (thumbnails.get(i) != null) {
+                    result.put((String) fields.get(i), (String) thumbnails.get(i));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("读取缩略图缓存失败: {}", e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * 把文章列表的封面替换成缩略图，没有缩略图的保留原图
+     * @param articles 文章列表
+     */
+    public void useThumbnails(List<ArticleHomeVO> articles) {
+        useThumbnails(articles, ArticleHomeVO::getCoverImg, ArticleHomeVO::setCoverImg);
+    }
+
+    /**
+     * 把列表中的图片（封面、头像等）替换成缩略图，没有缩略图的保留原图
+     * @param items 列表
+     * @param getter 读取图片URL
+     * @param setter 写回缩略图URL
+     */
+    public <T> void useThumbnails(List<T> items, Function<T, String> getter, BiConsumer<T, String> setter) {
+        if (items == null || items.isEmpty()) {
+            return;
+        }
+        Map<String, String> thumbnails = findThumbnails(items.stream().map(getter).toList());
+        if (thumbnails.isEmpty()) {
+            return;
+        }
+        for (T item : items) {
+            String thumbnail = thumbnails.get(getter.apply(item));
+            if (thumbnail != null) {
+                setter.accept(item, thumbnail);
+            }
+        }
+    }
+
+    private void process(String objectName, String url, Path file) throws IOException {
+        BufferedImage source = read(file);
+        if (source == null) {
+            return;
+        }
+        BufferedImage thumbnail = resize(source, THUMBNAIL_WIDTH);
+        String baseName = objectName.contains(".") ? objectName.substring(0, objectName.lastIndexOf('.')) : objectName;
+
+        // 统一生成JPEG缩略图
+        Path thumbFile = Files.createTempFile("thumb-", ".jpg");
+        try {
+            writeJpeg(thumbnail, thumbFile);
+            String thumbUrl = fileStorage.upload(baseName + "_thumb.jpg", thumbFile);
+            stringRedisTemplate.opsForHash().put(THUMBNAIL_KEY, url, thumbUrl);
+        } finally {
+            deleteQuietly(thumbFile);
+        }
+    }
+
+    /**
+     * 读取图片，大图按缩略图尺寸隔行采样解码，不把整张原图解码到内存
+     * @return 图片，不支持的格式或尺寸过大时返回null
+     */
+    private BufferedImage read(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file);
+             ImageInputStream iis = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > MAX_PIXELS) {
+                    log.info("图片尺寸过大，跳过生成缩略图: {}x{}", width, height);
+                    return null;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                // 采样后仍保留至少两倍缩略图宽度，再缩放保证清晰度
+                int step = Math.max(1, width / (THUMBNAIL_WIDTH * 2));
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage resize(BufferedImage source, int targetWidth) {
+        if (source.getWidth() <= targetWidth) {
+            targetWidth = source.getWidth();
+        }
+        int targetHeight = Math.max(1, (int) ((long) source.getHeight() * targetWidth / source.getWidth()));
+        // 统一转成RGB，透明背景填充为白色，方便输出JPEG
+        BufferedImage target = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, targetWidth, targetHeight, java.awt.Color.WHITE, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private static void writeJpeg(BufferedImage image, Path file) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(JPEG_QUALITY);
+        write(writer, image, file, param);
+    }
+
+    private static void write(ImageWriter writer, BufferedImage image, Path file, ImageWriteParam param) throws IOException {
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(file.toFile())) {
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("删除临时文件失败: {}", path);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.zhao.storage;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 本地磁盘存储
+ * 文件保存在 storage.local.dir 目录下，通过 storage.local.url-prefix（默认/files/）访问，不依赖云服务，方便本地开发和压测
+ */
+@Component
+@ConditionalOnProperty(name = "storage.type", havingValue = "local")
+@Slf4j
+public class LocalFileStorage implements FileStorage, WebMvcConfigurer {
+
+    @Value("${storage.local.dir:${java.io.tmpdir}/big-event-upload}")
+    private String dir;
+
+    // 返回给前端的URL前缀，同时是本应用提供文件访问的路径，只能是以/开头的路径
+    @Value("${storage.local.url-prefix:/files/}")
+    private String urlPrefix;
+
+    private Path root;
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Paths.get(dir).toAbsolutePath().normalize();
+        urlPrefix = normalizePrefix(urlPrefix);
+        Files.createDirectories(root);
+        log.info("使用本地磁盘存储上传文件: {}", root);
+    }
+
+    @Override
+    public String upload(String objectName, Path file) throws IOException {
+        Path target = resolve(objectName);
+        // 通过FileChannel.transferTo拷贝，数据不经过Java堆
+        try (FileChannel source = FileChannel.open(file, StandardOpenOption.READ);
+             FileChannel dest = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = source.size();
+            long position = 0;
+            while (position < size) {
+                position += source.transferTo(position, size - position, dest);
+            }
+        }
+        return urlPrefix + objectName;
+    }
+
+    @Override
+    public String upload(String objectName, InputStream in, long contentLength) throws IOException {
+        Path target = resolve(objectName);
+        // source不关闭，关闭它会连带关闭调用方的输入流
+        ReadableByteChannel source = Channels.newChannel(in);
+        try (FileChannel dest = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long position = 0;
+            long transferred;
+            // 每次最多转移1MB，直到流读完
+            while ((transferred = dest.transferFrom(source, position, 1024 * 1024)) > 0) {
+                position += transferred;
+            }
+        }
+        return urlPrefix + objectName;
+    }
+
+    @Override
+    public boolean exists(String objectName) {
+        return Files.isRegularFile(resolve(objectName));
+    }
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        registry.addResourceHandler(urlPrefix + "**").addResourceLocations(root.toUri().toString());
+    }
+
+    /**
+     * 文件访问路径的匹配规则，资源映射和登录拦截器的排除路径都用它，保证与返回的URL一致
+     * @param urlPrefix storage.local.url-prefix
+     * @return 比如 /files/**
+     */
+    public static String pathPattern(String urlPrefix) {
+        return normalizePrefix(urlPrefix) + "**";
+    }
+
+    private static String normalizePrefix(String urlPrefix) {
+        if (!urlPrefix.startsWith("/")) {
+            throw new IllegalStateException("storage.local.url-prefix必须是以/开头的路径: " + urlPrefix);
+        }
+        return urlPrefix.endsWith("/") ? urlPrefix : urlPrefix + "/";
+    }
+
+    /**
+     * 防止文件名中带有../写到存储目录之外
+     */
+    private Path resolve(String objectName) {
+        Path target = root.resolve(objectName).normalize();
+        if (!target.startsWith(root)) {
+            throw new RuntimeException("非法的文件名");
+        }
+        return target;
+    }
+}
@@ -0,0 +1,173 @@
+package com.zhao.storage;
+
+import com.aliyun.oss.ClientBuilderConfiguration;
+import com.aliyun.oss.OSS;
+import com.aliyun.oss.OSSClientBuilder;
+import com.aliyun.oss.model.AbortMultipartUploadRequest;
+import com.aliyun.oss.model.CompleteMultipartUploadRequest;
+import com.aliyun.oss.model.InitiateMultipartUploadRequest;
+import com.aliyun.oss.model.ObjectMetadata;
+import com.aliyun.oss.model.PartETag;
+import com.aliyun.oss.model.PutObjectRequest;
+import com.aliyun.oss.model.UploadPartRequest;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * 阿里云OSS存储
+ * OSS客户端内部维护了HTTP连接池，整个应用只创建一个并长期复用，应用关闭时再释放；
+ * 超过分片阈值的文件按分片并行上传，单个分片失败时取消整个分片上传
+ */
+@Component
+@ConditionalOnProperty(name = "storage.type", havingValue = "oss", matchIfMissing = true)
+@Slf4j
+public class OssFileStorage implements FileStorage {
+
+    @Value("${oss.endpoint:https://oss-cn-beijing.aliyuncs.com}")
+    private String endpoint;
+
+    @Value("${oss.access-key-id:aaa}")
+    private String accessKeyId;
+
+    @Value("${oss.access-key-secret:aaa}")
+    private String accessKeySecret;
+
+    @Value("${oss.bucket-name:junioriry}")
+    private String bucketName;
+
+    // 连接池大小，同时进行的上传请求（包括分片）不超过这个数
+    @Value("${oss.max-connections:64}")
+    private int maxConnections;
+
+    // 超过该大小的文件使用分片上传
+    @Value("${oss.multipart-threshold:5242880}")
+    private long multipartThreshold;
+
+    // 分片大小，OSS要求除最后一片外不小于100KB
+    @Value("${oss.part-size:1048576}")
+    private long partSize;
+
+    @Autowired
+    @Qualifier("ossPartExecutor")
+    private TaskExecutor ossPartExecutor;
+
+    private OSS ossClient;
+
+    @PostConstruct
+    public void init() {
+        ClientBuilderConfiguration conf = new ClientBuilderConfiguration();
+        conf.setMaxConnections(maxConnections);
+        conf.setConnectionTimeout(5000);
+        conf.setSocketTimeout(30000);
+        ossClient = new OSSClientBuilder().build(endpoint, accessKeyId, accessKeySecret, conf);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (ossClient != null) {
+            ossClient.shutdown();
+        }
+    }
+
+    @Override
+    public String upload(String objectName, Path file) throws IOException {
+        long size = Files.size(file);
+        if (size <= multipartThreshold) {
+            ossClient.putObject(new PutObjectRequest(bucketName, objectName, file.toFile()));
+        } else {
+            multipartUpload(objectName, file, size);
+        }
+        return buildUrl(objectName);
+    }
+
+    @Override
+    public String upload(String objectName, InputStream in, long contentLength) {
+        ObjectMetadata metadata = new ObjectMetadata();
+        if (contentLength >= 0) {
+            metadata.setContentLength(contentLength);
+        }
+        ossClient.putObject(new PutObjectRequest(bucketName, objectName, in, metadata));
+        return buildUrl(objectName);
+    }
+
+    @Override
+    public boolean exists(String objectName) {
+        return ossClient.doesObjectExist(bucketName, objectName);
+    }
+
+    /**
+     * 分片并行上传
+     * 每个分片各自打开文件、定位到自己的偏移量读取，互不影响
+     */
+    private void multipartUpload(String objectName, Path file, long size) throws IOException {
+        String uploadId = ossClient.initiateMultipartUpload(
+                new InitiateMultipartUploadRequest(bucketName, objectName)).getUploadId();
+        try {
+            List<CompletableFuture<PartETag>> parts = new ArrayList<>();
+            int partNumber = 1;
+            for (long offset = 0; offset < size; offset += partSize) {
+                long length = Math.min(partSize, size - offset);
+                int number = partNumber++;
+                long position = offset;
+                parts.add(CompletableFuture.supplyAsync(() -> uploadPart(objectName, uploadId, file, number, position, length),
+                        ossPartExecutor));
+            }
+            CompletableFuture.allOf(parts.toArray(new CompletableFuture<?>[0])).join();
+
+            List<PartETag> partETags = new ArrayList<>();
+            for (CompletableFuture<PartETag> part : parts) {
+                partETags.add(part.join());
+            }
+            partETags.sort(Comparator.comparingInt(PartETag::getPartNumber));
+            ossClient.completeMultipartUpload(
+                    new CompleteMultipartUploadRequest(bucketName, objectName, uploadId, partETags));
+        } catch (RuntimeException e) {
+            ossClient.abortMultipartUpload(new AbortMultipartUploadRequest(bucketName, objectName, uploadId));
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            throw new IOException("分片上传失败: " + objectName, cause);
+        }
+    }
+
+    private PartETag uploadPart(String objectName, String uploadId, Path file, int partNumber, long position, long length) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.position(position);
+            UploadPartRequest request = new UploadPartRequest();
+            request.setBucketName(bucketName);
+            request.setKey(objectName);
+            request.setUploadId(uploadId);
+            request.setPartNumber(partNumber);
+            request.setPartSize(length);
+            request.setInputStream(Channels.newInputStream(channel));
+            return ossClient.uploadPart(request).getPartETag();
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * url组成：https://bucket名称.区域节点/objectName
+     */
+    private String buildUrl(String objectName) {
+        return "https://" + bucketName + "." + endpoint.substring(endpoint.lastIndexOf("/") + 1) + "/" + objectName;
+    }
+}
@@ -0,0 +1,61 @@
+package com.zhao.storage;
+
+import com.zhao.exception.FileValidationException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 限制读取字节数的输入流
+ * 边读边计数，超过上限立即抛异常，不需要先把整个文件读进来再判断大小
+ */
+public class SizeLimitInputStream extends FilterInputStream {
+
+    private final long maxSize;
+    private long count;
+
+    public SizeLimitInputStream(InputStream in, long maxSize) {
+        super(in);
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b != -1) {
+            check(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) {
+            check(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        check(skipped);
+        return skipped;
+    }
+
+    /**
+     * 已读取的字节数
+     */
+    public long getCount() {
+        return count;
+    }
+
+    private void check(long n) {
+        count += n;
+        if (count > maxSize) {
+            throw new FileValidationException("文件大小不能超过" + (maxSize / 1024 / 1024) + "MB");
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.zhao.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 把输入流写入临时文件
+ * 使用FileChannel.transferFrom，JDK内部只用一个小的缓冲区循环写入，内存占用与文件大小无关
+ */
+public class TempFileSpooler {
+
+    // 每次最多转移的字节数
+    private static final long CHUNK_SIZE = 1024 * 1024;
+
+    /**
+     * 把输入流写入一个新的临时文件，失败时删除该文件
+     * @param in 输入流，由调用方关闭
+     * @return 临时文件路径，使用完后由调用方删除
+     */
+    public static Path spool(InputStream in) throws IOException {
+        Path temp = Files.createTempFile("upload-", ".tmp");
+        // source不关闭，关闭它会连带关闭调用方的输入流
+        ReadableByteChannel source = Channels.newChannel(in);
+        try (FileChannel dest = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            long position = 0;
+            long transferred;
+            while ((transferred = dest.transferFrom(source, position, CHUNK_SIZE)) > 0) {
+                position += transferred;
+            }
+            return temp;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+}
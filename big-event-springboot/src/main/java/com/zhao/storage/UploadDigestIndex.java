@@ -0,0 +1,100 @@
+package com.zhao.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * 上传文件的摘要索引
+ * 记录 文件内容的SHA-256 -> 已上传文件的URL（Redis Hash upload:digest），
+ * 同一个文件再次上传时直接返回已有的URL，不再重复存储和传输。
+ * 返回前确认文件仍在存储中，已被删除的文件从索引中移除，按新文件重新上传
+ */
+@Component
+@Slf4j
+public class UploadDigestIndex {
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private FileStorage fileStorage;
+
+    private static final String DIGEST_KEY = "upload:digest";
+
+    /**
+     * 创建SHA-256摘要对象，配合DigestInputStream边读边计算
+     */
+    public static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // 所有JDK都必须支持SHA-256，不会走到这里
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 把摘要转成十六进制字符串
+     */
+    public static String toHex(MessageDigest digest) {
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * 查找相同内容的已上传文件
+     * @param digest 文件内容的SHA-256
+     * @return 已上传文件的URL，没有时返回null
+     */
+    public String find(String digest) {
+        String url;
+        try {
+            Object value = stringRedisTemplate.opsForHash().get(DIGEST_KEY, digest);
+            url = value == null ? null : (String) value;
+        } catch (Exception e) {
+            // 查不到索引时按新文件上传，只是少了去重
+            log.warn("读取上传摘要索引失败: {}", e.getMessage());
+            return null;
+        }
+        if (url == null) {
+            return null;
+        }
+
+        // 两种存储的URL都以文件名结尾
+        String objectName = url.substring(url.lastIndexOf('/') + 1);
+        try {
+            if (fileStorage.exists(objectName)) {
+                return url;
+            }
+        } catch (Exception e) {
+            // 无法确认文件是否存在时重新上传，索引保留
+            log.warn("检查已上传文件失败, file={}: {}", objectName, e.getMessage());
+            return null;
+        }
+        log.info("已上传的文件不存在，移除摘要索引: {}", objectName);
+        try {
+            stringRedisTemplate.opsForHash().delete(DIGEST_KEY, digest);
+        } catch (Exception e) {
+            log.warn("删除上传摘要索引失败: {}", e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * 记录已上传文件的摘要
+     * @param digest 文件内容的SHA-256
+     * @param url 文件URL
+     */
+    public void record(String digest, String url) {
+        try {
+            stringRedisTemplate.opsForHash().putIfAbsent(DIGEST_KEY, digest, url);
+        } catch (Exception e) {
+            log.warn("写入上传摘要索引失败: {}", e.getMessage());
+        }
+    }
+}
@@ -9,6 +9,10 @@ import com.aliyun.oss.model.PutObjectResult;
 
 import java.io.InputStream;
 
+/**
+ * 每次上传都新建并关闭一个OSSClient，已由 com.zhao.storage.OssFileStorage 代替
+ */
+@Deprecated
 public class AliOssUtil {
     private static final String ENDPOINT = "https://oss-cn-beijing.aliyuncs.com";
 
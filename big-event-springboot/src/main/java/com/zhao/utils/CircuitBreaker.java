@@ -0,0 +1,75 @@
+package com.zhao.utils;
+
+/**
+ * 简单的熔断器
+ * 连续失败达到阈值后熔断，熔断期间直接拒绝请求，不再去调用已经出问题的外部服务；
+ * 熔断时间过后放一个请求试探，成功则恢复，失败则继续熔断
+ */
+public class CircuitBreaker {
+
+    private enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+
+    /**
+     * @param name 名称，用于日志
+     * @param failureThreshold 连续失败多少次后熔断
+     * @param openMillis 熔断持续时间（毫秒）
+     */
+    public CircuitBreaker(String name, int failureThreshold, long openMillis) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    /**
+     * 是否允许发起请求
+     * 熔断时间过后只放行一个试探请求，其余请求在试探结果出来前仍被拒绝
+     */
+    public synchronized boolean allowRequest() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openMillis) {
+            state = State.HALF_OPEN;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 记录一次成功调用
+     */
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        state = State.CLOSED;
+    }
+
+    /**
+     * 记录一次失败调用
+     */
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * 当前是否处于熔断状态
+     */
+    public synchronized boolean isOpen() {
+        return state != State.CLOSED;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,55 @@
+package com.zhao.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 游标工具类
+ * 游标由排序字段(create_time, id)组成，编码成URL安全的Base64字符串返回给前端，
+ * 前端原样传回即可，不需要关心里面的内容
+ */
+public class CursorUtil {
+
+    private static final String SEPARATOR = "_";
+
+    /**
+     * 生成游标
+     * @param createTime 最后一条记录的创建时间
+     * @param id 最后一条记录的ID
+     * @return 游标字符串
+     */
+    public static String encode(LocalDateTime createTime, Integer id) {
+        if (createTime == null || id == null) {
+            return null;
+        }
+        String raw = createTime + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标
+     * @param cursor 游标字符串，为空表示查询第一页
+     * @return 解析后的游标，第一页返回null
+     */
+    public static Cursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int index = raw.lastIndexOf(SEPARATOR);
+            LocalDateTime createTime = LocalDateTime.parse(raw.substring(0, index));
+            Integer id = Integer.parseInt(raw.substring(index + 1));
+            return new Cursor(createTime, id);
+        } catch (Exception e) {
+            throw new RuntimeException("无效的分页游标");
+        }
+    }
+
+    /**
+     * 解析后的游标：上一页最后一条记录的(create_time, id)
+     */
+    public record Cursor(LocalDateTime createTime, Integer id) {
+    }
+}
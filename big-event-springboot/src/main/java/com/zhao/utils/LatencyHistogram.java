@@ -0,0 +1,89 @@
+package com.zhao.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 耗时直方图
+ * 按固定的毫秒区间计数，记录一次耗时只是几次无锁的累加，可以放在热点路径上；
+ * 百分位数取所在区间的上界，是近似值
+ */
+public class LatencyHistogram {
+
+    // 各区间的上界（毫秒），最后一个区间没有上界
+    private static final long[] BOUNDS_MILLIS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000};
+
+    private final LongAdder[] buckets = new LongAdder[BOUNDS_MILLIS.length + 1];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * 记录一次耗时
+     * @param nanos 耗时（纳秒）
+     */
+    public void record(long nanos) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        int i = 0;
+        while (i < BOUNDS_MILLIS.length && millis >= BOUNDS_MILLIS[i]) {
+            i++;
+        }
+        buckets[i].increment();
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    /**
+     * 当前统计结果，耗时单位为毫秒
+     */
+    public Map<String, Object> snapshot() {
+        long[] counts = new long[buckets.length];
+        long total = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("count", total);
+        result.put("meanMs", total == 0 ? 0 : totalNanos.sum() / 1_000_000.0 / total);
+        result.put("maxMs", maxNanos.get() / 1_000_000.0);
+        result.put("p50Ms", percentile(counts, total, 0.50));
+        result.put("p95Ms", percentile(counts, total, 0.95));
+        result.put("p99Ms", percentile(counts, total, 0.99));
+        Map<String, Long> distribution = new LinkedHashMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            String label = i < BOUNDS_MILLIS.length ? "<" + BOUNDS_MILLIS[i] + "ms" : ">=" + BOUNDS_MILLIS[BOUNDS_MILLIS.length - 1] + "ms";
+            distribution.put(label, counts[i]);
+        }
+        result.put("buckets", distribution);
+        return result;
+    }
+
+    /**
+     * 近似百分位数，返回所在区间的上界；落在最后一个区间时返回最大值
+     */
+    private double percentile(long[] counts, long total, double quantile) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * quantile);
+        long seen = 0;
+        for (int i = 0; i < BOUNDS_MILLIS.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return BOUNDS_MILLIS[i];
+            }
+        }
+        return maxNanos.get() / 1_000_000.0;
+    }
+}
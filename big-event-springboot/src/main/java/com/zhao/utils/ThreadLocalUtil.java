@@ -1,21 +1,30 @@
 package com.zhao.utils;
 
-public class ThreadLocalUtil {
+import com.zhao.context.CurrentUser;
+import com.zhao.context.UserContextHolder;
+
+import java.util.Map;
 
-    //提供ThreadLocal对象
-    private static final ThreadLocal THREAD_LOCAL = new ThreadLocal();
+/**
+ * 当前用户信息的旧入口，保留给还没迁移的代码使用
+ * 数据实际保存在 {@link UserContextHolder} 中，新代码请直接使用它
+ */
+public class ThreadLocalUtil {
 
-    //根据键获取值
+    //获取当前用户的JWT载荷（只读），未登录时返回null
+    @SuppressWarnings("unchecked")
     public static <T> T get() {
-        return (T) THREAD_LOCAL.get();
+        CurrentUser user = UserContextHolder.get();
+        return user == null ? null : (T) user.toClaims();
     }
 
-    //存储键值对
+    //存储当前用户的JWT载荷
+    @SuppressWarnings("unchecked")
     public static void set(Object value) {
-        THREAD_LOCAL.set(value);
+        UserContextHolder.set(CurrentUser.fromClaims((Map<String, Object>) value));
     }
-    //清除ThreadLocal 防止内存泄露
+    //清除当前用户 防止内存泄露
     public static void remove() {
-        THREAD_LOCAL.remove();
+        UserContextHolder.clear();
     }
 }
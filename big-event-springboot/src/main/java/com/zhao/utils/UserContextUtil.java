@@ -1,5 +1,7 @@
 package com.zhao.utils;
 
+import com.zhao.context.CurrentUser;
+import com.zhao.context.UserContextHolder;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,7 +15,7 @@ import java.util.Map;
 
 /**
  * 用户上下文工具类
- * 用于获取当前用户信息，支持从ThreadLocal获取或从请求头解析token
+ * 用于获取当前用户信息，支持从用户上下文获取或从请求头解析token
  */
 @Slf4j
 @Component
@@ -28,7 +30,7 @@ public class UserContextUtil {
 
     /**
      * 获取当前用户ID
-     * 优先从ThreadLocal获取，如果没有则尝试从请求头解析token
+     * 优先从用户上下文获取，如果没有则尝试从请求头解析token
      * @return 用户ID，如果未登录则返回null
      */
     public static Integer getCurrentUserId() {
@@ -37,22 +39,21 @@ public class UserContextUtil {
 
     /**
      * 获取当前用户ID
-     * 优先从ThreadLocal获取，如果没有则尝试从请求头解析token
+     * 优先从用户上下文获取，如果没有则尝试从请求头解析token
      * @param request HttpServletRequest对象，如果为null则从当前请求上下文获取
      * @return 用户ID，如果未登录则返回null
      */
     public static Integer getCurrentUserId(HttpServletRequest request) {
         Integer userId = null;
         try {
-            // 1. 优先从ThreadLocal获取（如果拦截器已处理）
-            Map<String, Object> userMap = ThreadLocalUtil.get();
-            if (userMap != null) {
-                userId = (Integer) userMap.get("id");
-                log.debug("从ThreadLocal获取用户ID: {}", userId);
+            // 1. 优先从用户上下文获取（如果拦截器已处理，或者是带着用户提交的异步任务）
+            userId = UserContextHolder.currentUserId();
+            if (userId != null) {
+                log.debug("从用户上下文获取用户ID: {}", userId);
                 return userId;
             }
 
-            // 2. 如果ThreadLocal中没有用户信息，尝试从请求头解析token
+            // 2. 如果用户上下文中没有用户信息，尝试从请求头解析token
             if (request == null) {
                 request = ((ServletRequestAttributes) RequestContextHolder.getRequestAttributes()).getRequest();
             }
@@ -108,7 +109,8 @@ public class UserContextUtil {
      */
     public static Map<String, Object> getCurrentUserInfo() {
         try {
-            return ThreadLocalUtil.get();
+            CurrentUser user = UserContextHolder.get();
+            return user == null ? null : user.toClaims();
         } catch (Exception e) {
             log.debug("获取用户信息失败: {}", e.getMessage());
             return null;
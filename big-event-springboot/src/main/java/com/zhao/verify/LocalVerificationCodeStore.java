@@ -0,0 +1,91 @@
+package com.zhao.verify;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * 基于内存的验证码存储
+ * 设置 verify.store=local 后使用，只适合单实例部署和测试；所有操作加同一把锁，保证与Redis版本相同的原子性
+ */
+@Component
+@ConditionalOnProperty(name = "verify.store", havingValue = "local")
+public class LocalVerificationCodeStore implements VerificationCodeStore {
+
+    private final int maxAttempts;
+    // 当前时间（毫秒），测试时可以替换
+    private final LongSupplier clock;
+
+    private final Map<String, Entry> codes = new HashMap<>();
+    // 频率限制key -> 过期时间
+    private final Map<String, Long> rateLimits = new HashMap<>();
+
+    public LocalVerificationCodeStore(@Value("${verify.max-attempts:5}") int maxAttempts) {
+        this(maxAttempts, System::currentTimeMillis);
+    }
+
+    public LocalVerificationCodeStore(int maxAttempts, LongSupplier clock) {
+        this.maxAttempts = maxAttempts;
+        this.clock = clock;
+    }
+
+    @Override
+    public synchronized boolean issue(String codeKey, String rateLimitKey, String code, long ttlSeconds, long intervalSeconds) {
+        long now = clock.getAsLong();
+        Long limitedUntil = rateLimits.get(rateLimitKey);
+        if (limitedUntil != null && limitedUntil > now) {
+            return false;
+        }
+        codes.put(codeKey, new Entry(code, now + ttlSeconds * 1000));
+        rateLimits.put(rateLimitKey, now + intervalSeconds * 1000);
+        purgeExpired(now);
+        return true;
+    }
+
+    @Override
+    public synchronized VerifyResult verify(String codeKey, String code) {
+        Entry entry = codes.get(codeKey);
+        if (entry == null || entry.expireAt <= clock.getAsLong()) {
+            codes.remove(codeKey);
+            return VerifyResult.EXPIRED;
+        }
+        if (entry.code.equals(code)) {
+            codes.remove(codeKey);
+            return VerifyResult.SUCCESS;
+        }
+        if (++entry.attempts >= maxAttempts) {
+            codes.remove(codeKey);
+            return VerifyResult.TOO_MANY_ATTEMPTS;
+        }
+        return VerifyResult.MISMATCH;
+    }
+
+    @Override
+    public synchronized void revoke(String codeKey, String rateLimitKey) {
+        codes.remove(codeKey);
+        rateLimits.remove(rateLimitKey);
+    }
+
+    /**
+     * 清理过期的记录，避免长期运行时占用内存
+     */
+    private void purgeExpired(long now) {
+        codes.values().removeIf(e -> e.expireAt <= now);
+        rateLimits.values().removeIf(t -> t <= now);
+    }
+
+    private static class Entry {
+        final String code;
+        final long expireAt;
+        int attempts;
+
+        Entry(String code, long expireAt) {
+            this.code = code;
+            this.expireAt = expireAt;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.zhao.verify;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 基于Redis的验证码存储
+ * 验证码保存为Hash：code-验证码，attempts-已错误的次数；签发和校验各用一个Lua脚本，
+ * 一次往返完成，多个请求同时校验同一个验证码时只有一个能成功
+ */
+@Component
+@ConditionalOnProperty(name = "verify.store", havingValue = "redis", matchIfMissing = true)
+public class RedisVerificationCodeStore implements VerificationCodeStore {
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    // 同一个验证码最多允许输错的次数
+    @Value("${verify.max-attempts:5}")
+    private int maxAttempts;
+
+    // 频率限制key存在时拒绝，否则保存验证码并设置频率限制
+    private static final DefaultRedisScript<Long> ISSUE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[2]) == 1 then return 0 end " +
+            "redis.call('DEL', KEYS[1]) " +
+            "redis.call('HSET', KEYS[1], 'code', ARGV[1], 'attempts', 0) " +
+            "redis.call('EXPIRE', KEYS[1], ARGV[2]) " +
+            "redis.call('SET', KEYS[2], '1', 'EX', ARGV[3]) " +
+            "return 1",
+            Long.class);
+
+    // 返回值：1-成功，0-不匹配，-1-不存在，-2-错误次数过多
+    private static final DefaultRedisScript<Long> VERIFY_SCRIPT = new DefaultRedisScript<>(
+            "local stored = redis.call('HGET', KEYS[1], 'code') " +
+            "if not stored then return -1 end " +
+            "if stored == ARGV[1] then redis.call('DEL', KEYS[1]) return 1 end " +
+            "local attempts = redis.call('HINCRBY', KEYS[1], 'attempts', 1) " +
+            "if attempts >= tonumber(ARGV[2]) then redis.call('DEL', KEYS[1]) return -2 end " +
+            "return 0",
+            Long.class);
+
+    @Override
+    public boolean issue(String codeKey, String rateLimitKey, String code, long ttlSeconds, long intervalSeconds) {
+        Long result = stringRedisTemplate.execute(ISSUE_SCRIPT, List.of(codeKey, rateLimitKey),
+                code, String.valueOf(ttlSeconds), String.valueOf(intervalSeconds));
+        return result != null && result == 1;
+    }
+
+    @Override
+    public VerifyResult verify(String codeKey, String code) {
+        Long result = stringRedisTemplate.execute(VERIFY_SCRIPT, List.of(codeKey), code, String.valueOf(maxAttempts));
+        if (result == null || result == -1) {
+            return VerifyResult.EXPIRED;
+        }
+        if (result == 1) {
+            return VerifyResult.SUCCESS;
+        }
+        return result == -2 ? VerifyResult.TOO_MANY_ATTEMPTS : VerifyResult.MISMATCH;
+    }
+
+    @Override
+    public void revoke(String codeKey, String rateLimitKey) {
+        stringRedisTemplate.delete(List.of(codeKey, rateLimitKey));
+    }
+}
@@ -0,0 +1,36 @@
+package com.zhao.verify;
+
+/**
+ * 验证码存储
+ * 短信验证码和邮箱验证码共用，每个操作都是原子的：
+ * - 签发：检查发送频率、保存验证码、记录发送频率一步完成
+ * - 校验：比较验证码并在成功时作废，错误次数达到上限时也作废，防止暴力猜测
+ */
+public interface VerificationCodeStore {
+
+    /**
+     * 签发验证码
+     * @param codeKey 验证码的key
+     * @param rateLimitKey 发送频率限制的key
+     * @param code 验证码
+     * @param ttlSeconds 验证码有效期（秒）
+     * @param intervalSeconds 同一个目标两次发送的最小间隔（秒）
+     * @return 是否签发成功，发送过于频繁时返回false
+     */
+    boolean issue(String codeKey, String rateLimitKey, String code, long ttlSeconds, long intervalSeconds);
+
+    /**
+     * 校验验证码，校验成功后验证码作废，不能再次使用
+     * @param codeKey 验证码的key
+     * @param code 用户输入的验证码
+     * @return 校验结果
+     */
+    VerifyResult verify(String codeKey, String code);
+
+    /**
+     * 作废验证码并清除发送频率限制，发送失败时调用，用户可以马上重新获取
+     * @param codeKey 验证码的key
+     * @param rateLimitKey 发送频率限制的key
+     */
+    void revoke(String codeKey, String rateLimitKey);
+}
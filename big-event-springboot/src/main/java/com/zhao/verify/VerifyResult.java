@@ -0,0 +1,15 @@
+package com.zhao.verify;
+
+/**
+ * 验证码校验结果
+ */
+public enum VerifyResult {
+    // 验证码正确，已作废
+    SUCCESS,
+    // 验证码错误，还可以继续尝试
+    MISMATCH,
+    // 验证码不存在或已过期
+    EXPIRED,
+    // 错误次数过多，验证码已作废
+    TOO_MANY_ATTEMPTS
+}
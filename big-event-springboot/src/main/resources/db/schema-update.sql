@@ -0,0 +1,90 @@
+-- =====================================================
+-- 数据库结构变更脚本
+-- 在已有的big_event库上按顺序执行，新增的变更追加在文件末尾
+-- =====================================================
+
+-- 游标分页索引
+-- 游标分页按(create_time, id)倒序，从上一页最后一条记录的位置往后取，
+-- 需要下面的复合索引才能直接定位到游标位置，而不是扫描再丢弃前面的记录
+ALTER TABLE article ADD INDEX idx_article_user_time (create_user, create_time, id);
+ALTER TABLE user ADD INDEX idx_user_time (create_time, id);
+ALTER TABLE author_apply ADD INDEX idx_apply_status_time (status, create_time, id);
+
+-- 关注/粉丝列表游标分页索引，同时覆盖关注数、粉丝数的COUNT查询
+ALTER TABLE user_follow ADD INDEX idx_follow_follower_time (follower_id, is_deleted, create_time, id);
+ALTER TABLE user_follow ADD INDEX idx_follow_followed_time (followed_id, is_deleted, create_time, id);
+
+-- 点赞、收藏、评论点赞、关注记录的唯一索引
+-- 同一用户对同一目标只保留一行记录，之后的点赞/取消只修改is_deleted，
+-- 并发的重复请求由唯一索引挡住，不会再插入重复的行（INSERT ... ON DUPLICATE KEY UPDATE依赖这些索引）。
+-- 加索引前先合并已有的重复记录：保留id最小的一行，其中任意一行有效就视为有效
+UPDATE article_like l
+    JOIN (SELECT MIN(id) AS id, MIN(is_deleted) AS is_deleted FROM article_like
+          GROUP BY article_id, user_id HAVING COUNT(*) > 1) d ON l.id = d.id
+SET l.is_deleted = d.is_deleted;
+DELETE l FROM article_like l
+    JOIN article_like k ON l.article_id = k.article_id AND l.user_id = k.user_id AND l.id > k.id;
+ALTER TABLE article_like ADD UNIQUE KEY uk_like_article_user (article_id, user_id);
+
+UPDATE article_collect c
+    JOIN (SELECT MIN(id) AS id, MIN(is_deleted) AS is_deleted FROM article_collect
+          GROUP BY article_id, user_id HAVING COUNT(*) > 1) d ON c.id = d.id
+SET c.is_deleted = d.is_deleted;
+DELETE c FROM article_collect c
+    JOIN article_collect k ON c.article_id = k.article_id AND c.user_id = k.user_id AND c.id > k.id;
+ALTER TABLE article_collect ADD UNIQUE KEY uk_collect_article_user (article_id, user_id);
+
+UPDATE article_comment_like l
+    JOIN (SELECT MIN(id) AS id, MIN(is_deleted) AS is_deleted FROM article_comment_like
+          GROUP BY comment_id, user_id HAVING COUNT(*) > 1) d ON l.id = d.id
+SET l.is_deleted = d.is_deleted;
+DELETE l FROM article_comment_like l
+    JOIN article_comment_like k ON l.comment_id = k.comment_id AND l.user_id = k.user_id AND l.id > k.id;
+ALTER TABLE article_comment_like ADD UNIQUE KEY uk_comment_like_comment_user (comment_id, user_id);
+
+UPDATE user_follow f
+    JOIN (SELECT MIN(id) AS id, MIN(is_deleted) AS is_deleted FROM user_follow
+          GROUP BY follower_id, followed_id HAVING COUNT(*) > 1) d ON f.id = d.id
+SET f.is_deleted = d.is_deleted;
+DELETE f FROM user_follow f
+    JOIN user_follow k ON f.follower_id = k.follower_id AND f.followed_id = k.followed_id AND f.id > k.id;
+ALTER TABLE user_follow ADD UNIQUE KEY uk_follow_follower_followed (follower_id, followed_id);
+
+-- 按记录重新统计点赞数、收藏数，修正之前并发请求造成的偏差
+UPDATE article a
+SET a.like_count = (SELECT COUNT(*) FROM article_like l WHERE l.article_id = a.id AND l.is_deleted = 0),
+    a.collect_count = (SELECT COUNT(*) FROM article_collect c WHERE c.article_id = a.id AND c.is_deleted = 0);
+UPDATE article_comment c
+SET c.comment_like_count = (SELECT COUNT(*) FROM article_comment_like l WHERE l.comment_id = c.id AND l.is_deleted = 0);
+
+-- 文章评论数
+-- 首页、搜索列表不再对每篇文章统计 article_comment，改为读取文章上的评论数；
+-- 发表评论后经事件发件箱加1（见CommentCountConsumer），这里按已有评论初始化
+ALTER TABLE article ADD COLUMN comment_count INT NOT NULL DEFAULT 0;
+UPDATE article a
+SET a.comment_count = (SELECT COUNT(*) FROM article_comment c WHERE c.article_id = a.id AND c.is_deleted = 0);
+
+-- 事件发件箱
+-- 业务修改和事件记录在同一个事务中写入，OutboxRelay定时分批取出交给各消费者，失败的按退避时间重试；
+-- 消费者处理过的事件记在 event_consumed 中，重复投递时跳过
+CREATE TABLE event_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    event_type VARCHAR(64) NOT NULL COMMENT '事件类名',
+    payload TEXT NOT NULL COMMENT '事件内容JSON',
+    status TINYINT NOT NULL DEFAULT 0 COMMENT '0-待投递，1-已投递，2-超过重试次数',
+    attempts INT NOT NULL DEFAULT 0 COMMENT '失败次数',
+    next_retry_time DATETIME NOT NULL COMMENT '下次可以投递的时间',
+    lease_owner VARCHAR(64) NULL COMMENT '正在投递的节点',
+    lease_until DATETIME NULL COMMENT '投递租约到期时间，节点宕机后其他节点在到期后接手',
+    last_error VARCHAR(512) NULL,
+    create_time DATETIME NOT NULL,
+    sent_time DATETIME NULL,
+    KEY idx_outbox_status_retry (status, next_retry_time)
+);
+
+CREATE TABLE event_consumed (
+    consumer VARCHAR(64) NOT NULL,
+    event_id BIGINT NOT NULL,
+    consume_time DATETIME NOT NULL,
+    PRIMARY KEY (consumer, event_id)
+);
@@ -0,0 +1,84 @@
+package com.zhao;
+
+import com.zhao.cache.PublishedArticleCache;
+import com.zhao.cache.UserProfileCache;
+import com.zhao.event.CommentAddedEvent;
+import com.zhao.mapper.ArticleCommentMapper;
+import com.zhao.mapper.ArticleMapper;
+import com.zhao.pojo.ArticleComment;
+import com.zhao.pojo.ArticleCommentVO;
+import com.zhao.pojo.UserProfile;
+import com.zhao.service.impl.ArticleCommentServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 发表评论的测试：只查文章状态和用户资料缓存，不读取整篇文章和整行用户，评论数交给事件更新
+ */
+public class ArticleCommentServiceTest {
+
+    private final ArticleCommentMapper articleCommentMapper = mock(ArticleCommentMapper.class);
+    private final ArticleMapper articleMapper = mock(ArticleMapper.class);
+    private final PublishedArticleCache publishedArticleCache = mock(PublishedArticleCache.class);
+    private final UserProfileCache userProfileCache = mock(UserProfileCache.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final ArticleCommentServiceImpl service = new ArticleCommentServiceImpl();
+
+    public ArticleCommentServiceTest() {
+        ReflectionTestUtils.setField(service, "articleCommentMapper", articleCommentMapper);
+        ReflectionTestUtils.setField(service, "articleMapper", articleMapper);
+        ReflectionTestUtils.setField(service, "publishedArticleCache", publishedArticleCache);
+        ReflectionTestUtils.setField(service, "userProfileCache", userProfileCache);
+        ReflectionTestUtils.setField(service, "eventPublisher", eventPublisher);
+        doAnswer(invocation -> {
+            invocation.getArgument(0, ArticleComment.class).setId(100);
+            return null;
+        }).when(articleCommentMapper).insert(any());
+    }
+
+    @Test
+    public void testAddReply() {
+        when(publishedArticleCache.getState(1)).thenReturn("已发布");
+        when(articleCommentMapper.getArticleIdByCommentId(50)).thenReturn(1);
+        UserProfile profile = new UserProfile();
+        profile.setId(9);
+        profile.setNickname("小赵");
+        profile.setUserPic("https://example.com/a.png");
+        when(userProfileCache.get(9)).thenReturn(profile);
+
+        ArticleCommentVO vo = service.addComment(comment(1, 50), 9);
+
+        assertEquals(100, vo.getId());
+        assertEquals(50, vo.getParentId());
+        assertEquals("小赵", vo.getNickname());
+        assertEquals("https://example.com/a.png", vo.getUserPic());
+        verify(eventPublisher).publishEvent(new CommentAddedEvent(100, 1, 50, 9));
+        verifyNoInteractions(articleMapper);
+    }
+
+    @Test
+    public void testRejectsUnpublishedArticle() {
+        when(publishedArticleCache.getState(1)).thenReturn("草稿");
+        when(publishedArticleCache.getState(2)).thenReturn(null);
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> service.addComment(comment(1, null), 9));
+        assertEquals("只能评论已发布的文章", e.getMessage());
+        e = assertThrows(RuntimeException.class, () -> service.addComment(comment(2, null), 9));
+        assertEquals("文章不存在", e.getMessage());
+        verify(articleCommentMapper, never()).insert(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    private static ArticleComment comment(Integer articleId, Integer parentId) {
+        ArticleComment comment = new ArticleComment();
+        comment.setArticleId(articleId);
+        comment.setParentId(parentId);
+        comment.setContent("写得好");
+        return comment;
+    }
+}
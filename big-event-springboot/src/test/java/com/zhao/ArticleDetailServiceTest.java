@@ -0,0 +1,158 @@
+package com.zhao;
+
+import com.zhao.cache.FollowGraphCache;
+import com.zhao.cache.UserProfileCache;
+import com.zhao.mapper.ArticleCollectMapper;
+import com.zhao.mapper.ArticleLikeMapper;
+import com.zhao.mapper.ArticleMapper;
+import com.zhao.pojo.Article;
+import com.zhao.pojo.ArticleDetailAggregateVO;
+import com.zhao.pojo.ArticleLike;
+import com.zhao.pojo.CategoryVO;
+import com.zhao.pojo.UserProfile;
+import com.zhao.service.ArticleCommentService;
+import com.zhao.service.ArticleDetailService;
+import com.zhao.service.CategoryService;
+import com.zhao.service.impl.ArticleDetailServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 文章详情聚合查询的测试：各部分并发查询，慢的部分超时后缺失、线程池已满时被拒绝的部分缺失，不拖慢整个请求
+ */
+public class ArticleDetailServiceTest {
+
+    private final ArticleMapper articleMapper = mock(ArticleMapper.class);
+    private final UserProfileCache userProfileCache = mock(UserProfileCache.class);
+    private final ArticleLikeMapper articleLikeMapper = mock(ArticleLikeMapper.class);
+    private final ArticleCollectMapper articleCollectMapper = mock(ArticleCollectMapper.class);
+    private final ArticleCommentService articleCommentService = mock(ArticleCommentService.class);
+    private final CategoryService categoryService = mock(CategoryService.class);
+    private final FollowGraphCache followGraphCache = mock(FollowGraphCache.class);
+    private final ArticleDetailServiceImpl service = new ArticleDetailServiceImpl();
+
+    public ArticleDetailServiceTest() {
+        ReflectionTestUtils.setField(service, "articleMapper", articleMapper);
+        ReflectionTestUtils.setField(service, "userProfileCache", userProfileCache);
+        ReflectionTestUtils.setField(service, "articleLikeMapper", articleLikeMapper);
+        ReflectionTestUtils.setField(service, "articleCollectMapper", articleCollectMapper);
+        ReflectionTestUtils.setField(service, "articleCommentService", articleCommentService);
+        ReflectionTestUtils.setField(service, "categoryService", categoryService);
+        ReflectionTestUtils.setField(service, "followGraphCache", followGraphCache);
+        ReflectionTestUtils.setField(service, "detailExecutor", new SimpleAsyncTaskExecutor("detail-test-"));
+        ReflectionTestUtils.setField(service, "articleTimeoutMillis", 2000L);
+        ReflectionTestUtils.setField(service, "branchTimeoutMillis", 200L);
+    }
+
+    @Test
+    public void testSlowBranchIsMissing() {
+        Article article = new Article();
+        article.setId(1);
+        article.setTitle("标题");
+        article.setCreateUser(5);
+        when(articleMapper.findById(1)).thenReturn(article);
+        UserProfile author = new UserProfile();
+        author.setId(5);
+        author.setUsername("author5");
+        when(userProfileCache.get(5)).thenReturn(author);
+        ArticleLike like = new ArticleLike();
+        like.setIsDeleted(0);
+        when(articleLikeMapper.findByArticleIdAndUserId(1, 9)).thenReturn(like);
+        // 评论查询很慢
+        when(articleCommentService.getArticleComments(1, 1, 10, 9)).thenAnswer(invocation -> {
+            Thread.sleep(1000);
+            return new HashMap<String, Object>();
+        });
+
+        long start = System.nanoTime();
+        ArticleDetailAggregateVO result = service.getDetailAggregate(1, 9, 10).join();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals("标题", result.getArticle().getTitle());
+        assertEquals("author5", result.getAuthor().getUsername());
+        assertEquals("author5", result.getArticle().getAuthor());
+        assertTrue(result.getLiked());
+        assertFalse(result.getCollected());
+        assertNull(result.getComments());
+        assertEquals(List.of("comments"), result.getMissing());
+        assertTrue(elapsedMillis < 1000, "耗时 " + elapsedMillis + "ms");
+    }
+
+    @Test
+    public void testArticleNotFound() {
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> service.getDetailAggregate(2, null, 10).join());
+        assertEquals("文章不存在", e.getCause().getMessage());
+    }
+
+    @Test
+    public void testOnlyRequestedSections() {
+        Article article = new Article();
+        article.setId(1);
+        article.setCreateUser(5);
+        when(articleMapper.findById(1)).thenReturn(article);
+        CategoryVO category = new CategoryVO();
+        category.setId(3);
+        when(categoryService.getCategoryList(9)).thenReturn(List.of(category));
+        when(followGraphCache.isFollowing(9, 5)).thenReturn(true);
+
+        ArticleDetailAggregateVO result = service.getArticlePage(1, 9, 10, Set.of("categories", "following")).join();
+
+        assertEquals(1, result.getCategories().size());
+        assertTrue(result.getFollowing());
+        // 没要的部分为null，也不算缺失
+        assertNull(result.getAuthor());
+        assertNull(result.getComments());
+        assertTrue(result.getMissing().isEmpty());
+        verifyNoInteractions(userProfileCache, articleLikeMapper, articleCollectMapper, articleCommentService);
+    }
+
+    @Test
+    public void testRejectedBranchesAreMissing() {
+        Article article = new Article();
+        article.setId(1);
+        article.setCreateUser(5);
+        when(articleMapper.findById(1)).thenReturn(article);
+        // 线程池只容纳得下查询文章的任务，之后提交的任务都被拒绝
+        AtomicInteger submitted = new AtomicInteger();
+        SimpleAsyncTaskExecutor threads = new SimpleAsyncTaskExecutor("detail-test-");
+        ReflectionTestUtils.setField(service, "detailExecutor", (TaskExecutor) task -> {
+            if (submitted.incrementAndGet() > 1) {
+                throw new TaskRejectedException("线程池已满");
+            }
+            threads.execute(task);
+        });
+
+        ArticleDetailAggregateVO result = service.getArticlePage(1, 9, 10, Set.copyOf(ArticleDetailService.SECTIONS)).join();
+
+        assertEquals(1, result.getArticle().getId());
+        assertEquals(Set.copyOf(ArticleDetailService.SECTIONS), Set.copyOf(result.getMissing()));
+        verifyNoInteractions(userProfileCache, articleLikeMapper, articleCollectMapper, articleCommentService, categoryService,
+                followGraphCache);
+    }
+
+    @Test
+    public void testCommentPageSizeClamped() {
+        Article article = new Article();
+        article.setId(1);
+        when(articleMapper.findById(1)).thenReturn(article);
+
+        service.getArticlePage(1, 9, 10_000, Set.of("comments")).join();
+        service.getArticlePage(1, 9, -1, Set.of("comments")).join();
+
+        verify(articleCommentService).getArticleComments(1, 1, 50, 9);
+        verify(articleCommentService).getArticleComments(1, 1, 10, 9);
+    }
+}
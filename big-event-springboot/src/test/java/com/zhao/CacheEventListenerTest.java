@@ -0,0 +1,40 @@
+package com.zhao;
+
+import com.zhao.cache.CategoryCache;
+import com.zhao.cache.UserProfileCache;
+import com.zhao.event.CacheEventListener;
+import com.zhao.event.LikeToggledEvent;
+import com.zhao.pojo.InteractionType;
+import com.zhao.service.UserFollowService;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * 缓存失效监听器的测试：只有关注的状态变化会更新关注相关缓存
+ */
+public class CacheEventListenerTest {
+
+    private final UserFollowService userFollowService = mock(UserFollowService.class);
+    private final CacheEventListener listener = new CacheEventListener();
+
+    public CacheEventListenerTest() {
+        ReflectionTestUtils.setField(listener, "userProfileCache", mock(UserProfileCache.class));
+        ReflectionTestUtils.setField(listener, "categoryCache", mock(CategoryCache.class));
+        ReflectionTestUtils.setField(listener, "userFollowService", userFollowService);
+    }
+
+    @Test
+    public void testFollowToggled() {
+        listener.onFollowToggled(new LikeToggledEvent(InteractionType.FOLLOW, 9, 5, true));
+        listener.onFollowToggled(new LikeToggledEvent(InteractionType.FOLLOW, 9, 6, false));
+        listener.onFollowToggled(new LikeToggledEvent(InteractionType.ARTICLE_LIKE, 9, 3, true));
+
+        verify(userFollowService).onFollowsChanged(9, Map.of(5, true));
+        verify(userFollowService).onFollowsChanged(9, Map.of(6, false));
+        verifyNoMoreInteractions(userFollowService);
+    }
+}
@@ -0,0 +1,56 @@
+package com.zhao;
+
+import com.zhao.utils.CircuitBreaker;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 验证熔断器的状态切换
+ */
+public class CircuitBreakerTest {
+
+    @Test
+    public void testOpenAfterConsecutiveFailures() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 3, 60_000);
+        breaker.recordFailure();
+        breaker.recordFailure();
+        assertTrue(breaker.allowRequest());
+
+        breaker.recordFailure();
+        assertTrue(breaker.isOpen());
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    public void testSuccessResetsFailures() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 2, 60_000);
+        breaker.recordFailure();
+        breaker.recordSuccess();
+        breaker.recordFailure();
+        assertFalse(breaker.isOpen());
+    }
+
+    @Test
+    public void testHalfOpenAllowsSingleProbe() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker("test", 1, 50);
+        breaker.recordFailure();
+        assertFalse(breaker.allowRequest());
+
+        Thread.sleep(80);
+        // 熔断时间过后只放行一个试探请求
+        assertTrue(breaker.allowRequest());
+        assertFalse(breaker.allowRequest());
+
+        // 试探失败，继续熔断
+        breaker.recordFailure();
+        assertFalse(breaker.allowRequest());
+
+        Thread.sleep(80);
+        assertTrue(breaker.allowRequest());
+        // 试探成功，恢复正常
+        breaker.recordSuccess();
+        assertTrue(breaker.allowRequest());
+        assertTrue(breaker.allowRequest());
+    }
+}
@@ -0,0 +1,94 @@
+package com.zhao;
+
+import com.zhao.counter.CommentLikeCounter;
+import com.zhao.mapper.InteractionMapper;
+import com.zhao.pojo.InteractionType;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 评论点赞数累加器的测试：多线程同时累加、后台同时写入，写入数据库的变化量加上未写入的变化量始终等于累加的总量
+ */
+public class CommentLikeCounterTest {
+
+    private final InteractionMapper interactionMapper = mock(InteractionMapper.class);
+    private final CommentLikeCounter counter = new CommentLikeCounter();
+    // 模拟数据库中的点赞数
+    private final Map<Integer, Long> stored = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    public CommentLikeCounterTest() {
+        ReflectionTestUtils.setField(counter, "interactionMapper", interactionMapper);
+        when(interactionMapper.batchUpdateCounts(eq(InteractionType.COMMENT_LIKE), anyMap())).thenAnswer(invocation -> {
+            Map<Integer, Integer> deltas = invocation.getArgument(1, Map.class);
+            deltas.forEach((id, delta) -> stored.merge(id, (long) delta, Long::sum));
+            return deltas.size();
+        });
+    }
+
+    @Test
+    public void testConcurrentAddAndFlush() throws Exception {
+        int threads = 8;
+        int perThread = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    // 大部分点赞集中在热门评论1上
+                    counter.add(i % 10 == 0 ? 2 : 1, 1);
+                }
+                done.countDown();
+            });
+        }
+        // 累加的同时不停地写入
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread flusher = new Thread(() -> {
+            while (running.get()) {
+                counter.flush();
+            }
+        });
+        flusher.start();
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        running.set(false);
+        flusher.join();
+        executor.shutdown();
+
+        long total = (long) threads * perThread;
+        assertEquals(total, stored.getOrDefault(1, 0L) + counter.pending(1) + stored.getOrDefault(2, 0L) + counter.pending(2));
+
+        // 两轮写入后全部进入数据库
+        counter.flush();
+        counter.flush();
+        assertEquals(total * 9 / 10, stored.get(1));
+        assertEquals(total / 10, stored.get(2));
+        assertEquals(0, counter.pending(1));
+    }
+
+    @Test
+    public void testFailedFlushKeepsDeltas() {
+        counter.add(1, 3);
+        counter.add(1, -1);
+        doThrow(new RuntimeException("数据库不可用")).when(interactionMapper).batchUpdateCounts(any(), anyMap());
+
+        assertThrows(RuntimeException.class, counter::flush);
+        assertEquals(2, counter.pending(1));
+
+        reset(interactionMapper);
+        counter.flush();
+        verify(interactionMapper).batchUpdateCounts(InteractionType.COMMENT_LIKE, Map.of(1, 2));
+        assertEquals(0, counter.pending(1));
+    }
+}
@@ -0,0 +1,51 @@
+package com.zhao;
+
+import com.zhao.pojo.CursorPage;
+import com.zhao.utils.CursorUtil;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 验证游标的编码解析以及游标分页结果的拼装
+ */
+public class CursorUtilTest {
+
+    @Test
+    public void testEncodeAndDecode() {
+        LocalDateTime time = LocalDateTime.of(2024, 5, 1, 12, 30, 15);
+        String cursor = CursorUtil.encode(time, 42);
+
+        CursorUtil.Cursor c = CursorUtil.decode(cursor);
+        assertEquals(time, c.createTime());
+        assertEquals(42, c.id());
+    }
+
+    @Test
+    public void testDecodeEmptyAndInvalid() {
+        // 第一页不传游标
+        assertNull(CursorUtil.decode(null));
+        assertNull(CursorUtil.decode(""));
+        // 被篡改的游标
+        assertThrows(RuntimeException.class, () -> CursorUtil.decode("not-a-cursor"));
+    }
+
+    @Test
+    public void testCursorPage() {
+        // 多查出一条，说明还有下一页
+        CursorPage<Integer> page = CursorPage.of(List.of(5, 4, 3), 2, String::valueOf, null);
+        assertTrue(page.getHasMore());
+        assertEquals(List.of(5, 4), page.getList());
+        assertEquals("4", page.getNextCursor());
+        assertNull(page.getTotal());
+
+        // 不足一页，没有下一页
+        CursorPage<Integer> last = CursorPage.of(List.of(1), 2, String::valueOf, 1L);
+        assertFalse(last.getHasMore());
+        assertNull(last.getNextCursor());
+        assertEquals(1L, last.getTotal());
+    }
+}
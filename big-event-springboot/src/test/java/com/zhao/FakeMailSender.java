@@ -0,0 +1,84 @@
+package com.zhao;
+
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 测试用的假邮件发送器
+ * 邮件只记录在内存中并打印日志，可以指定某些收件人发送失败，用于测试重试逻辑
+ */
+@Slf4j
+public class FakeMailSender implements JavaMailSender {
+
+    private final List<SimpleMailMessage> sent = new CopyOnWriteArrayList<>();
+    private final Set<String> failingRecipients = ConcurrentHashMap.newKeySet();
+    // 调用send的次数，一次调用相当于一次SMTP连接
+    private final AtomicInteger connections = new AtomicInteger();
+
+    @Override
+    public void send(SimpleMailMessage... messages) throws MailException {
+        connections.incrementAndGet();
+        Map<Object, Exception> failed = new LinkedHashMap<>();
+        for (SimpleMailMessage message : messages) {
+            String to = message.getTo() == null ? null : message.getTo()[0];
+            if (failingRecipients.contains(to)) {
+                failed.put(message, new RuntimeException("模拟发送失败: " + to));
+                continue;
+            }
+            log.info("[假邮件] 发送到 {}: {}", to, message.getText());
+            sent.add(message);
+        }
+        if (!failed.isEmpty()) {
+            throw new MailSendException(failed);
+        }
+    }
+
+    @Override
+    public MimeMessage createMimeMessage() {
+        return new MimeMessage(Session.getInstance(new Properties()));
+    }
+
+    @Override
+    public MimeMessage createMimeMessage(InputStream contentStream) throws MailException {
+        throw new UnsupportedOperationException("假邮件发送器只支持SimpleMailMessage");
+    }
+
+    @Override
+    public void send(MimeMessage... mimeMessages) throws MailException {
+        throw new UnsupportedOperationException("假邮件发送器只支持SimpleMailMessage");
+    }
+
+    /**
+     * 已发送成功的邮件
+     */
+    public List<SimpleMailMessage> getSent() {
+        return Collections.unmodifiableList(sent);
+    }
+
+    /**
+     * 发送到该收件人的邮件都会失败
+     */
+    public void failFor(String recipient) {
+        failingRecipients.add(recipient);
+    }
+
+    public int getConnections() {
+        return connections.get();
+    }
+}
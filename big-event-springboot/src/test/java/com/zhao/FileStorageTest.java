@@ -0,0 +1,169 @@
+package com.zhao;
+
+import com.aliyun.oss.OSS;
+import com.aliyun.oss.OSSException;
+import com.aliyun.oss.model.AbortMultipartUploadRequest;
+import com.aliyun.oss.model.CompleteMultipartUploadRequest;
+import com.aliyun.oss.model.InitiateMultipartUploadRequest;
+import com.aliyun.oss.model.InitiateMultipartUploadResult;
+import com.aliyun.oss.model.PartETag;
+import com.aliyun.oss.model.PutObjectRequest;
+import com.aliyun.oss.model.UploadPartRequest;
+import com.aliyun.oss.model.UploadPartResult;
+import com.zhao.storage.LocalFileStorage;
+import com.zhao.storage.OssFileStorage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 文件存储的测试：本地磁盘存储写出的内容与URL、URL前缀与访问路径一致，OSS小文件直接上传、大文件分片上传以及分片失败时取消上传
+ */
+public class FileStorageTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testLocalUpload() throws IOException {
+        LocalFileStorage storage = new LocalFileStorage();
+        ReflectionTestUtils.setField(storage, "dir", tempDir.resolve("upload").toString());
+        ReflectionTestUtils.setField(storage, "urlPrefix", "/files/");
+        storage.init();
+
+        Path file = Files.writeString(tempDir.resolve("a.txt"), "hello file");
+        assertEquals("/files/a.txt", storage.upload("a.txt", file));
+        assertEquals("hello file", Files.readString(tempDir.resolve("upload/a.txt")));
+
+        byte[] data = new byte[3 * 1024 * 1024 + 17];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        assertEquals("/files/b.bin", storage.upload("b.bin", new ByteArrayInputStream(data), data.length));
+        assertArrayEquals(data, Files.readAllBytes(tempDir.resolve("upload/b.bin")));
+        assertTrue(storage.exists("b.bin"));
+        assertFalse(storage.exists("missing.bin"));
+
+        // 文件名不能跳出存储目录
+        assertThrows(RuntimeException.class, () -> storage.upload("../c.txt", file));
+        assertFalse(Files.exists(tempDir.resolve("c.txt")));
+    }
+
+    @Test
+    public void testLocalUrlPrefix() throws IOException {
+        LocalFileStorage storage = new LocalFileStorage();
+        ReflectionTestUtils.setField(storage, "dir", tempDir.resolve("upload").toString());
+        ReflectionTestUtils.setField(storage, "urlPrefix", "/static/upload");
+        storage.init();
+
+        Path file = Files.writeString(tempDir.resolve("a.txt"), "hello file");
+        // 返回的URL与资源映射、登录拦截器排除的路径一致
+        assertEquals("/static/upload/a.txt", storage.upload("a.txt", file));
+        assertEquals("/static/upload/**", LocalFileStorage.pathPattern("/static/upload"));
+        assertEquals("/files/**", LocalFileStorage.pathPattern("/files/"));
+        assertThrows(IllegalStateException.class, () -> LocalFileStorage.pathPattern("https://cdn.example.com/files/"));
+    }
+
+    @Test
+    public void testOssSmallFilePutObject() throws IOException {
+        OSS ossClient = mock(OSS.class);
+        OssFileStorage storage = ossStorage(ossClient);
+
+        Path file = Files.writeString(tempDir.resolve("small.txt"), "small");
+        assertEquals("https://bucket.oss-cn-beijing.aliyuncs.com/small.txt", storage.upload("small.txt", file));
+        verify(ossClient).putObject(any(PutObjectRequest.class));
+        verify(ossClient, never()).initiateMultipartUpload(any());
+
+        storage.upload("stream.txt", new ByteArrayInputStream("stream".getBytes(StandardCharsets.UTF_8)), 6);
+        ArgumentCaptor<PutObjectRequest> request = ArgumentCaptor.forClass(PutObjectRequest.class);
+        verify(ossClient, times(2)).putObject(request.capture());
+        assertEquals("stream.txt", request.getValue().getKey());
+        assertEquals(6, request.getValue().getMetadata().getContentLength());
+    }
+
+    @Test
+    public void testOssMultipartUpload() throws IOException {
+        OSS ossClient = mock(OSS.class);
+        OssFileStorage storage = ossStorage(ossClient);
+        mockInitiate(ossClient);
+        when(ossClient.uploadPart(any(UploadPartRequest.class))).thenAnswer(invocation -> {
+            UploadPartRequest request = invocation.getArgument(0);
+            UploadPartResult result = new UploadPartResult();
+            result.setPartNumber(request.getPartNumber());
+            result.setETag("etag-" + request.getPartNumber());
+            return result;
+        });
+
+        // 分片大小100KB，250KB的文件分成100KB、100KB、50KB三片
+        Path file = Files.write(tempDir.resolve("big.bin"), new byte[250 * 1024]);
+        storage.upload("big.bin", file);
+
+        ArgumentCaptor<UploadPartRequest> parts = ArgumentCaptor.forClass(UploadPartRequest.class);
+        verify(ossClient, times(3)).uploadPart(parts.capture());
+        assertEquals(List.of(102400L, 102400L, 51200L),
+                parts.getAllValues().stream().map(UploadPartRequest::getPartSize).toList());
+
+        ArgumentCaptor<CompleteMultipartUploadRequest> complete = ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+        verify(ossClient).completeMultipartUpload(complete.capture());
+        assertEquals("upload-1", complete.getValue().getUploadId());
+        assertEquals(List.of(1, 2, 3), complete.getValue().getPartETags().stream().map(PartETag::getPartNumber).toList());
+        verify(ossClient, never()).abortMultipartUpload(any());
+    }
+
+    @Test
+    public void testOssMultipartAbortsOnPartFailure() throws IOException {
+        OSS ossClient = mock(OSS.class);
+        OssFileStorage storage = ossStorage(ossClient);
+        mockInitiate(ossClient);
+        when(ossClient.uploadPart(any(UploadPartRequest.class))).thenAnswer(invocation -> {
+            UploadPartRequest request = invocation.getArgument(0);
+            if (request.getPartNumber() == 2) {
+                throw new OSSException("part failed");
+            }
+            UploadPartResult result = new UploadPartResult();
+            result.setPartNumber(request.getPartNumber());
+            result.setETag("etag");
+            return result;
+        });
+
+        Path file = Files.write(tempDir.resolve("big.bin"), new byte[250 * 1024]);
+        IOException e = assertThrows(IOException.class, () -> storage.upload("big.bin", file));
+        assertInstanceOf(OSSException.class, e.getCause());
+
+        ArgumentCaptor<AbortMultipartUploadRequest> abort = ArgumentCaptor.forClass(AbortMultipartUploadRequest.class);
+        verify(ossClient).abortMultipartUpload(abort.capture());
+        assertEquals("upload-1", abort.getValue().getUploadId());
+        verify(ossClient, never()).completeMultipartUpload(any());
+    }
+
+    private OssFileStorage ossStorage(OSS ossClient) {
+        OssFileStorage storage = new OssFileStorage();
+        ReflectionTestUtils.setField(storage, "endpoint", "https://oss-cn-beijing.aliyuncs.com");
+        ReflectionTestUtils.setField(storage, "bucketName", "bucket");
+        ReflectionTestUtils.setField(storage, "multipartThreshold", 100 * 1024L);
+        ReflectionTestUtils.setField(storage, "partSize", 100 * 1024L);
+        // 分片在当前线程依次上传，结果确定
+        ReflectionTestUtils.setField(storage, "ossPartExecutor", new SyncTaskExecutor());
+        ReflectionTestUtils.setField(storage, "ossClient", ossClient);
+        return storage;
+    }
+
+    private static void mockInitiate(OSS ossClient) {
+        InitiateMultipartUploadResult initiate = new InitiateMultipartUploadResult();
+        initiate.setUploadId("upload-1");
+        when(ossClient.initiateMultipartUpload(any(InitiateMultipartUploadRequest.class))).thenReturn(initiate);
+    }
+}
@@ -0,0 +1,61 @@
+package com.zhao;
+
+import com.aliyun.oss.ClientException;
+import com.zhao.controller.FileUploadController;
+import com.zhao.exception.FileValidationException;
+import com.zhao.pojo.Result;
+import com.zhao.service.FileUploadService;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 流式上传接口的测试：校验不通过时返回提示，存储的异常信息不返回给用户
+ */
+public class FileUploadControllerTest {
+
+    private final FileUploadService fileUploadService = mock(FileUploadService.class);
+    private final FileUploadController controller = new FileUploadController();
+
+    public FileUploadControllerTest() {
+        ReflectionTestUtils.setField(controller, "fileUploadService", fileUploadService);
+    }
+
+    @Test
+    public void testValidationMessageReturned() throws IOException {
+        when(fileUploadService.uploadStream(any(), anyLong(), any()))
+                .thenThrow(new FileValidationException("只支持上传jpg、png、gif、webp格式的图片"));
+
+        assertEquals("只支持上传jpg、png、gif、webp格式的图片", upload().getMessage());
+    }
+
+    @Test
+    public void testWrappedValidationMessageReturned() throws IOException {
+        // OSS读取请求体时把超限异常包装成ClientException
+        when(fileUploadService.uploadStream(any(), anyLong(), any()))
+                .thenThrow(new ClientException(new FileValidationException("文件大小不能超过10MB")));
+
+        assertEquals("文件大小不能超过10MB", upload().getMessage());
+    }
+
+    @Test
+    public void testStorageErrorHidden() throws IOException {
+        when(fileUploadService.uploadStream(any(), anyLong(), any()))
+                .thenThrow(new ClientException("Connect to bucket.oss-cn-beijing.aliyuncs.com failed, RequestId: 123"));
+
+        assertEquals("文件上传失败", upload().getMessage());
+    }
+
+    private Result<String> upload() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/upload/stream");
+        request.setContent(new byte[16]);
+        request.setContentType("image/png");
+        return controller.uploadStream(request);
+    }
+}
@@ -0,0 +1,106 @@
+package com.zhao;
+
+import com.zhao.pojo.FollowUserVO;
+import com.zhao.storage.FileStorage;
+import com.zhao.storage.ImagePipeline;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 图片流水线的测试：生成缩略图并记录对应关系，队列满时跳过，列表中的头像替换成缩略图
+ */
+public class ImagePipelineTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final FileStorage fileStorage = mock(FileStorage.class);
+    private final StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final HashOperations<String, Object, Object> hashOperations = mock(HashOperations.class);
+
+    public ImagePipelineTest() {
+        when(stringRedisTemplate.opsForHash()).thenReturn(hashOperations);
+    }
+
+    @Test
+    public void testGeneratesThumbnail() throws Exception {
+        ImagePipeline pipeline = pipeline(new SyncTaskExecutor());
+        Path file = tempDir.resolve("avatar.png");
+        ImageIO.write(new BufferedImage(1200, 800, BufferedImage.TYPE_INT_RGB), "png", file.toFile());
+
+        List<int[]> sizes = new ArrayList<>();
+        when(fileStorage.upload(eq("avatar_thumb.jpg"), any(Path.class))).thenAnswer(invocation -> {
+            // 上传完成后临时文件会被删除，在这里读取尺寸
+            BufferedImage thumbnail = ImageIO.read(((Path) invocation.getArgument(1)).toFile());
+            sizes.add(new int[]{thumbnail.getWidth(), thumbnail.getHeight()});
+            return "https://cdn/avatar_thumb.jpg";
+        });
+
+        pipeline.submit("avatar.png", "https://cdn/avatar.png", file);
+
+        assertEquals(1, sizes.size());
+        assertArrayEquals(new int[]{480, 320}, sizes.get(0));
+        verify(hashOperations).put("image:variants", "https://cdn/avatar.png", "https://cdn/avatar_thumb.jpg");
+        // 原图的临时文件由流水线删除
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    public void testSkipsWhenQueueFull() throws Exception {
+        TaskExecutor rejecting = task -> {
+            throw new TaskRejectedException("队列已满");
+        };
+        ImagePipeline pipeline = pipeline(rejecting);
+        Path file = Files.write(tempDir.resolve("cover.png"), new byte[16]);
+
+        pipeline.submit("cover.png", "https://cdn/cover.png", file);
+
+        assertFalse(Files.exists(file));
+        verifyNoInteractions(fileStorage);
+    }
+
+    @Test
+    public void testUseAvatarThumbnails() {
+        ImagePipeline pipeline = pipeline(new SyncTaskExecutor());
+        FollowUserVO withThumb = new FollowUserVO();
+        withThumb.setUserPic("https://cdn/a.png");
+        FollowUserVO withoutThumb = new FollowUserVO();
+        withoutThumb.setUserPic("https://cdn/b.png");
+        FollowUserVO noAvatar = new FollowUserVO();
+        when(hashOperations.multiGet("image:variants", List.of("https://cdn/a.png", "https://cdn/b.png")))
+                .thenReturn(Arrays.asList("https://cdn/a_thumb.jpg", null));
+
+        pipeline.useThumbnails(List.of(withThumb, withoutThumb, noAvatar), FollowUserVO::getUserPic, FollowUserVO::setUserPic);
+
+        assertEquals("https://cdn/a_thumb.jpg", withThumb.getUserPic());
+        assertEquals("https://cdn/b.png", withoutThumb.getUserPic());
+        assertNull(noAvatar.getUserPic());
+    }
+
+    private ImagePipeline pipeline(TaskExecutor executor) {
+        ImagePipeline pipeline = new ImagePipeline();
+        ReflectionTestUtils.setField(pipeline, "fileStorage", fileStorage);
+        ReflectionTestUtils.setField(pipeline, "stringRedisTemplate", stringRedisTemplate);
+        ReflectionTestUtils.setField(pipeline, "imageExecutor", executor);
+        return pipeline;
+    }
+}
@@ -0,0 +1,187 @@
+package com.zhao;
+
+import com.zhao.mapper.InteractionMapper;
+import com.zhao.pojo.InteractionType;
+import com.zhao.service.impl.InteractionServiceImpl;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.session.SqlSessionManager;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 点赞的并发压力测试：大量并发的重复点击、切换之后，计数与有效的点赞记录数完全一致，且没有重复记录
+ * 需要MySQL，连接参数通过系统属性 stress.db.url / stress.db.username / stress.db.password 指定，
+ * 测试在单独的库 big_event_stress_test 中建表，结束后删除；连不上数据库时跳过
+ */
+public class InteractionConcurrencyTest {
+
+    private static final String DATABASE = "big_event_stress_test";
+    private static final String URL = System.getProperty("stress.db.url",
+            "jdbc:mysql://localhost:3306/?useSSL=false&serverTimezone=UTC&allowPublicKeyRetrieval=true&useAffectedRows=true");
+    private static final String USERNAME = System.getProperty("stress.db.username", "root");
+    private static final String PASSWORD = System.getProperty("stress.db.password", "root");
+
+    private static final int USERS = 50;
+    private static final int CLICKS_PER_USER = 20;
+    private static final int THREADS = 32;
+    private static final int ARTICLE_ID = 1;
+
+    private static PooledDataSource dataSource;
+    private static InteractionServiceImpl service;
+
+    @BeforeAll
+    public static void setUp() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(URL, USERNAME, PASSWORD);
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE DATABASE IF NOT EXISTS " + DATABASE);
+        } catch (SQLException e) {
+            Assumptions.abort("连接不上MySQL，跳过并发测试: " + e.getMessage());
+        }
+
+        dataSource = new PooledDataSource("com.mysql.cj.jdbc.Driver", URL, USERNAME, PASSWORD);
+        dataSource.setPoolMaximumActiveConnections(THREADS);
+        dataSource.setPoolMaximumIdleConnections(THREADS);
+        execute("USE " + DATABASE,
+                "DROP TABLE IF EXISTS article",
+                "DROP TABLE IF EXISTS article_like",
+                "CREATE TABLE article (id INT PRIMARY KEY, state VARCHAR(32), like_count INT DEFAULT 0, collect_count INT DEFAULT 0)",
+                "CREATE TABLE article_like (id INT AUTO_INCREMENT PRIMARY KEY, article_id INT NOT NULL, user_id INT NOT NULL, "
+                        + "create_time DATETIME, is_deleted TINYINT DEFAULT 0, UNIQUE KEY uk_like_article_user (article_id, user_id))");
+        // 之后每个连接都使用测试库
+        dataSource.setUrl(URL.replaceFirst("(jdbc:mysql://[^/]+/)[^?]*", "$1" + DATABASE));
+
+        Configuration configuration = new Configuration(new Environment("stress", new JdbcTransactionFactory(), dataSource));
+        configuration.setMapUnderscoreToCamelCase(true);
+        configuration.addMapper(InteractionMapper.class);
+        SqlSessionManager sessionManager = SqlSessionManager.newInstance(new SqlSessionFactoryBuilder().build(configuration));
+
+        service = new InteractionServiceImpl();
+        ReflectionTestUtils.setField(service, "interactionMapper", sessionManager.getMapper(InteractionMapper.class));
+        ReflectionTestUtils.setField(service, "eventPublisher", (ApplicationEventPublisher) event -> { });
+    }
+
+    @AfterAll
+    public static void tearDown() throws SQLException {
+        if (dataSource != null) {
+            execute("DROP DATABASE IF EXISTS " + DATABASE);
+            dataSource.forceCloseAll();
+        }
+    }
+
+    @BeforeEach
+    public void resetData() throws SQLException {
+        execute("USE " + DATABASE,
+                "DELETE FROM article_like",
+                "DELETE FROM article",
+                "INSERT INTO article (id, state, like_count) VALUES (" + ARTICLE_ID + ", '已发布', 0)");
+    }
+
+    @Test
+    public void testConcurrentDoubleClicks() throws Exception {
+        // 每个用户同时点很多次"点赞"，最终每人只算一次
+        runConcurrently((userId, click) -> service.toggle(InteractionType.ARTICLE_LIKE, userId, ARTICLE_ID, true));
+
+        assertEquals(USERS, likeCount());
+        assertEquals(USERS, activeLikes());
+        assertEquals(USERS, likeRows());
+    }
+
+    @Test
+    public void testConcurrentMixedToggles() throws Exception {
+        // 切换、点赞、取消随机混合，最终计数与有效记录数一致
+        runConcurrently((userId, click) -> {
+            int kind = ThreadLocalRandom.current().nextInt(3);
+            Boolean active = kind == 0 ? null : kind == 1;
+            service.toggle(InteractionType.ARTICLE_LIKE, userId, ARTICLE_ID, active);
+        });
+
+        int count = likeCount();
+        System.out.printf("%d个用户各并发操作%d次后: 点赞数 %d, 有效记录 %d%n", USERS, CLICKS_PER_USER, count, activeLikes());
+        assertEquals(activeLikes(), count);
+        assertTrue(likeRows() <= USERS);
+    }
+
+    private static void runConcurrently(Click click) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int user = 1; user <= USERS; user++) {
+                for (int i = 0; i < CLICKS_PER_USER; i++) {
+                    int userId = user;
+                    int clickNo = i;
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        click.run(userId, clickNo);
+                        return null;
+                    }));
+                }
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static int likeCount() throws SQLException {
+        return queryInt("SELECT like_count FROM article WHERE id = " + ARTICLE_ID);
+    }
+
+    private static int activeLikes() throws SQLException {
+        return queryInt("SELECT COUNT(*) FROM article_like WHERE article_id = " + ARTICLE_ID + " AND is_deleted = 0");
+    }
+
+    private static int likeRows() throws SQLException {
+        return queryInt("SELECT COUNT(*) FROM article_like WHERE article_id = " + ARTICLE_ID);
+    }
+
+    private static int queryInt(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static void execute(String... sqls) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            for (String sql : sqls) {
+                statement.execute(sql);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Click {
+        void run(Integer userId, int click) throws Exception;
+    }
+}
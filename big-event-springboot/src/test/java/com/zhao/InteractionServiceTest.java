@@ -0,0 +1,125 @@
+package com.zhao;
+
+import com.zhao.event.LikeToggledEvent;
+import com.zhao.mapper.InteractionMapper;
+import com.zhao.pojo.InteractionAction;
+import com.zhao.pojo.InteractionResult;
+import com.zhao.pojo.InteractionType;
+import com.zhao.service.impl.InteractionServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 批量互动的测试：按期望状态计算出需要插入、恢复、取消的目标，每种类型只执行一次批量写入
+ */
+public class InteractionServiceTest {
+
+    private final InteractionMapper interactionMapper = mock(InteractionMapper.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final InteractionServiceImpl service = new InteractionServiceImpl();
+
+    public InteractionServiceTest() {
+        ReflectionTestUtils.setField(service, "interactionMapper", interactionMapper);
+        ReflectionTestUtils.setField(service, "eventPublisher", eventPublisher);
+        // 没有并发修改时，受影响的行数等于目标数
+        when(interactionMapper.batchInsert(any(), any(), anyCollection(), any()))
+                .thenAnswer(invocation -> invocation.getArgument(2, Collection.class).size());
+        when(interactionMapper.batchUpdateDeleted(any(), any(), anyCollection(), any()))
+                .thenAnswer(invocation -> invocation.getArgument(2, Collection.class).size());
+    }
+
+    @Test
+    public void testArticleLikes() {
+        // 文章1未点赞过，2已取消点赞，3已点赞，4不存在
+        when(interactionMapper.findArticleIdsByState(anyCollection(), eq("已发布"))).thenReturn(List.of(1, 2, 3));
+        when(interactionMapper.findExistingTargetIds(eq(InteractionType.ARTICLE_LIKE), eq(9), anyCollection())).thenReturn(List.of(2, 3));
+        when(interactionMapper.findActiveTargetIds(eq(InteractionType.ARTICLE_LIKE), eq(9), anyCollection())).thenReturn(List.of(3));
+        when(interactionMapper.findCounts(eq(InteractionType.ARTICLE_LIKE), anyCollection())).thenReturn(List.of(
+                count(1, 5), count(2, 1), count(3, 0)));
+
+        List<InteractionResult> results = service.applyBatch(9, List.of(
+                action(InteractionType.ARTICLE_LIKE, 1, true),
+                action(InteractionType.ARTICLE_LIKE, 2, null),
+                action(InteractionType.ARTICLE_LIKE, 3, false),
+                // 同一目标再次提交期望状态，结果不变
+                action(InteractionType.ARTICLE_LIKE, 3, false),
+                action(InteractionType.ARTICLE_LIKE, 4, true)));
+
+        verify(interactionMapper).batchInsert(eq(InteractionType.ARTICLE_LIKE), eq(9), eq(List.of(1)), any());
+        verify(interactionMapper).batchUpdateDeleted(InteractionType.ARTICLE_LIKE, 9, List.of(2), 0);
+        verify(interactionMapper).batchUpdateDeleted(InteractionType.ARTICLE_LIKE, 9, List.of(3), 1);
+        verify(interactionMapper).batchUpdateCounts(InteractionType.ARTICLE_LIKE, Map.of(1, 1, 2, 1, 3, -1));
+
+        assertEquals(4, results.size());
+        assertTrue(results.get(0).getActive());
+        assertEquals(5, results.get(0).getCount());
+        assertTrue(results.get(1).getActive());
+        assertFalse(results.get(2).getActive());
+        assertNull(results.get(3).getActive());
+        assertEquals("文章不存在或未发布", results.get(3).getError());
+    }
+
+    @Test
+    public void testFollowPublishesOnlyChanges() {
+        when(interactionMapper.findUserIds(anyCollection())).thenReturn(new ArrayList<>(List.of(5, 6, 9)));
+        when(interactionMapper.findActiveTargetIds(eq(InteractionType.FOLLOW), eq(9), anyCollection())).thenReturn(List.of(6));
+
+        List<InteractionResult> results = service.applyBatch(9, List.of(
+                action(InteractionType.FOLLOW, 5, true),
+                action(InteractionType.FOLLOW, 6, true),
+                action(InteractionType.FOLLOW, 9, true)));
+
+        // 只有状态变化的目标发布事件，关注缓存在事务提交后由监听器更新
+        verify(eventPublisher).publishEvent(new LikeToggledEvent(InteractionType.FOLLOW, 9, 5, true));
+        verify(eventPublisher, times(1)).publishEvent(any(Object.class));
+        verify(interactionMapper, never()).batchUpdateCounts(any(), any());
+        assertEquals("不能关注自己", results.get(2).getError());
+    }
+
+    @Test
+    public void testConcurrentChangeRollsBack() {
+        when(interactionMapper.findArticleIdsByState(anyCollection(), eq("已发布"))).thenReturn(List.of(1));
+        // 读取状态后有并发请求先插入了记录，插入时没有新增行
+        when(interactionMapper.batchInsert(any(), any(), anyCollection(), any())).thenReturn(0);
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> service.applyBatch(9, List.of(action(InteractionType.ARTICLE_LIKE, 1, true))));
+        assertEquals("操作冲突，请重试", e.getMessage());
+        verify(interactionMapper, never()).batchUpdateCounts(any(), any());
+    }
+
+    @Test
+    public void testTooManyActions() {
+        List<InteractionAction> actions = new ArrayList<>();
+        for (int i = 0; i < 101; i++) {
+            actions.add(action(InteractionType.ARTICLE_LIKE, i, true));
+        }
+        assertThrows(RuntimeException.class, () -> service.applyBatch(9, actions));
+        verifyNoInteractions(interactionMapper);
+    }
+
+    private static InteractionAction action(InteractionType type, Integer targetId, Boolean active) {
+        InteractionAction action = new InteractionAction();
+        action.setType(type);
+        action.setTargetId(targetId);
+        action.setActive(active);
+        return action;
+    }
+
+    private static InteractionResult count(Integer targetId, Integer count) {
+        InteractionResult result = new InteractionResult();
+        result.setTargetId(targetId);
+        result.setCount(count);
+        return result;
+    }
+}
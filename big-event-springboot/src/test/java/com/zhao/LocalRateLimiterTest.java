@@ -0,0 +1,54 @@
+package com.zhao;
+
+import com.zhao.anno.RateLimit;
+import com.zhao.ratelimit.LocalRateLimiter;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 本地限流的测试，时间由测试控制
+ */
+public class LocalRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final LocalRateLimiter limiter = new LocalRateLimiter(now::get);
+
+    @Test
+    public void testSlidingWindow() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire("login:ip:1", RateLimit.Algorithm.SLIDING_WINDOW, 3, 60_000));
+            now.addAndGet(10_000);
+        }
+        assertFalse(limiter.tryAcquire("login:ip:1", RateLimit.Algorithm.SLIDING_WINDOW, 3, 60_000));
+        // 其他IP不受影响
+        assertTrue(limiter.tryAcquire("login:ip:2", RateLimit.Algorithm.SLIDING_WINDOW, 3, 60_000));
+        // 第一个请求滑出窗口后恢复一个配额
+        now.addAndGet(30_000);
+        assertTrue(limiter.tryAcquire("login:ip:1", RateLimit.Algorithm.SLIDING_WINDOW, 3, 60_000));
+        assertFalse(limiter.tryAcquire("login:ip:1", RateLimit.Algorithm.SLIDING_WINDOW, 3, 60_000));
+    }
+
+    @Test
+    public void testTokenBucket() {
+        // 容量10，60秒装满，即每6秒恢复一个令牌
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire("like:user:1", RateLimit.Algorithm.TOKEN_BUCKET, 10, 60_000));
+        }
+        assertFalse(limiter.tryAcquire("like:user:1", RateLimit.Algorithm.TOKEN_BUCKET, 10, 60_000));
+        now.addAndGet(6_000);
+        assertTrue(limiter.tryAcquire("like:user:1", RateLimit.Algorithm.TOKEN_BUCKET, 10, 60_000));
+        assertFalse(limiter.tryAcquire("like:user:1", RateLimit.Algorithm.TOKEN_BUCKET, 10, 60_000));
+    }
+
+    @Test
+    public void testSameKeyDifferentAlgorithms() {
+        // 两个限流同名但算法不同，各自计数，互不影响
+        assertTrue(limiter.tryAcquire("shared:user:1", RateLimit.Algorithm.SLIDING_WINDOW, 1, 60_000));
+        assertTrue(limiter.tryAcquire("shared:user:1", RateLimit.Algorithm.TOKEN_BUCKET, 1, 60_000));
+        assertFalse(limiter.tryAcquire("shared:user:1", RateLimit.Algorithm.SLIDING_WINDOW, 1, 60_000));
+        assertFalse(limiter.tryAcquire("shared:user:1", RateLimit.Algorithm.TOKEN_BUCKET, 1, 60_000));
+    }
+}
@@ -0,0 +1,86 @@
+package com.zhao;
+
+import com.zhao.cache.UserProfileCache;
+import com.zhao.context.UserContextHolder;
+import com.zhao.interceptors.LoginInterceptors;
+import com.zhao.utils.JwtUtil;
+import com.zhao.utils.ThreadLocalUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 登录拦截器的测试：返回CompletableFuture的接口开始异步处理后，请求线程上不会留下用户
+ */
+public class LoginInterceptorsTest {
+
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+    private final StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class);
+    private final UserProfileCache userProfileCache = mock(UserProfileCache.class);
+    private final MockMvc mockMvc;
+
+    public LoginInterceptorsTest() {
+        LoginInterceptors interceptor = new LoginInterceptors();
+        ReflectionTestUtils.setField(interceptor, "stringRedisTemplate", stringRedisTemplate);
+        ReflectionTestUtils.setField(interceptor, "userProfileCache", userProfileCache);
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        mockMvc = MockMvcBuilders.standaloneSetup(new AsyncController())
+                .addInterceptors(interceptor)
+                .build();
+    }
+
+    @AfterEach
+    public void clear() {
+        UserContextHolder.clear();
+    }
+
+    @Test
+    public void testAsyncHandlerLeavesNoUser() throws Exception {
+        String token = JwtUtil.genToken(Map.of("id", 7, "username", "zhangsan", "role", 2));
+        when(valueOperations.get(token)).thenReturn(token);
+
+        // MockMvc在当前线程执行请求，异步处理开始后当前线程就是"请求线程"
+        MvcResult result = mockMvc.perform(get("/async").header("Authorization", "Bearer " + token))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertNull(UserContextHolder.get());
+        assertNull(ThreadLocalUtil.get());
+
+        // 异步结果写回时拦截器再执行一次，完成后同样清空
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string("7"));
+        assertNull(UserContextHolder.get());
+        assertNull(ThreadLocalUtil.get());
+    }
+
+    @RestController
+    static class AsyncController {
+
+        @GetMapping("/async")
+        public CompletableFuture<String> async() {
+            // 在请求线程读取用户，异步线程只使用读到的值
+            Integer userId = UserContextHolder.currentUserId();
+            return CompletableFuture.supplyAsync(() -> String.valueOf(userId));
+        }
+    }
+}
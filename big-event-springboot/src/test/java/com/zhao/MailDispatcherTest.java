@@ -0,0 +1,248 @@
+package com.zhao;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zhao.mail.MailDispatcher;
+import com.zhao.mail.MailTask;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 邮件批量发送的测试，使用FakeMailSender代替真实的SMTP服务器，用内存中的列表模拟Redis，
+ * 只通过enqueue和启动、关闭驱动发送
+ */
+public class MailDispatcherTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final FakeMailSender sender = new FakeMailSender();
+    private final InMemoryRedis redis = new InMemoryRedis();
+    private MailDispatcher dispatcher;
+
+    @AfterEach
+    public void destroy() throws InterruptedException {
+        dispatcher.destroy();
+    }
+
+    @Test
+    public void testBatchUsesOneConnectionAndRetriesFailed() throws Exception {
+        sender.failFor("bad@example.com");
+        // 重启前留在队列中的三封邮件
+        redis.push("mail:queue", json(new MailTask("a@example.com", "验证码", "123456", 0)));
+        redis.push("mail:queue", json(new MailTask("bad@example.com", "验证码", "234567", 0)));
+        redis.push("mail:queue", json(new MailTask("b@example.com", "验证码", "345678", 0)));
+
+        dispatcher = dispatcher(10);
+        await(() -> sender.getSent().size() == 2 && redis.retryCount() == 1);
+
+        // 三封邮件一次发送，只有失败的那封进入重试队列
+        assertEquals(1, sender.getConnections());
+        assertEquals("noreply@example.com", sender.getSent().get(0).getFrom());
+        MailTask retry = objectMapper.readValue(redis.retryMembers().get(0), MailTask.class);
+        assertEquals("bad@example.com", retry.getTo());
+        assertEquals(1, retry.getAttempts());
+        // 处理完的邮件从处理中列表删除
+        await(() -> redis.processingSize() == 0);
+        assertEquals(0, redis.size("mail:queue"));
+    }
+
+    @Test
+    public void testEnqueueSendsImmediately() {
+        dispatcher = dispatcher(60_000);
+
+        assertTrue(dispatcher.enqueue("a@example.com", "验证码", "123456"));
+
+        await(() -> sender.getSent().size() == 1);
+        assertEquals("a@example.com", sender.getSent().get(0).getTo()[0]);
+    }
+
+    @Test
+    public void testEnqueueAfterShutdownKeepsMessage() throws InterruptedException {
+        dispatcher = dispatcher(60_000);
+        dispatcher.destroy();
+
+        // 发送线程已停止，邮件仍然放进队列，等待下一次发送
+        assertTrue(dispatcher.enqueue("a@example.com", "验证码", "123456"));
+        assertEquals(1, redis.size("mail:queue"));
+        assertTrue(sender.getSent().isEmpty());
+    }
+
+    @Test
+    public void testRecoversMailFromStaleNode() throws Exception {
+        // 另一个节点取出邮件后退出，心跳早已超时
+        redis.push("mail:processing:dead", json(new MailTask("a@example.com", "验证码", "123456", 0)));
+        redis.nodes.put("dead", "0");
+
+        dispatcher = dispatcher(10);
+
+        await(() -> sender.getSent().size() == 1);
+        assertEquals(0, redis.size("mail:processing:dead"));
+        assertFalse(redis.nodes.containsKey("dead"));
+    }
+
+    private MailDispatcher dispatcher(long pollIntervalMillis) {
+        MailDispatcher dispatcher = new MailDispatcher();
+        ReflectionTestUtils.setField(dispatcher, "mailSender", sender);
+        ReflectionTestUtils.setField(dispatcher, "stringRedisTemplate", redis);
+        ReflectionTestUtils.setField(dispatcher, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(dispatcher, "environment", new MockEnvironment());
+        ReflectionTestUtils.setField(dispatcher, "fromEmail", "noreply@example.com");
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 20);
+        ReflectionTestUtils.setField(dispatcher, "queueCapacity", 100L);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 5);
+        ReflectionTestUtils.setField(dispatcher, "initialBackoffMillis", 60_000L);
+        ReflectionTestUtils.setField(dispatcher, "pollIntervalMillis", pollIntervalMillis);
+        dispatcher.init();
+        return dispatcher;
+    }
+
+    private String json(MailTask task) throws Exception {
+        return objectMapper.writeValueAsString(task);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "等待超时");
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * 用内存中的数据模拟MailDispatcher用到的Redis命令和脚本
+     */
+    @SuppressWarnings("unchecked")
+    private static class InMemoryRedis extends StringRedisTemplate {
+        private final Map<String, LinkedList<String>> lists = new HashMap<>();
+        private final Map<String, Double> retry = new HashMap<>();
+        final Map<String, String> nodes = new HashMap<>();
+        private final ListOperations<String, String> listOperations = mock(ListOperations.class);
+        private final HashOperations<String, Object, Object> hashOperations = mock(HashOperations.class);
+        private final ZSetOperations<String, String> zSetOperations = mock(ZSetOperations.class);
+
+        InMemoryRedis() {
+            when(listOperations.size(anyString())).thenAnswer(i -> (long) size(i.getArgument(0)));
+            when(listOperations.rightPush(anyString(), anyString())).thenAnswer(i -> {
+                push(i.getArgument(0), i.getArgument(1));
+                return (long) size(i.getArgument(0));
+            });
+            doAnswer(i -> {
+                synchronized (this) {
+                    nodes.put(i.getArgument(1), i.getArgument(2));
+                }
+                return null;
+            }).when(hashOperations).put(anyString(), any(), any());
+            when(hashOperations.entries(anyString())).thenAnswer(i -> {
+                synchronized (this) {
+                    return new HashMap<Object, Object>(nodes);
+                }
+            });
+            when(zSetOperations.add(anyString(), anyString(), anyDouble())).thenAnswer(i -> {
+                synchronized (this) {
+                    retry.put(i.getArgument(1), i.getArgument(2));
+                }
+                return true;
+            });
+        }
+
+        @Override
+        public ListOperations<String, String> opsForList() {
+            return listOperations;
+        }
+
+        @Override
+        public <HK, HV> HashOperations<String, HK, HV> opsForHash() {
+            return (HashOperations<String, HK, HV>) (HashOperations<String, ?, ?>) hashOperations;
+        }
+
+        @Override
+        public ZSetOperations<String, String> opsForZSet() {
+            return zSetOperations;
+        }
+
+        @Override
+        public synchronized <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+            String first = keys.get(0);
+            if (first.equals("mail:retry")) {
+                // 到期的重试邮件移回队列，测试中的退避时间很长，不会到期
+                long now = Long.parseLong((String) args[0]);
+                List<String> due = retry.entrySet().stream().filter(e -> e.getValue() <= now).map(Map.Entry::getKey).toList();
+                due.forEach(m -> {
+                    retry.remove(m);
+                    push(keys.get(1), m);
+                });
+                return (T) Long.valueOf(due.size());
+            }
+            if (keys.size() == 2) {
+                List<String> claimed = new ArrayList<>();
+                LinkedList<String> queue = list(first);
+                for (int i = 0; i < Integer.parseInt((String) args[0]) && !queue.isEmpty(); i++) {
+                    String m = queue.removeFirst();
+                    list(keys.get(1)).addLast(m);
+                    claimed.add(m);
+                }
+                return (T) claimed;
+            }
+            if (keys.size() == 1) {
+                for (Object m : args) {
+                    list(first).removeFirstOccurrence(m);
+                }
+                return (T) Long.valueOf(args.length);
+            }
+            // 节点的处理中列表按原顺序放回队列头部
+            LinkedList<String> processing = list(first);
+            long moved = processing.size();
+            while (!processing.isEmpty()) {
+                list(keys.get(1)).addFirst(processing.removeLast());
+            }
+            nodes.remove((String) args[0]);
+            return (T) Long.valueOf(moved);
+        }
+
+        synchronized void push(String key, String value) {
+            list(key).addLast(value);
+        }
+
+        synchronized int size(String key) {
+            return list(key).size();
+        }
+
+        synchronized int processingSize() {
+            return lists.entrySet().stream().filter(e -> e.getKey().startsWith("mail:processing:"))
+                    .mapToInt(e -> e.getValue().size()).sum();
+        }
+
+        synchronized int retryCount() {
+            return retry.size();
+        }
+
+        synchronized List<String> retryMembers() {
+            return new ArrayList<>(retry.keySet());
+        }
+
+        private LinkedList<String> list(String key) {
+            return lists.computeIfAbsent(key, k -> new LinkedList<>());
+        }
+    }
+}
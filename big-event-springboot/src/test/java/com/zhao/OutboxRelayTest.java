@@ -0,0 +1,157 @@
+package com.zhao;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.zhao.event.CommentAddedEvent;
+import com.zhao.event.OutboxEvent;
+import com.zhao.mapper.OutboxMapper;
+import com.zhao.outbox.OutboxConsumer;
+import com.zhao.outbox.OutboxRelay;
+import com.zhao.pojo.OutboxMessage;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 事件发件箱投递的测试：用内存中的消费者代替真实的消费者，
+ * 重复投递的事件只处理一次，处理失败的事件回滚并按退避时间重试，超过次数后不再投递，
+ * 一个消费者失败重试时其他已处理完的消费者不再处理
+ */
+public class OutboxRelayTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final OutboxMapper outboxMapper = mock(OutboxMapper.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final EmbeddedConsumer consumer = new EmbeddedConsumer("embedded");
+    private final OutboxRelay relay = new OutboxRelay();
+    // 模拟 event_consumed 表
+    private final Set<String> consumed = new HashSet<>();
+    // 当前事务写入的处理记录，回滚时删除
+    private String lastConsumed;
+
+    public OutboxRelayTest() {
+        ReflectionTestUtils.setField(relay, "outboxMapper", outboxMapper);
+        ReflectionTestUtils.setField(relay, "consumers", List.of(consumer));
+        ReflectionTestUtils.setField(relay, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(relay, "batchSize", 100);
+        ReflectionTestUtils.setField(relay, "transactionTemplate", new TransactionTemplate(transactionManager));
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        // 事务回滚时处理记录也回滚
+        doAnswer(invocation -> {
+            consumed.remove(lastConsumed);
+            return null;
+        }).when(transactionManager).rollback(any());
+        when(outboxMapper.claim(anyString(), anyInt(), anyInt())).thenReturn(1);
+        when(outboxMapper.markConsumed(anyString(), anyLong())).thenAnswer(invocation -> {
+            String key = invocation.getArgument(0) + ":" + invocation.getArgument(1);
+            lastConsumed = key;
+            return consumed.add(key) ? 1 : 0;
+        });
+    }
+
+    @Test
+    public void testRedeliveryHandledOnce() throws Exception {
+        OutboxMessage first = message(1L, new CommentAddedEvent(10, 3, 0, 9), 0);
+        OutboxMessage second = message(2L, new CommentAddedEvent(11, 3, 10, 9), 0);
+        when(outboxMapper.findClaimed(anyString())).thenReturn(List.of(first, second));
+
+        assertEquals(2, relay.relay());
+        // 租约过期后同一批事件又被领取（比如节点在标记已投递前退出）
+        assertEquals(2, relay.relay());
+
+        assertEquals(List.of(10, 11), consumer.handled);
+        verify(outboxMapper, times(2)).markSent(1L);
+        verify(outboxMapper, times(2)).markSent(2L);
+        verify(outboxMapper, never()).markRetry(anyLong(), anyInt(), anyLong(), anyBoolean(), any());
+    }
+
+    @Test
+    public void testFailureRetriesWithBackoff() throws Exception {
+        consumer.failing = true;
+        when(outboxMapper.findClaimed(anyString())).thenReturn(List.of(message(1L, new CommentAddedEvent(10, 3, 0, 9), 0)));
+        assertEquals(0, relay.relay());
+        verify(outboxMapper).markRetry(eq(1L), eq(1), eq(2L), eq(false), anyString());
+        verify(outboxMapper, never()).markSent(anyLong());
+
+        // 处理记录已回滚，恢复后再次投递时会处理
+        consumer.failing = false;
+        assertEquals(1, relay.relay());
+        assertEquals(List.of(10), consumer.handled);
+
+        // 最后一次重试仍失败，不再投递
+        consumer.failing = true;
+        when(outboxMapper.findClaimed(anyString())).thenReturn(List.of(message(5L, new CommentAddedEvent(12, 3, 0, 9), 9)));
+        relay.relay();
+        verify(outboxMapper).markRetry(eq(5L), eq(10), eq(300L), eq(true), anyString());
+    }
+
+    @Test
+    public void testFailedConsumerDoesNotRepeatOthers() throws Exception {
+        EmbeddedConsumer counter = new EmbeddedConsumer("counter");
+        ReflectionTestUtils.setField(relay, "consumers", List.of(counter, consumer));
+        consumer.failing = true;
+        when(outboxMapper.findClaimed(anyString())).thenReturn(List.of(message(1L, new CommentAddedEvent(10, 3, 0, 9), 0)));
+
+        // 第二个消费者失败，第一个消费者的处理记录已经提交
+        assertEquals(0, relay.relay());
+        assertEquals(0, relay.relay());
+        consumer.failing = false;
+        assertEquals(1, relay.relay());
+
+        assertEquals(List.of(10), counter.handled);
+        assertEquals(List.of(10), consumer.handled);
+        verify(outboxMapper, times(1)).markSent(1L);
+    }
+
+    private OutboxMessage message(Long id, OutboxEvent event, int attempts) throws Exception {
+        OutboxMessage message = new OutboxMessage();
+        message.setId(id);
+        message.setEventType(event.getClass().getSimpleName());
+        message.setPayload(objectMapper.writeValueAsString(event));
+        message.setStatus(0);
+        message.setAttempts(attempts);
+        return message;
+    }
+
+    /**
+     * 内存中的消费者，记录处理过的评论ID
+     */
+    private static class EmbeddedConsumer implements OutboxConsumer {
+        private final String name;
+        private final List<Integer> handled = new ArrayList<>();
+        private boolean failing;
+
+        EmbeddedConsumer(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public boolean supports(OutboxEvent event) {
+            return event instanceof CommentAddedEvent;
+        }
+
+        @Override
+        public void handle(OutboxEvent event) {
+            if (failing) {
+                throw new IllegalStateException("消费者暂时不可用");
+            }
+            handled.add(((CommentAddedEvent) event).getCommentId());
+        }
+    }
+}
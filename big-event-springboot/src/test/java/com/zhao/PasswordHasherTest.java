@@ -0,0 +1,50 @@
+package com.zhao;
+
+import com.zhao.security.PasswordHasher;
+import org.junit.jupiter.api.Test;
+import org.mindrot.jbcrypt.BCrypt;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 密码哈希的测试
+ */
+public class PasswordHasherTest {
+
+    private PasswordHasher hasher(int cost) {
+        PasswordHasher hasher = new PasswordHasher();
+        ReflectionTestUtils.setField(hasher, "passwordExecutor", new SyncTaskExecutor());
+        ReflectionTestUtils.setField(hasher, "cost", cost);
+        hasher.init();
+        return hasher;
+    }
+
+    @Test
+    public void testHashAndVerify() {
+        PasswordHasher hasher = hasher(4);
+        String hashed = hasher.hash("user1234");
+        assertTrue(hashed.startsWith("$2a$04$"));
+        assertTrue(hasher.verify("user1234", hashed));
+        assertFalse(hasher.verify("user12345", hashed));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRehashAndMetrics() {
+        // 旧密码用强度5哈希，配置调整为强度4后需要重新哈希
+        String old = BCrypt.hashpw("user1234", BCrypt.gensalt(5));
+        PasswordHasher hasher = hasher(4);
+        assertTrue(hasher.needsRehash(old));
+        assertFalse(hasher.needsRehash(hasher.hash("user1234")));
+        assertTrue(hasher.verify("user1234", old));
+
+        Map<String, Object> metrics = hasher.metrics();
+        assertEquals(1L, ((Map<String, Object>) metrics.get("hash")).get("count"));
+        assertEquals(1L, ((Map<String, Object>) metrics.get("verify")).get("count"));
+        assertEquals(2L, ((Map<String, Object>) metrics.get("queueWait")).get("count"));
+    }
+}
@@ -0,0 +1,151 @@
+package com.zhao;
+
+import com.zhao.cache.PublishedArticleCache;
+import com.zhao.mapper.ArticleMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 已发布文章缓存的测试：集合未加载时按文章状态返回，由抢到加载锁的请求交给后台线程加载；
+ * 没抢到锁或已标记为文章太多时不加载，文章太多时记下标记
+ */
+public class PublishedArticleCacheTest {
+
+    private final ArticleMapper articleMapper = mock(ArticleMapper.class);
+    private final ScriptedRedis redis = new ScriptedRedis();
+    private final PublishedArticleCache cache = new PublishedArticleCache();
+    // 加载文章ID的线程
+    private final List<String> loadThreads = new CopyOnWriteArrayList<>();
+
+    public PublishedArticleCacheTest() {
+        ReflectionTestUtils.setField(cache, "stringRedisTemplate", redis);
+        ReflectionTestUtils.setField(cache, "articleMapper", articleMapper);
+        ReflectionTestUtils.setField(cache, "environment", new MockEnvironment());
+        cache.init();
+        when(articleMapper.findStateById(1)).thenReturn("已发布");
+    }
+
+    @AfterEach
+    public void destroy() throws InterruptedException {
+        cache.destroy();
+    }
+
+    @Test
+    public void testMissLoadsInBackground() {
+        redis.memberResult = -1L;
+        when(articleMapper.findPublishedIdsAfter(0, 1000)).thenAnswer(invocation -> {
+            loadThreads.add(Thread.currentThread().getName());
+            return List.of(1, 2);
+        });
+
+        assertEquals("已发布", cache.getState(1));
+
+        await(() -> redis.scripts.contains("unlock"));
+        assertEquals(1, loadThreads.size());
+        assertTrue(loadThreads.get(0).startsWith("published-article-load"), loadThreads.get(0));
+        assertTrue(redis.scripts.contains("commit"));
+    }
+
+    @Test
+    public void testNoLoadWithoutLock() throws InterruptedException {
+        redis.memberResult = -2L;
+
+        assertEquals("已发布", cache.getState(1));
+
+        Thread.sleep(100);
+        verify(articleMapper, never()).findPublishedIdsAfter(any(), anyInt());
+        assertFalse(redis.scripts.contains("unlock"));
+    }
+
+    @Test
+    public void testTooManyMarked() {
+        redis.memberResult = -1L;
+        List<Integer> page = IntStream.rangeClosed(1, 1000).boxed().toList();
+        when(articleMapper.findPublishedIdsAfter(any(), eq(1000))).thenReturn(page);
+
+        cache.getState(1);
+
+        await(() -> redis.scripts.contains("unlock"));
+        verify(redis.valueOperations).set("article:published:too-many", "1", 1, TimeUnit.HOURS);
+        assertFalse(redis.scripts.contains("commit"));
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "等待超时");
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * 按脚本内容返回预设结果，记录执行过的脚本
+     */
+    @SuppressWarnings("unchecked")
+    private static class ScriptedRedis extends StringRedisTemplate {
+        private final ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+        private final SetOperations<String, String> setOperations = mock(SetOperations.class);
+        private final List<String> scripts = new CopyOnWriteArrayList<>();
+        private volatile Long memberResult;
+
+        @Override
+        public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+            String text = script.getScriptAsString();
+            if (text.contains("sismember")) {
+                scripts.add("member");
+                return (T) memberResult;
+            }
+            if (text.contains("rename")) {
+                scripts.add("commit");
+                return (T) Long.valueOf(1);
+            }
+            if (text.contains("'del'")) {
+                scripts.add("unlock");
+                return (T) Long.valueOf(1);
+            }
+            scripts.add("update");
+            return (T) Long.valueOf(0);
+        }
+
+        @Override
+        public ValueOperations<String, String> opsForValue() {
+            return valueOperations;
+        }
+
+        @Override
+        public SetOperations<String, String> opsForSet() {
+            return setOperations;
+        }
+
+        @Override
+        public Boolean expire(String key, long timeout, TimeUnit unit) {
+            return true;
+        }
+
+        @Override
+        public Boolean delete(String key) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.zhao;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.zhao.event.ArticlePublishedEvent;
+import com.zhao.event.BroadcastEvent;
+import com.zhao.event.RedisEventBridge;
+import com.zhao.event.RemoteDomainEvent;
+import com.zhao.event.UserProfileChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 领域事件广播的测试：一个节点发出的事件在另一个节点还原成相同的事件，自己发出的消息、未知类型和不需要广播的事件类型被忽略
+ */
+public class RedisEventBridgeTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class);
+    private final ApplicationEventPublisher senderPublisher = mock(ApplicationEventPublisher.class);
+    private final ApplicationEventPublisher receiverPublisher = mock(ApplicationEventPublisher.class);
+    private final RedisEventBridge sender = bridge(senderPublisher);
+    private final RedisEventBridge receiver = bridge(receiverPublisher);
+
+    @Test
+    public void testEventsCrossNodes() {
+        List<UserProfileChangedEvent> events = List.of(new UserProfileChangedEvent(7), new UserProfileChangedEvent(8));
+
+        for (BroadcastEvent event : events) {
+            byte[] body = send(event);
+            receiver.onMessage(new DefaultMessage(RedisEventBridge.CHANNEL.getBytes(StandardCharsets.UTF_8), body), null);
+            // 发出消息的节点收到自己的消息时不再发布
+            sender.onMessage(new DefaultMessage(RedisEventBridge.CHANNEL.getBytes(StandardCharsets.UTF_8), body), null);
+        }
+
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(receiverPublisher, times(2)).publishEvent(captor.capture());
+        assertEquals(events.get(0), ((RemoteDomainEvent) captor.getAllValues().get(0)).getEvent());
+        assertEquals(events.get(1), ((RemoteDomainEvent) captor.getAllValues().get(1)).getEvent());
+        verifyNoInteractions(senderPublisher);
+    }
+
+    @Test
+    public void testIgnoresUnknownTypes() {
+        String body = "{\"origin\":\"other\",\"type\":\"RemoteDomainEvent\",\"payload\":{}}";
+        receiver.onMessage(new DefaultMessage(RedisEventBridge.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8)), null);
+        body = "{\"origin\":\"other\",\"type\":\"NoSuchEvent\",\"payload\":{}}";
+        receiver.onMessage(new DefaultMessage(RedisEventBridge.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8)), null);
+        // 领域事件但不需要广播，其他节点也不处理
+        ArticlePublishedEvent published = new ArticlePublishedEvent(3, 7, LocalDateTime.of(2025, 1, 2, 3, 4, 5));
+        body = "{\"origin\":\"other\",\"type\":\"ArticlePublishedEvent\",\"payload\":"
+                + objectMapper.valueToTree(published) + "}";
+        receiver.onMessage(new DefaultMessage(RedisEventBridge.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8)), null);
+        verifyNoInteractions(receiverPublisher);
+    }
+
+    private byte[] send(BroadcastEvent event) {
+        clearInvocations(stringRedisTemplate);
+        sender.broadcast(event);
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(stringRedisTemplate).convertAndSend(eq(RedisEventBridge.CHANNEL), message.capture());
+        return message.getValue().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private RedisEventBridge bridge(ApplicationEventPublisher publisher) {
+        RedisEventBridge bridge = new RedisEventBridge();
+        ReflectionTestUtils.setField(bridge, "stringRedisTemplate", stringRedisTemplate);
+        ReflectionTestUtils.setField(bridge, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(bridge, "eventPublisher", publisher);
+        return bridge;
+    }
+}
@@ -0,0 +1,119 @@
+package com.zhao;
+
+import com.zhao.sms.SmsDispatcher;
+import com.zhao.sms.SmsProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 短信发送队列的测试：失败重试、重试用完后回调、队列满时拒绝、连续失败后熔断，以及发送线程的命名
+ */
+public class SmsDispatcherTest {
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private final List<String> threadNames = new CopyOnWriteArrayList<>();
+    // 前failures次调用失败
+    private volatile int failures;
+    // 不为null时发送会等待它放行
+    private volatile CountDownLatch gate;
+
+    private final SmsProvider provider = (target, code, expiryMinutes) -> {
+        threadNames.add(Thread.currentThread().getName());
+        if (gate != null) {
+            gate.await(5, TimeUnit.SECONDS);
+        }
+        if (calls.incrementAndGet() <= failures) {
+            throw new IllegalStateException("服务商不可用");
+        }
+    };
+
+    private SmsDispatcher dispatcher;
+
+    @AfterEach
+    public void destroy() throws InterruptedException {
+        if (gate != null) {
+            gate.countDown();
+        }
+        dispatcher.destroy();
+    }
+
+    @Test
+    public void testRetriesUntilSent() throws InterruptedException {
+        failures = 2;
+        dispatcher = dispatcher(2, 100, 3, 10, 5);
+        CountDownLatch gaveUp = new CountDownLatch(1);
+
+        assertTrue(dispatcher.enqueue("13800000000", "123456", 5, gaveUp::countDown));
+
+        assertFalse(gaveUp.await(1, TimeUnit.SECONDS));
+        assertEquals(3, calls.get());
+        assertFalse(dispatcher.isCircuitOpen());
+        for (String name : threadNames) {
+            assertTrue(name.matches("sms-dispatch-\\d+"), name);
+        }
+    }
+
+    @Test
+    public void testGivesUpAfterMaxAttempts() throws InterruptedException {
+        failures = Integer.MAX_VALUE;
+        dispatcher = dispatcher(1, 100, 2, 10, 5);
+        CountDownLatch gaveUp = new CountDownLatch(1);
+
+        assertTrue(dispatcher.enqueue("13800000000", "123456", 5, gaveUp::countDown));
+
+        assertTrue(gaveUp.await(5, TimeUnit.SECONDS));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void testRejectsWhenQueueFull() {
+        gate = new CountDownLatch(1);
+        dispatcher = dispatcher(1, 2, 1, 10, 5);
+
+        assertTrue(dispatcher.enqueue("13800000001", "111111", 5, null));
+        assertTrue(dispatcher.enqueue("13800000002", "222222", 5, null));
+        // 前两条还没发完，第三条超过队列容量
+        assertFalse(dispatcher.enqueue("13800000003", "333333", 5, null));
+    }
+
+    @Test
+    public void testCircuitOpensAfterFailures() throws InterruptedException {
+        failures = Integer.MAX_VALUE;
+        dispatcher = dispatcher(1, 100, 1, 10, 2);
+        CountDownLatch gaveUp = new CountDownLatch(2);
+
+        // 熔断阈值为2，两条都失败后熔断
+        assertTrue(dispatcher.enqueue("13800000001", "111111", 5, gaveUp::countDown));
+        assertTrue(dispatcher.enqueue("13800000002", "222222", 5, gaveUp::countDown));
+        assertTrue(gaveUp.await(5, TimeUnit.SECONDS));
+
+        assertTrue(dispatcher.isCircuitOpen());
+        assertFalse(dispatcher.enqueue("13800000003", "333333", 5, null));
+        assertEquals(2, calls.get());
+    }
+
+    private SmsDispatcher dispatcher(int threads, int queueCapacity, int maxAttempts, long initialBackoffMillis,
+                                     int failureThreshold) {
+        SmsDispatcher dispatcher = new SmsDispatcher();
+        ReflectionTestUtils.setField(dispatcher, "smsProvider", provider);
+        ReflectionTestUtils.setField(dispatcher, "environment", new MockEnvironment());
+        ReflectionTestUtils.setField(dispatcher, "threads", threads);
+        ReflectionTestUtils.setField(dispatcher, "queueCapacity", queueCapacity);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", maxAttempts);
+        ReflectionTestUtils.setField(dispatcher, "initialBackoffMillis", initialBackoffMillis);
+        ReflectionTestUtils.setField(dispatcher, "failureThreshold", failureThreshold);
+        ReflectionTestUtils.setField(dispatcher, "openMillis", 60_000L);
+        dispatcher.init();
+        return dispatcher;
+    }
+}
@@ -0,0 +1,115 @@
+package com.zhao;
+
+import com.zhao.exception.FileValidationException;
+import com.zhao.storage.FileTypeDetector;
+import com.zhao.storage.SizeLimitInputStream;
+import com.zhao.storage.TempFileSpooler;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 流式上传相关工具的测试，并对比整包读入内存与流式写入临时文件的堆分配量
+ */
+public class StreamingUploadTest {
+
+    private static final int FILE_SIZE = 8 * 1024 * 1024;
+
+    @Test
+    public void testDetectExtension() {
+        byte[] png = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0, 0, 0, 0};
+        assertEquals(".png", FileTypeDetector.detectExtension(png, png.length));
+
+        byte[] jpg = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0};
+        assertEquals(".jpg", FileTypeDetector.detectExtension(jpg, jpg.length));
+
+        byte[] webp = "RIFF\0\0\0\0WEBP".getBytes();
+        assertEquals(".webp", FileTypeDetector.detectExtension(webp, webp.length));
+
+        byte[] text = "hello world!".getBytes();
+        assertNull(FileTypeDetector.detectExtension(text, text.length));
+        // 文件太短
+        assertNull(FileTypeDetector.detectExtension(jpg, 2));
+    }
+
+    @Test
+    public void testSizeLimit() {
+        InputStream in = new SizeLimitInputStream(new ZeroInputStream(2048), 1024);
+        FileValidationException e = assertThrows(FileValidationException.class, () -> in.readAllBytes());
+        assertTrue(e.getMessage().contains("文件大小不能超过"));
+    }
+
+    @Test
+    public void testSpoolKeepsHeapFlat() throws IOException {
+        com.sun.management.ThreadMXBean threadMXBean = threadMXBean();
+
+        // 整个文件读入内存（相当于内存中的multipart缓冲）
+        long before = threadMXBean.getCurrentThreadAllocatedBytes();
+        byte[] all = new SizeLimitInputStream(new ZeroInputStream(FILE_SIZE), FILE_SIZE).readAllBytes();
+        long buffered = threadMXBean.getCurrentThreadAllocatedBytes() - before;
+        assertEquals(FILE_SIZE, all.length);
+
+        // 流式写入临时文件
+        before = threadMXBean.getCurrentThreadAllocatedBytes();
+        Path temp = TempFileSpooler.spool(new SizeLimitInputStream(new ZeroInputStream(FILE_SIZE), FILE_SIZE));
+        long streamed = threadMXBean.getCurrentThreadAllocatedBytes() - before;
+        try {
+            assertEquals(FILE_SIZE, Files.size(temp));
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        System.out.printf("每个上传的堆分配: 整包读入 %d KB, 流式写入 %d KB%n", buffered / 1024, streamed / 1024);
+        assertTrue(buffered >= FILE_SIZE);
+        // 流式写入只用固定大小的缓冲区，分配量与文件大小无关
+        assertTrue(streamed < FILE_SIZE / 8, "流式写入分配了 " + streamed + " 字节");
+    }
+
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(bean instanceof com.sun.management.ThreadMXBean, "当前JVM不支持统计线程分配量");
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) bean;
+        Assumptions.assumeTrue(threadMXBean.isThreadAllocatedMemorySupported());
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+        return threadMXBean;
+    }
+
+    /**
+     * 产生指定长度全0数据的输入流，本身不分配内存
+     */
+    private static class ZeroInputStream extends InputStream {
+        private long remaining;
+
+        ZeroInputStream(long size) {
+            this.remaining = size;
+        }
+
+        @Override
+        public int read() {
+            if (remaining <= 0) {
+                return -1;
+            }
+            remaining--;
+            return 0;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int n = (int) Math.min(len, remaining);
+            Arrays.fill(b, off, off + n, (byte) 0);
+            remaining -= n;
+            return n;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.zhao;
+
+import com.zhao.event.ArticlePublishedEvent;
+import com.zhao.event.ArticleUnpublishedEvent;
+import com.zhao.mapper.ArticleMapper;
+import com.zhao.outbox.TimelineConsumer;
+import com.zhao.pojo.Article;
+import com.zhao.service.TimelineService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 时间线消费者的测试：按文章当前状态推送或移除，乱序投递的事件不会把时间线改回旧状态，推送失败时异常交给投递方重试
+ */
+public class TimelineConsumerTest {
+
+    private final TimelineService timelineService = mock(TimelineService.class);
+    private final ArticleMapper articleMapper = mock(ArticleMapper.class);
+    private final TimelineConsumer consumer = new TimelineConsumer();
+    private final LocalDateTime createTime = LocalDateTime.of(2025, 1, 2, 3, 4, 5);
+
+    public TimelineConsumerTest() {
+        ReflectionTestUtils.setField(consumer, "timelineService", timelineService);
+        ReflectionTestUtils.setField(consumer, "articleMapper", articleMapper);
+    }
+
+    @Test
+    public void testPublishedArticleFansOut() {
+        when(articleMapper.findById(3)).thenReturn(article(3, "已发布"));
+
+        consumer.handle(new ArticlePublishedEvent(3, 7, createTime));
+
+        ArgumentCaptor<Article> captor = ArgumentCaptor.forClass(Article.class);
+        verify(timelineService).fanOut(captor.capture());
+        assertEquals(7, captor.getValue().getCreateUser());
+        assertEquals(createTime, captor.getValue().getCreateTime());
+        verify(timelineService, never()).retract(any());
+    }
+
+    @Test
+    public void testRetriedPublishAfterUnpublishRetracts() {
+        // 发布事件重试时文章已经撤回，撤回事件已先处理
+        when(articleMapper.findById(3)).thenReturn(article(3, "草稿"));
+
+        consumer.handle(new ArticlePublishedEvent(3, 7, createTime));
+
+        ArgumentCaptor<Article> captor = ArgumentCaptor.forClass(Article.class);
+        verify(timelineService).retract(captor.capture());
+        assertEquals(3, captor.getValue().getId());
+        assertEquals(7, captor.getValue().getCreateUser());
+        verify(timelineService, never()).fanOut(any());
+    }
+
+    @Test
+    public void testLateUnpublishOfRepublishedArticleFansOut() {
+        // 撤回后又重新发布，晚到的撤回事件不能把文章移出时间线
+        when(articleMapper.findById(3)).thenReturn(article(3, "已发布"));
+
+        consumer.handle(new ArticleUnpublishedEvent(3, 7));
+
+        verify(timelineService).fanOut(any());
+        verify(timelineService, never()).retract(any());
+    }
+
+    @Test
+    public void testDeletedArticleRetracts() {
+        consumer.handle(new ArticleUnpublishedEvent(3, 7));
+
+        verify(timelineService).retract(any());
+        verify(timelineService, never()).fanOut(any());
+    }
+
+    @Test
+    public void testFailurePropagates() {
+        when(articleMapper.findById(3)).thenReturn(article(3, "已发布"));
+        doThrow(new IllegalStateException("redis down")).when(timelineService).fanOut(any());
+
+        assertThrows(IllegalStateException.class, () -> consumer.handle(new ArticlePublishedEvent(3, 7, createTime)));
+    }
+
+    private Article article(Integer id, String state) {
+        Article article = new Article();
+        article.setId(id);
+        article.setCreateUser(7);
+        article.setCreateTime(createTime);
+        article.setState(state);
+        return article;
+    }
+}
@@ -0,0 +1,79 @@
+package com.zhao;
+
+import com.zhao.storage.FileStorage;
+import com.zhao.storage.UploadDigestIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 上传摘要索引的测试：命中时返回已有URL，未命中时返回null，文件已被删除的旧索引会被移除
+ */
+public class UploadDigestIndexTest {
+
+    private final StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final HashOperations<String, Object, Object> hashOperations = mock(HashOperations.class);
+    private final FileStorage fileStorage = mock(FileStorage.class);
+    private final UploadDigestIndex index = new UploadDigestIndex();
+    private final String digest = digest("hello");
+
+    public UploadDigestIndexTest() {
+        ReflectionTestUtils.setField(index, "stringRedisTemplate", stringRedisTemplate);
+        ReflectionTestUtils.setField(index, "fileStorage", fileStorage);
+        when(stringRedisTemplate.opsForHash()).thenReturn(hashOperations);
+    }
+
+    @Test
+    public void testHit() throws IOException {
+        String url = "https://bucket.oss-cn-beijing.aliyuncs.com/" + digest + ".png";
+        when(hashOperations.get("upload:digest", digest)).thenReturn(url);
+        when(fileStorage.exists(digest + ".png")).thenReturn(true);
+
+        assertEquals(url, index.find(digest));
+        verify(hashOperations, never()).delete(anyString(), any());
+    }
+
+    @Test
+    public void testMiss() throws IOException {
+        assertNull(index.find(digest));
+        verify(fileStorage, never()).exists(anyString());
+
+        index.record(digest, "/files/" + digest + ".png");
+        verify(hashOperations).putIfAbsent("upload:digest", digest, "/files/" + digest + ".png");
+    }
+
+    @Test
+    public void testStaleEntryRemoved() throws IOException {
+        when(hashOperations.get("upload:digest", digest)).thenReturn("/files/" + digest + ".png");
+        when(fileStorage.exists(digest + ".png")).thenReturn(false);
+
+        assertNull(index.find(digest));
+        verify(hashOperations).delete("upload:digest", digest);
+    }
+
+    @Test
+    public void testStorageUnavailableKeepsEntry() throws IOException {
+        when(hashOperations.get("upload:digest", digest)).thenReturn("/files/" + digest + ".png");
+        when(fileStorage.exists(digest + ".png")).thenThrow(new IOException("timeout"));
+
+        // 确认不了时按新文件上传，但不删除索引
+        assertNull(index.find(digest));
+        verify(hashOperations, never()).delete(anyString(), any());
+    }
+
+    private static String digest(String content) {
+        MessageDigest md = UploadDigestIndex.newDigest();
+        md.update(content.getBytes(StandardCharsets.UTF_8));
+        return UploadDigestIndex.toHex(md);
+    }
+}
@@ -0,0 +1,62 @@
+package com.zhao;
+
+import com.zhao.context.CurrentUser;
+import com.zhao.context.UserContextHolder;
+import com.zhao.utils.ThreadLocalUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 用户上下文的测试
+ */
+public class UserContextHolderTest {
+
+    @AfterEach
+    public void clear() {
+        UserContextHolder.clear();
+    }
+
+    @Test
+    public void testThreadLocalUtilCompatible() {
+        ThreadLocalUtil.set(Map.of("id", 7, "username", "zhangsan", "role", 2));
+        assertEquals(7, UserContextHolder.currentUserId());
+        Map<String, Object> claims = ThreadLocalUtil.get();
+        assertEquals("zhangsan", claims.get("username"));
+        ThreadLocalUtil.remove();
+        assertNull(UserContextHolder.get());
+        assertNull(ThreadLocalUtil.get());
+    }
+
+    @Test
+    public void testRunWithRestoresPrevious() {
+        UserContextHolder.set(new CurrentUser(1, "admin1", 0));
+        UserContextHolder.runWith(new CurrentUser(2, "user2", 2),
+                () -> assertEquals(2, UserContextHolder.currentUserId()));
+        assertEquals(1, UserContextHolder.currentUserId());
+    }
+
+    @Test
+    public void testPropagatesToExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setTaskDecorator(UserContextHolder.taskDecorator());
+        executor.initialize();
+        try {
+            UserContextHolder.set(new CurrentUser(3, "user3", 2));
+            Integer seen = CompletableFuture.supplyAsync(UserContextHolder::currentUserId, executor).join();
+            assertEquals(3, seen);
+
+            // 任务执行完后，线程池的线程上不会留下用户
+            UserContextHolder.clear();
+            assertNull(CompletableFuture.supplyAsync(UserContextHolder::currentUserId, executor).join());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.zhao;
+
+import com.zhao.cache.UserProfileCache;
+import com.zhao.mapper.UserMapper;
+import com.zhao.pojo.UserProfile;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 用户资料缓存的测试：本机命中不访问Redis和数据库，清除后重新加载，命中率统计正确
+ */
+public class UserProfileCacheTest {
+
+    @SuppressWarnings("unchecked")
+    private final RedisTemplate<String, Object> redisTemplate = mock(RedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, Object> valueOperations = mock(ValueOperations.class);
+    private final UserMapper userMapper = mock(UserMapper.class);
+    private final UserProfileCache cache = new UserProfileCache();
+
+    public UserProfileCacheTest() {
+        ReflectionTestUtils.setField(cache, "redisTemplate", redisTemplate);
+        ReflectionTestUtils.setField(cache, "userMapper", userMapper);
+        ReflectionTestUtils.setField(cache, "localTtlSeconds", 30L);
+        ReflectionTestUtils.setField(cache, "localMaxSize", 100);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    public void testLocalHitAndEvict() {
+        UserProfile profile = new UserProfile();
+        profile.setId(1);
+        profile.setNickname("小赵");
+        profile.setStatus(0);
+        when(userMapper.findProfileById(1)).thenReturn(profile);
+
+        assertSame(profile, cache.get(1));
+        assertSame(profile, cache.get(1));
+        assertSame(profile, cache.get(1));
+        verify(userMapper, times(1)).findProfileById(1);
+        verify(valueOperations, times(1)).get("user:profile:1");
+
+        // 封禁后清除，下次从数据库读取新的状态
+        UserProfile banned = new UserProfile();
+        banned.setId(1);
+        banned.setStatus(1);
+        when(userMapper.findProfileById(1)).thenReturn(banned);
+        cache.evict(1);
+        verify(redisTemplate).delete("user:profile:1");
+        assertEquals(1, cache.get(1).getStatus());
+
+        Map<String, Object> metrics = cache.metrics();
+        assertEquals(2L, metrics.get("localHits"));
+        assertEquals(0L, metrics.get("redisHits"));
+        assertEquals(2L, metrics.get("misses"));
+        assertEquals(0.5, (double) metrics.get("hitRate"), 1e-9);
+    }
+
+    @Test
+    public void testRedisHitAndRedisFailure() {
+        UserProfile profile = new UserProfile();
+        profile.setId(2);
+        when(valueOperations.get("user:profile:2")).thenReturn(profile);
+        assertSame(profile, cache.get(2));
+        verifyNoInteractions(userMapper);
+
+        // Redis不可用时直接读取数据库
+        when(valueOperations.get("user:profile:3")).thenThrow(new RuntimeException("连接失败"));
+        UserProfile fromDb = new UserProfile();
+        fromDb.setId(3);
+        when(userMapper.findProfileById(3)).thenReturn(fromDb);
+        assertSame(fromDb, cache.get(3));
+        assertNull(cache.get(4));
+        verify(valueOperations, never()).set(eq("user:profile:4"), any(), anyLong(), any());
+    }
+}
@@ -0,0 +1,59 @@
+package com.zhao;
+
+import com.zhao.verify.LocalVerificationCodeStore;
+import com.zhao.verify.VerifyResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 验证码存储的测试，使用内存版本，时间由测试控制
+ */
+public class VerificationCodeStoreTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final LocalVerificationCodeStore store = new LocalVerificationCodeStore(3, now::get);
+
+    @Test
+    public void testRateLimit() {
+        assertTrue(store.issue("sms:login:1", "sms:rate:limit:1", "123456", 300, 60));
+        // 1分钟内不能再次签发
+        assertFalse(store.issue("sms:login:1", "sms:rate:limit:1", "654321", 300, 60));
+        now.addAndGet(60_000);
+        assertTrue(store.issue("sms:login:1", "sms:rate:limit:1", "654321", 300, 60));
+        assertEquals(VerifyResult.SUCCESS, store.verify("sms:login:1", "654321"));
+    }
+
+    @Test
+    public void testVerifyConsumesCode() {
+        store.issue("register:a@example.com", "email:rate:limit:a@example.com", "123456", 300, 60);
+        assertEquals(VerifyResult.SUCCESS, store.verify("register:a@example.com", "123456"));
+        // 验证码只能使用一次
+        assertEquals(VerifyResult.EXPIRED, store.verify("register:a@example.com", "123456"));
+    }
+
+    @Test
+    public void testTooManyAttempts() {
+        store.issue("forget:b@example.com", "email:rate:limit:b@example.com", "123456", 300, 60);
+        assertEquals(VerifyResult.MISMATCH, store.verify("forget:b@example.com", "000000"));
+        assertEquals(VerifyResult.MISMATCH, store.verify("forget:b@example.com", "000001"));
+        assertEquals(VerifyResult.TOO_MANY_ATTEMPTS, store.verify("forget:b@example.com", "000002"));
+        // 错误次数过多后，正确的验证码也不能再使用
+        assertEquals(VerifyResult.EXPIRED, store.verify("forget:b@example.com", "123456"));
+    }
+
+    @Test
+    public void testExpiryAndRevoke() {
+        store.issue("sms:reset:2", "sms:rate:limit:2", "123456", 300, 60);
+        now.addAndGet(300_000);
+        assertEquals(VerifyResult.EXPIRED, store.verify("sms:reset:2", "123456"));
+
+        store.issue("sms:reset:3", "sms:rate:limit:3", "123456", 300, 60);
+        store.revoke("sms:reset:3", "sms:rate:limit:3");
+        assertEquals(VerifyResult.EXPIRED, store.verify("sms:reset:3", "123456"));
+        // 作废后可以马上重新签发
+        assertTrue(store.issue("sms:reset:3", "sms:rate:limit:3", "654321", 300, 60));
+    }
+}
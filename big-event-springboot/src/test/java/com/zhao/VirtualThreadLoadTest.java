@@ -0,0 +1,163 @@
+package com.zhao;
+
+import com.zhao.config.ThreadPoolConfig;
+import com.zhao.config.VirtualThreadConfig;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 平台线程与虚拟线程处理阻塞请求的压测对比
+ * 启动内嵌Tomcat和Spring MVC，通过HTTP并发请求一个阻塞接口，接口在请求线程中等待一段时间，模拟等待MySQL、Redis、OSS等的响应。
+ * 平台线程模式下Tomcat最大线程数为默认的200，所有请求至少要分 请求数/200 批处理完；
+ * 虚拟线程模式（spring.threads.virtual.enabled=true）每个请求一个虚拟线程，同时检查ThreadPoolConfig的IO线程池已切换为虚拟线程。
+ * 两种模式的耗时记录在日志中，虚拟线程模式需要JDK 21及以上，低版本JDK上跳过
+ */
+public class VirtualThreadLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadLoadTest.class);
+
+    private static final int REQUESTS = 1000;
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final long IO_MILLIS = 500;
+    // 平台线程处理完所有请求的理论下限：1000/200*500=2500ms，与机器快慢无关
+    private static final long PLATFORM_FLOOR_MILLIS = REQUESTS / TOMCAT_MAX_THREADS * IO_MILLIS;
+
+    @Nested
+    @SpringBootTest(classes = LoadTestApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+            properties = {"spring.threads.virtual.enabled=false", "server.tomcat.threads.max=" + TOMCAT_MAX_THREADS})
+    class PlatformThreads {
+
+        @LocalServerPort
+        private int port;
+
+        @Autowired
+        @Qualifier("uploadExecutor")
+        private AsyncTaskExecutor uploadExecutor;
+
+        @Test
+        public void testBlockingThroughput() {
+            assertInstanceOf(ThreadPoolTaskExecutor.class, uploadExecutor);
+
+            LoadResult result = run(port);
+            log.info("平台线程: {}个阻塞{}ms的请求耗时{}ms", REQUESTS, IO_MILLIS, result.millis);
+            assertEquals(0, result.virtualThreads);
+            assertTrue(result.millis >= PLATFORM_FLOOR_MILLIS, "平台线程耗时 " + result.millis + "ms");
+        }
+    }
+
+    @Nested
+    @SpringBootTest(classes = LoadTestApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+            properties = "spring.threads.virtual.enabled=true")
+    class VirtualThreads {
+
+        @LocalServerPort
+        private int port;
+
+        @Autowired
+        @Qualifier("uploadExecutor")
+        private AsyncTaskExecutor uploadExecutor;
+
+        @Test
+        public void testBlockingThroughput() {
+            Assumptions.assumeTrue(Runtime.version().feature() >= 21, "虚拟线程需要JDK 21及以上");
+            assertInstanceOf(SimpleAsyncTaskExecutor.class, uploadExecutor);
+
+            LoadResult result = run(port);
+            log.info("虚拟线程: {}个阻塞{}ms的请求耗时{}ms", REQUESTS, IO_MILLIS, result.millis);
+            assertEquals(REQUESTS, result.virtualThreads);
+            // 比平台线程理论上最快的耗时还要短，说明请求并发不再受Tomcat线程数限制
+            assertTrue(result.millis < PLATFORM_FLOOR_MILLIS, "虚拟线程耗时 " + result.millis + "ms");
+        }
+    }
+
+    /**
+     * 并发发出所有请求，等待全部返回
+     */
+    private static LoadResult run(int port) {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/load-test/blocking"))
+                .timeout(Duration.ofSeconds(60))
+                .build();
+        // 预热，第一次请求时初始化DispatcherServlet，不计入耗时
+        send(client, request).join();
+
+        long start = System.nanoTime();
+        List<CompletableFuture<String>> responses = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            responses.add(send(client, request));
+        }
+        int virtualThreads = 0;
+        for (CompletableFuture<String> response : responses) {
+            if (response.join().startsWith("VirtualThread")) {
+                virtualThreads++;
+            }
+        }
+        return new LoadResult((System.nanoTime() - start) / 1_000_000, virtualThreads);
+    }
+
+    private static CompletableFuture<String> send(HttpClient client, HttpRequest request) {
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).thenApply(response -> {
+            assertEquals(200, response.statusCode());
+            return response.body();
+        });
+    }
+
+    private record LoadResult(long millis, int virtualThreads) {
+    }
+
+    /**
+     * 只包含Web层和线程配置的应用，不连接MySQL、Redis
+     */
+    @SpringBootConfiguration
+    @ImportAutoConfiguration({ServletWebServerFactoryAutoConfiguration.class, DispatcherServletAutoConfiguration.class,
+            WebMvcAutoConfiguration.class, HttpMessageConvertersAutoConfiguration.class})
+    @Import({VirtualThreadConfig.class, ThreadPoolConfig.class, BlockingController.class})
+    static class LoadTestApplication {
+    }
+
+    /**
+     * 阻塞接口，返回处理请求的线程
+     */
+    @RestController
+    static class BlockingController {
+
+        @GetMapping("/load-test/blocking")
+        public String blocking() throws InterruptedException {
+            Thread.sleep(IO_MILLIS);
+            return Thread.currentThread().toString();
+        }
+    }
+}
@@ -249,5 +249,43 @@ export default {
     return request.get('/category/detail', {
       params: { id }
     })
+  },
+
+  /**
+   * 获取关注时间线（需要登录）
+   * @param {string} [cursor] - 上一页返回的nextCursor，第一页不传
+   * @param {number} [pageSize=10] - 每页条数
+   * @returns {Promise<Object>} 返回文章列表和下一页游标
+   */
+  getTimeline(cursor, pageSize = 10) {
+    return request.get('/article/timeline', {
+      params: { cursor, pageSize }
+    })
+  },
+
+  /**
+   * 获取文章详情页的全部数据（文章、作者、点赞收藏状态、第一页评论）
+   * 超时缺失的部分列在返回数据的missing中，可以再单独请求
+   * @param {number} id - 文章ID
+   * @param {number} [commentPageSize=10] - 第一页评论条数
+   * @returns {Promise<Object>} 返回详情页聚合数据
+   */
+  getArticleDetailAggregate(id, commentPageSize = 10) {
+    return request.get('/article/detail-aggregate', {
+      params: { id, commentPageSize }
+    })
+  }
+
+  /**
+   * 一次请求获取文章页需要的数据，只返回sections中列出的部分
+   * @param {number} id - 文章ID
+   * @param {string[]} [sections] - 需要的部分：author、liked、collected、comments、categories、following，不传时返回全部
+   * @param {number} [commentPageSize=10] - 第一页评论条数
+   * @returns {Promise<Object>} 返回文章页数据，没要的部分为null
+   */
+  getArticlePage(id, sections, commentPageSize = 10) {
+    return request.get('/article/page', {
+      params: { id, sections: sections ? sections.join(',') : undefined, commentPageSize }
+    })
   }
 }
@@ -27,5 +27,42 @@ export default {
    */
   getFollowersList() {
     return request.get('/user/followers')
+  },
+
+  /**
+   * 游标方式获取关注列表
+   * @param {string} [cursor] - 上一页返回的nextCursor，第一页不传
+   * @param {number} [pageSize=20] - 每页条数
+   * @returns {Promise}
+   */
+  getFollowingPage(cursor, pageSize = 20) {
+    return request.get('/user/following/cursor', { params: { cursor, pageSize } })
+  },
+
+  /**
+   * 游标方式获取粉丝列表
+   * @param {string} [cursor] - 上一页返回的nextCursor，第一页不传
+   * @param {number} [pageSize=20] - 每页条数
+   * @returns {Promise}
+   */
+  getFollowersPage(cursor, pageSize = 20) {
+    return request.get('/user/followers/cursor', { params: { cursor, pageSize } })
+  },
+
+  /**
+   * 获取当前用户的关注数和粉丝数
+   * @returns {Promise}
+   */
+  getFollowCounts() {
+    return request.get('/user/follow-counts')
+  },
+
+  /**
+   * 批量查询与一批用户的关注关系
+   * @param {number[]} ids - 用户ID列表
+   * @returns {Promise}
+   */
+  getFollowStates(ids) {
+    return request.get('/user/follow-states', { params: { ids: ids.join(',') } })
   }
 }
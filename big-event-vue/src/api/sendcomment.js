@@ -93,5 +93,14 @@ export default {
     const auth = raw.startsWith('Bearer ') ? raw : (raw ? `Bearer ${raw}` : '');
     const headers = auth ? { Authorization: auth } : {};
     return request.post(`/article/collect/${articleId}`, null, { headers }).then(response => response);
+  },
+
+  /**
+   * 批量提交点赞、收藏、评论点赞、关注操作（离线攒下的操作一次同步）
+   * @param {Array<{type: string, targetId: number, active?: boolean}>} actions - 操作列表，type取值ARTICLE_LIKE、ARTICLE_COLLECT、COMMENT_LIKE、FOLLOW，active为期望的最终状态
+   * @returns {Promise<Object>} 返回每个目标的最终状态和计数
+   */
+  batchInteractions(actions) {
+    return request.post('/interaction/batch', actions);
   }
 }